@@ -1,9 +1,13 @@
 package com.tastebuds;
 
+import com.tastebuds.api.ApiServer;
+import com.tastebuds.metrics.PrometheusExporter;
 import com.tastebuds.model.*;
+import com.tastebuds.service.MenuCatalog;
 import com.tastebuds.service.TasteBudsSystem;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,7 +18,9 @@ public class Main {
     private static TasteBudsSystem system = new TasteBudsSystem();
 
     public static void main(String[] args) {
-        system.loadData();
+        System.out.println(system.loadData());
+        startApi();
+        startMetrics();
 
         while (true) {
             displayRoleSelection();
@@ -28,6 +34,7 @@ public class Main {
                 case 5 -> adminMenu();
                 case 6 -> {
                     system.saveData();
+                    system.shutdown();
                     System.out.println("Data saved.");
                     System.out.println("Goodbye.");
                     System.exit(0);
@@ -37,6 +44,30 @@ public class Main {
         }
     }
 
+    // -Dtastebuds.http.port=8080 serves the order API alongside the console
+    private static void startApi() {
+        String port = System.getProperty("tastebuds.http.port");
+        if (port == null) return;
+        String host = System.getProperty("tastebuds.http.host", "localhost");
+        try {
+            new ApiServer(system, new InetSocketAddress(host, Integer.parseInt(port))).start();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot start the order API on " + host + ":" + port + ": " + e.getMessage());
+        }
+    }
+
+    // -Dtastebuds.metrics.port=9400 serves Prometheus metrics at /metrics
+    private static void startMetrics() {
+        String port = System.getProperty("tastebuds.metrics.port");
+        if (port == null) return;
+        String host = System.getProperty("tastebuds.metrics.host", "localhost");
+        try {
+            new PrometheusExporter(system.getMetrics(), new InetSocketAddress(host, Integer.parseInt(port))).start();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot start the metrics exporter on " + host + ":" + port + ": " + e.getMessage());
+        }
+    }
+
     private static void displayRoleSelection() {
         System.out.println();
         System.out.println("TasteBuds Catering System");
@@ -139,7 +170,6 @@ public class Main {
 
         if (success) {
             System.out.println("Delivery confirmed and recorded. Order " + orderNo + " marked as DELIVERED.");
-            system.saveData();
         } else {
             System.out.println("Failed to confirm delivery. Check order number and license.");
         }
@@ -176,30 +206,30 @@ public class Main {
             customer = new GuestCustomer("GUEST_" + System.currentTimeMillis(), name);
         }
 
-        // Show hardcoded menu and let customer choose items and quantities
-        Map<String, Double> menu = system.getMenu();
-        List<String> itemNames = new ArrayList<>(menu.keySet());
+        // Show the current menu and let customer choose items and quantities
+        MenuCatalog.Menu menu = system.getMenuCatalog().current();
 
         System.out.println("\n--- MENU ---");
-        for (int i = 0; i < itemNames.size(); i++) {
-            String item = itemNames.get(i);
-            System.out.printf("%2d. %-25s %6.2f BDT\n", i + 1, item, menu.get(item));
+        for (int i = 0; i < menu.activeCount(); i++) {
+            int id = menu.activeId(i);
+            System.out.printf("%2d. %-25s %6.2f BDT\n", i + 1, menu.name(id), menu.price(id));
         }
 
-        Map<String, Integer> selection = new LinkedHashMap<>();
+        // menu item id -> quantity, in the order the items were first chosen
+        Map<Integer, Integer> selection = new LinkedHashMap<>();
         while (true) {
             System.out.print("Enter item number to add (0 to finish): ");
             int idx = getIntInput();
             if (idx == 0) break;
-            if (idx < 1 || idx > itemNames.size()) {
+            if (idx < 1 || idx > menu.activeCount()) {
                 System.out.println("Invalid item number");
                 continue;
             }
             System.out.print("Quantity: ");
             int qty = getIntInput();
-            String chosen = itemNames.get(idx - 1);
-            selection.put(chosen, selection.getOrDefault(chosen, 0) + qty);
-            System.out.println("Added: " + qty + " x " + chosen);
+            int id = menu.activeId(idx - 1);
+            selection.merge(id, qty, Integer::sum);
+            System.out.println("Added: " + qty + " x " + menu.name(id));
         }
 
         if (selection.isEmpty()) {
@@ -207,31 +237,49 @@ public class Main {
             return;
         }
 
-        StringBuilder itemsBuilder = new StringBuilder();
-        double bill = 0.0;
+        int[] menuItems = new int[selection.size()];
+        int[] quantities = new int[selection.size()];
+        int n = 0;
         for (var e : selection.entrySet()) {
-            itemsBuilder.append(e.getValue()).append("x ").append(e.getKey()).append(", ");
-            bill += menu.get(e.getKey()) * e.getValue();
+            menuItems[n] = e.getKey();
+            quantities[n] = e.getValue();
+            n++;
         }
-        String items = itemsBuilder.toString();
 
-        Order order = system.placeOrder(customer, items, bill);
+        Order order;
+        try {
+            order = system.placeOrder(customer, menuItems, quantities);
+        } catch (IllegalArgumentException e) {
+            System.out.println("The menu changed while ordering: " + e.getMessage() + ". Please order again.");
+            return;
+        }
 
         System.out.println();
         System.out.println("Order placed.");
         System.out.println("Order: " + order.getOrderNo());
         System.out.println("Position: " + order.getQueuePosition());
-        System.out.println("Bill: " + order.getFinalBill() + " BDT");
+        System.out.println("Bill: " + Money.format(order.getFinalBillMinor()) + " BDT");
     }
 
     private static void kitchenPreparation() {
         System.out.println();
         System.out.println("Head Chef - Prepare Order");
-        System.out.print("Enter order number: ");
-        String orderNo = scanner.nextLine();
-
-        Order order = system.findOrder(orderNo);
-        if (order == null || !order.getStatus().equals("PLACED")) {
+        System.out.print("Enter order number (blank for next in kitchen queue): ");
+        String orderNo = scanner.nextLine().trim();
+
+        Order order;
+        if (orderNo.isEmpty()) {
+            order = system.nextOrderForKitchen();
+            if (order == null) {
+                System.out.println("No orders waiting for the kitchen!");
+                return;
+            }
+            orderNo = order.getOrderNo();
+            System.out.println("Next order: " + orderNo);
+        } else {
+            order = system.findOrder(orderNo);
+        }
+        if (order == null || order.getStatus() != OrderStatus.PLACED) {
             System.out.println("Order not found or already processed!");
             return;
         }
@@ -239,9 +287,9 @@ public class Main {
         System.out.println("\nOrder Details:");
         System.out.println("  Customer ID : " + order.getCustomerId());
         System.out.println("  Items       : " + order.getItems());
-        System.out.println("  Bill Amount : " + order.getFinalBill() + " BDT");
+        System.out.println("  Bill Amount : " + Money.format(order.getFinalBillMinor()) + " BDT");
 
-        OrderCategory suggested = order.getFinalBill() > 1000 ? OrderCategory.PRIORITY : OrderCategory.NORMAL;
+        OrderCategory suggested = OrderCategory.suggestFor(order.getFinalBillMinor());
         System.out.println("\nSuggested Category based on details: " + suggested);
         System.out.println("  1. Accept suggested");
         System.out.println("  2. Toggle to other category");
@@ -271,7 +319,7 @@ public class Main {
         String orderNo = scanner.nextLine();
 
         Order order = system.findOrder(orderNo);
-        if (order == null || !order.getStatus().equals("READY")) {
+        if (order == null || order.getStatus() != OrderStatus.READY) {
             System.out.println("Order not found or not ready for delivery!");
             System.out.println("   Current status: " + (order != null ? order.getStatus() : "NOT FOUND"));
             return;
@@ -310,7 +358,10 @@ public class Main {
             System.out.print("Enter vehicle ID: ");
             String vehicle = scanner.nextLine();
 
-            system.assignDelivery(orderNo, driverId, vehicle);
+            if (!system.assignDelivery(orderNo, driverId, vehicle)) {
+                System.out.println("Unable to assign (order, driver or vehicle no longer available)");
+                return;
+            }
 
             System.out.println("Delivery assigned (manual). Order: " + orderNo + ". Driver: " + driver.getName() + ". Vehicle: " + vehicle);
         }
@@ -442,7 +493,9 @@ public class Main {
             System.out.println("9. View Current Queue");
             System.out.println("10. View All Feedbacks");
             System.out.println("11. Save Data");
-            System.out.println("12. Back to Role Selection");
+            System.out.println("12. Reload Menu");
+            System.out.println("13. View Stage Times");
+            System.out.println("14. Back to Role Selection");
             System.out.print("➤ Choice: ");
             int c = getIntInput();
             switch (c) {
@@ -457,10 +510,18 @@ public class Main {
                 case 9 -> viewCurrentQueue();
                 case 10 -> viewAllFeedbacks();
                 case 11 -> {
-                    system.saveData();
+                    System.out.println(system.saveData());
                     System.out.println("Data saved.");
                 }
-                case 12 -> { return; }
+                case 12 -> {
+                    if (system.reloadMenu()) {
+                        System.out.println("Menu updated to version " + system.getMenuCatalog().version() + ".");
+                    } else {
+                        System.out.println("Menu unchanged (version " + system.getMenuCatalog().version() + ").");
+                    }
+                }
+                case 13 -> System.out.print(system.getStageLatencies().report());
+                case 14 -> { return; }
                 default -> System.out.println("Invalid choice. Try again.");
             }
         }
@@ -517,7 +578,7 @@ public class Main {
             String custId = o != null ? o.getCustomerId() : "N/A";
             Customer c = custId.equals("N/A") ? null : system.findCustomer(custId);
             String custName = (c != null) ? c.getName() : "N/A";
-            String status = (o != null) ? o.getStatus() : "N/A";
+            String status = (o != null) ? o.getStatus().toString() : "N/A";
             String comment = f.getComment() == null || f.getComment().isBlank() ? "(no comment)" : f.getComment();
 
             System.out.println("Order: " + f.getOrderNo() + " | Rating: " + f.getRating() + " | Customer: " + custId + " - " + custName + " | Status: " + status);
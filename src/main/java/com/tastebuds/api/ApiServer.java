@@ -0,0 +1,363 @@
+package com.tastebuds.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tastebuds.model.Customer;
+import com.tastebuds.model.Order;
+import com.tastebuds.model.OrderCategory;
+import com.tastebuds.model.OrderStats;
+import com.tastebuds.model.OrderStatus;
+import com.tastebuds.service.MenuCatalog;
+import com.tastebuds.service.TasteBudsSystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * HTTP/JSON front end for {@link TasteBudsSystem}, on the JDK's built-in HttpServer.
+ *
+ * <pre>
+ * GET  /menu                        items on offer
+ * POST /orders                      {"customerId", "menuItems": [ids], "quantities": [n]}
+ * GET  /orders/{no}                 one order (archived ones too)
+ * POST /orders/{no}/prepare         {"category", "chefs", "time"}
+ * POST /orders/{no}/dispatch        assign the longest-free driver and vehicle
+ * POST /orders/{no}/deliver         {"licenseNo"}
+ * POST /orders/{no}/feedback        {"rating", "comment"}
+ * GET  /queue                       orders not delivered yet, in queue order
+ * GET  /stats                       order counts per status and the serving counter
+ * GET  /latencies                   time spent per status and category, in nanoseconds
+ * </pre>
+ *
+ * A transition the order is not in a state for answers 409; a delivery with a license
+ * other than the assigned driver's 403; an unknown order or customer 404; a malformed body
+ * 400. Requests run on the given executor, by default a fixed pool of {@link #DEFAULT_THREADS}.
+ * The system does its own locking, so handlers share it freely.
+ */
+public class ApiServer {
+    public static final int DEFAULT_THREADS = 64;
+    private static final int BACKLOG = 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final TasteBudsSystem system;
+    private final HttpServer server;
+    // the default pool, shut down with the server; a caller's executor is theirs to stop
+    private final ExecutorService ownPool;
+
+    public ApiServer(TasteBudsSystem system, InetSocketAddress address) throws IOException {
+        this(system, address, null);
+    }
+
+    /**
+     * Server on the given address; port 0 picks a free one. A null executor means the default pool.
+     */
+    public ApiServer(TasteBudsSystem system, InetSocketAddress address, Executor executor) throws IOException {
+        this.system = system;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.ownPool = executor == null ? Executors.newFixedThreadPool(DEFAULT_THREADS, new ApiThreadFactory()) : null;
+        server.setExecutor(executor == null ? ownPool : executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Order API listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given number of seconds for those in flight.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        if (ownPool != null) {
+            ownPool.shutdown();
+            try {
+                ownPool.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Response response;
+            try {
+                response = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), exchange);
+            } catch (IllegalArgumentException e) {
+                response = error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+                response = error(500, "Internal error");
+            }
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response route(String method, String path, HttpExchange exchange) throws IOException {
+        String[] parts = path.replaceAll("^/+|/+$", "").split("/");
+        String resource = parts[0];
+
+        if (parts.length == 1) {
+            switch (resource) {
+                case "menu":
+                    return get(method, this::menu);
+                case "queue":
+                    return get(method, this::queue);
+                case "stats":
+                    return get(method, this::stats);
+                case "latencies":
+                    return get(method, this::latencies);
+                case "orders":
+                    if (!method.equals("POST")) return error(405, "Use POST");
+                    return placeOrder(Json.parseObject(body(exchange)));
+                default:
+                    return error(404, "No such resource");
+            }
+        }
+        if (!resource.equals("orders") || parts.length > 3) {
+            return error(404, "No such resource");
+        }
+
+        String orderNo = parts[1];
+        if (parts.length == 2) {
+            return get(method, () -> {
+                Order order = system.findOrder(orderNo);
+                return order == null ? error(404, "No order " + orderNo) : new Response(200, order(order));
+            });
+        }
+        if (!method.equals("POST")) {
+            return error(405, "Use POST");
+        }
+        if (system.findOrder(orderNo) == null) {
+            return error(404, "No order " + orderNo);
+        }
+
+        Map<String, Object> body = Json.parseObject(body(exchange));
+        boolean done;
+        switch (parts[2]) {
+            case "prepare" -> {
+                OrderCategory category = OrderCategory.valueOf(text(body, "category", OrderCategory.NORMAL.name()));
+                done = system.prepareOrder(orderNo, category, text(body, "chefs", null), (int) number(body, "time"));
+            }
+            case "dispatch" -> done = system.autoAssignDelivery(orderNo);
+            case "deliver" -> {
+                String licenseNo = text(body, "licenseNo", null);
+                done = system.driverCompleteDelivery(orderNo, licenseNo);
+                if (!done && system.findOrder(orderNo).getStatus() == OrderStatus.OUT_FOR_DELIVERY
+                        && !system.driverCheckout(orderNo, licenseNo)) {
+                    return error(403, "License " + licenseNo + " does not match the driver of order " + orderNo);
+                }
+            }
+            case "feedback" -> {
+                int rating = (int) number(body, "rating");
+                if (rating < 1 || rating > 5) {
+                    throw new IllegalArgumentException("rating must be 1 to 5");
+                }
+                done = system.submitFeedback(orderNo, rating, text(body, "comment", ""));
+            }
+            default -> {
+                return error(404, "No such action");
+            }
+        }
+        Order order = system.findOrder(orderNo);
+        return done ? new Response(200, order(order))
+                : error(409, "Order " + orderNo + " is " + order.getStatus() + "; cannot " + parts[2]);
+    }
+
+    private Response placeOrder(Map<String, Object> body) {
+        String customerId = text(body, "customerId", null);
+        Customer customer = system.findCustomer(customerId);
+        if (customer == null) {
+            return error(404, "No customer " + customerId);
+        }
+        int[] menuItems = ints(body, "menuItems");
+        int[] quantities = ints(body, "quantities");
+        if (menuItems.length == 0) {
+            throw new IllegalArgumentException("menuItems is empty");
+        }
+        for (int quantity : quantities) {
+            if (quantity < 1) throw new IllegalArgumentException("quantities must be positive");
+        }
+        return new Response(201, order(system.placeOrder(customer, menuItems, quantities)));
+    }
+
+    private Response menu() {
+        MenuCatalog.Menu menu = system.getMenuCatalog().current();
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < menu.activeCount(); i++) {
+            int id = menu.activeId(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", id);
+            item.put("name", menu.name(id));
+            item.put("price", money(menu.priceMinor(id)));
+            items.add(item);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("version", menu.getVersion());
+        json.put("items", items);
+        return new Response(200, json);
+    }
+
+    private Response queue() {
+        List<Object> orders = new ArrayList<>();
+        for (Order order : system.getQueue()) {
+            orders.add(order(order));
+        }
+        return new Response(200, orders);
+    }
+
+    private Response stats() {
+        OrderStats stats = system.stats();
+        Map<String, Object> counts = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status.name(), stats.count(status));
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("counts", counts);
+        json.put("archived", stats.getArchived());
+        json.put("active", stats.getActive());
+        json.put("servingOrder", stats.getServingOrder());
+        return new Response(200, json);
+    }
+
+    private Response latencies() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        system.getStageLatencies().forEach((stage, category, s) -> {
+            Map<String, Object> times = new LinkedHashMap<>();
+            times.put("count", s.getCount());
+            times.put("mean", Math.round(s.getMean()));
+            times.put("p50", s.valueAtPercentile(50));
+            times.put("p99", s.valueAtPercentile(99));
+            times.put("p999", s.valueAtPercentile(99.9));
+            times.put("max", s.getMax());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> byCategory = (Map<String, Object>) json.computeIfAbsent(stage, k -> new LinkedHashMap<>());
+            byCategory.put(category, times);
+        });
+        return new Response(200, json);
+    }
+
+    private static Map<String, Object> order(Order order) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("orderNo", order.getOrderNo());
+        json.put("customerId", order.getCustomerId());
+        json.put("items", order.getItems());
+        if (order.hasLineItems()) {
+            List<Object> lines = new ArrayList<>();
+            for (int i = 0; i < order.getLineItemCount(); i++) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("menuItem", order.getMenuItem(i));
+                line.put("quantity", order.getQuantity(i));
+                lines.add(line);
+            }
+            json.put("lineItems", lines);
+        }
+        json.put("bill", money(order.getBillMinor()));
+        json.put("finalBill", money(order.getFinalBillMinor()));
+        json.put("status", order.getStatus());
+        json.put("category", order.getCategory());
+        json.put("queuePosition", order.getQueuePosition());
+        json.put("assignedChefs", order.getAssignedChefs());
+        json.put("estimatedTime", order.getEstimatedTime());
+        json.put("driverId", order.getDriverId());
+        json.put("vehicle", order.getVehicle());
+        return json;
+    }
+
+    // exact decimal BDT, e.g. 580.00
+    private static BigDecimal money(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    private static Response get(String method, Supplier<Response> handler) {
+        return method.equals("GET") ? handler.get() : error(405, "Use GET");
+    }
+
+    private static Response error(int status, String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return new Response(status, json);
+    }
+
+    private static String text(Map<String, Object> body, String field, String fallback) {
+        Object value = body.get(field);
+        if (value == null) {
+            if (fallback == null) throw new IllegalArgumentException(field + " is required");
+            return fallback;
+        }
+        if (!(value instanceof String s)) throw new IllegalArgumentException(field + " must be a string");
+        return s;
+    }
+
+    private static long number(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Long n)) throw new IllegalArgumentException(field + " must be a whole number");
+        return n;
+    }
+
+    private static int[] ints(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof List<?> list)) throw new IllegalArgumentException(field + " must be an array");
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            if (!(list.get(i) instanceof Long n)) throw new IllegalArgumentException(field + " must hold whole numbers");
+            result[i] = Math.toIntExact(n);
+        }
+        return result;
+    }
+
+    private static String body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = Json.write(response.body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record Response(int status, Object body) {
+    }
+
+    private static class ApiThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "api-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
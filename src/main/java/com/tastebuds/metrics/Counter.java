@@ -0,0 +1,32 @@
+package com.tastebuds.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count backed by a {@link LongAdder}: updates from many threads land in
+ * separate cells instead of fighting over one, and reading sums the cells.
+ */
+public final class Counter {
+    private final LongAdder adder = new LongAdder();
+
+    Counter() {
+    }
+
+    public void inc() {
+        adder.increment();
+    }
+
+    /**
+     * Adds a non-negative amount; counters never go down.
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Counter cannot decrease: " + amount);
+        }
+        adder.add(amount);
+    }
+
+    public long get() {
+        return adder.sum();
+    }
+}
@@ -0,0 +1,155 @@
+package com.tastebuds.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, bucketed the way HdrHistogram does it:
+ * exact below {@value #SUB_BUCKETS}, then {@value #HALF} linear buckets per power of two, so
+ * any recorded value is reported within 1/{@value #HALF} (about 1.6%) of itself over the
+ * whole range of a long. Recording is one atomic increment plus a max update and never
+ * allocates; reading takes a {@link Snapshot}, which concurrent recording does not disturb.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    // values below SUB_BUCKETS, then HALF buckets for each shift from 1 to 63 - SUB_BITS
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one duration; negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // keep the leading one and the SUB_BITS - 1 bits below it
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int top = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF + (top - HALF);
+    }
+
+    // largest value that lands in the bucket
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long top = HALF + (index - SUB_BUCKETS) % HALF;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Counts as they stood when the snapshot was taken. Values are nanoseconds.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Smallest recorded value that the given percentage (0-100) of values are at or below,
+         * to the histogram's precision. Zero when nothing was recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Calls the visitor for every non-empty bucket, lowest first, with the largest value
+         * the bucket holds and the number of values in it.
+         */
+        public void forEachBucket(BucketVisitor visitor) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    visitor.visit(highestValueAt(i), counts[i]);
+                }
+            }
+        }
+
+        /**
+         * One-line summary with percentiles in the given unit, e.g. for a report table.
+         */
+        public String summary(TimeUnit unit) {
+            double scale = unit.toNanos(1);
+            return String.format("count=%d mean=%.2f p50=%.2f p99=%.2f p999=%.2f max=%.2f (%s)",
+                    count, getMean() / scale,
+                    valueAtPercentile(50) / scale, valueAtPercentile(99) / scale,
+                    valueAtPercentile(99.9) / scale, max / scale,
+                    unit.name().toLowerCase());
+        }
+    }
+
+    @FunctionalInterface
+    public interface BucketVisitor {
+        void visit(long highestValue, long count);
+    }
+}
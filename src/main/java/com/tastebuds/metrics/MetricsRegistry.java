@@ -0,0 +1,233 @@
+package com.tastebuds.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Named counters, gauges and latency summaries, written out in the Prometheus text format.
+ *
+ * {@link Counter}s are LongAdder-backed and meant to be looked up once and kept, so the hot
+ * path is a single uncontended add. Gauges and summaries are read only when scraped, so
+ * they cost nothing between scrapes. Labels are given as name/value pairs; one metric name
+ * can carry several label sets, but always of the one type.
+ *
+ * @see PrometheusExporter
+ */
+public final class MetricsRegistry {
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double SECONDS_PER_NANO = 1e-9;
+
+    // registration order, which is also the order they are written in
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * The counter with this name and labels, created on first use.
+     */
+    public synchronized Counter counter(String name, String help, String... labels) {
+        Family family = family(name, help, "counter");
+        String key = labelText(labels);
+        Sample sample = family.samples.get(key);
+        if (sample == null) {
+            sample = new CounterSample(new Counter());
+            family.samples.put(key, sample);
+        }
+        return ((CounterSample) sample).counter;
+    }
+
+    /**
+     * Registers a gauge read on every scrape, replacing any earlier one with the same
+     * name and labels.
+     */
+    public synchronized void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").samples.put(labelText(labels), new GaugeSample(value));
+    }
+
+    /**
+     * Registers a summary of a nanosecond histogram, taken on every scrape and written in
+     * seconds, replacing any earlier one with the same name and labels.
+     */
+    public synchronized void summary(String name, String help, Supplier<LatencyHistogram.Snapshot> snapshot,
+                                     String... labels) {
+        family(name, help, "summary").samples.put(labelText(labels), new SummarySample(snapshot));
+    }
+
+    /**
+     * A histogram to record nanosecond durations into, exported as a summary in seconds;
+     * created on first use. Fails if a {@link #summary supplied summary} already has the
+     * name and labels.
+     */
+    public synchronized LatencyHistogram timer(String name, String help, String... labels) {
+        Family family = family(name, help, "summary");
+        String key = labelText(labels);
+        SummarySample sample = (SummarySample) family.samples.get(key);
+        if (sample == null) {
+            sample = new SummarySample(new LatencyHistogram());
+            family.samples.put(key, sample);
+        } else if (sample.histogram == null) {
+            throw new IllegalArgumentException(name + "{" + key + "} is a supplied summary, not a timer");
+        }
+        return sample.histogram;
+    }
+
+    private Family family(String name, String help, String type) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Bad metric name: " + name);
+        }
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    // name="value",... with the exposition format's escapes
+    private static String labelText(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels come in name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!LABEL.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("Bad label name: " + labels[i]);
+            }
+            if (sb.length() > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> sb.append("\\\\");
+                    case '"' -> sb.append("\\\"");
+                    case '\n' -> sb.append("\\n");
+                    default -> sb.append(ch);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format (version 0.0.4).
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        List<Family> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(families.size());
+            for (Family family : families.values()) {
+                snapshot.add(family.copy());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Family family : snapshot) {
+            sb.append("# HELP ").append(family.name).append(' ')
+                    .append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            sb.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Sample> entry : family.samples.entrySet()) {
+                entry.getValue().write(sb, family.name, entry.getKey());
+            }
+        }
+        out.append(sb);
+    }
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writePrometheus(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder does not throw
+        }
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String name, String labels, String value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Sample> samples;
+
+        Family(String name, String help, String type) {
+            this(name, help, type, new LinkedHashMap<>());
+        }
+
+        private Family(String name, String help, String type, Map<String, Sample> samples) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.samples = samples;
+        }
+
+        Family copy() {
+            return new Family(name, help, type, new LinkedHashMap<>(samples));
+        }
+    }
+
+    private interface Sample {
+        void write(StringBuilder sb, String name, String labels);
+    }
+
+    private record CounterSample(Counter counter) implements Sample {
+        @Override
+        public void write(StringBuilder sb, String name, String labels) {
+            line(sb, name, labels, Long.toString(counter.get()));
+        }
+    }
+
+    private record GaugeSample(DoubleSupplier value) implements Sample {
+        @Override
+        public void write(StringBuilder sb, String name, String labels) {
+            line(sb, name, labels, number(value.getAsDouble()));
+        }
+    }
+
+    private static final class SummarySample implements Sample {
+        // set when the registry owns the histogram (timer), null for a supplied one
+        final LatencyHistogram histogram;
+        final Supplier<LatencyHistogram.Snapshot> snapshot;
+
+        SummarySample(LatencyHistogram histogram) {
+            this.histogram = histogram;
+            this.snapshot = histogram::snapshot;
+        }
+
+        SummarySample(Supplier<LatencyHistogram.Snapshot> snapshot) {
+            this.histogram = null;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void write(StringBuilder sb, String name, String labels) {
+            LatencyHistogram.Snapshot s = snapshot.get();
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            for (double q : QUANTILES) {
+                line(sb, name, prefix + "quantile=\"" + q + "\"",
+                        number(s.valueAtPercentile(q * 100) * SECONDS_PER_NANO));
+            }
+            line(sb, name + "_sum", labels, number(s.getSum() * SECONDS_PER_NANO));
+            line(sb, name + "_count", labels, Long.toString(s.getCount()));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tastebuds.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counter for one persisted collection (all orders, all drivers, ...).
+ * Tracked entities bump it from their setters and the owner bumps it when the
+ * collection itself grows, so a save can skip a file whose counter has not moved
+ * since it was last written. Saving records the version it wrote rather than
+ * clearing a flag, so a change that races the write is never lost.
+ *
+ * A tracked entity keeps the tracker of the file it is saved to in a transient
+ * {@code changes} field, set through its {@code trackChanges} method when the owner takes
+ * it in; until then the field is null and {@link #changed(ChangeTracker)} does nothing.
+ */
+public final class ChangeTracker {
+    private final AtomicLong version = new AtomicLong();
+    // -1: nothing written yet, so the first save always writes
+    private volatile long savedVersion = -1;
+
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public boolean isDirty() {
+        return version.get() != savedVersion;
+    }
+
+    /**
+     * Records that the collection as it was at {@code version} is on disk.
+     */
+    public void markSaved(long version) {
+        this.savedVersion = version;
+    }
+
+    /**
+     * Records that the collection as it is now matches the file (it was just loaded from it).
+     */
+    public void markClean() {
+        this.savedVersion = version.get();
+    }
+
+    static void changed(ChangeTracker tracker) {
+        if (tracker != null) {
+            tracker.changed();
+        }
+    }
+}
@@ -12,6 +12,9 @@ public class Chef {
     @XmlElement
     private boolean available;
 
+    @XmlTransient
+    private volatile ChangeTracker changes;
+
     public Chef() {}
 
     public Chef(String name) {
@@ -25,6 +28,7 @@ public class Chef {
 
     public void setName(String name) {
         this.name = name;
+        ChangeTracker.changed(changes);
     }
 
     public boolean isAvailable() {
@@ -33,6 +37,11 @@ public class Chef {
 
     public void setAvailable(boolean available) {
         this.available = available;
+        ChangeTracker.changed(changes);
+    }
+
+    public void trackChanges(ChangeTracker changes) {
+        this.changes = changes;
     }
 
     @Override
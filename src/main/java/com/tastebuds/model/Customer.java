@@ -12,6 +12,8 @@ public abstract class Customer {
     @XmlElement(required = true)
     protected String name;
 
+    @XmlTransient
+    private volatile ChangeTracker changes;
 
     public Customer() {}
 
@@ -30,12 +32,33 @@ public abstract class Customer {
 
     public void setId(String id) {
         this.id = id;
+        changed();
     }
 
     public void setName(String name) {
         this.name = name;
+        changed();
+    }
+
+    public void trackChanges(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    protected void changed() {
+        ChangeTracker.changed(changes);
+    }
+
+    /**
+     * Discount on a bill, both in minor units.
+     */
+    public abstract long calculateDiscountMinor(long totalBill);
+
+    /**
+     * Discount on a bill in BDT, rounded to the nearest poisha.
+     */
+    public double calculateDiscount(double totalBill) {
+        return Money.toMajor(calculateDiscountMinor(Money.ofMajor(totalBill)));
     }
 
-    public abstract double calculateDiscount(double totalBill);
     public abstract String getCustomerType();
 }
\ No newline at end of file
@@ -16,7 +16,10 @@ public class Driver {
     private DrivingLicense license;
 
     @XmlElement
-    private boolean available;
+    private volatile boolean available;
+
+    @XmlTransient
+    private volatile ChangeTracker changes;
 
     public Driver() {}
 
@@ -40,6 +43,7 @@ public class Driver {
 
     public void setId(String id) {
         this.id = id;
+        ChangeTracker.changed(changes);
     }
 
     public String getName() {
@@ -48,6 +52,7 @@ public class Driver {
 
     public void setName(String name) {
         this.name = name;
+        ChangeTracker.changed(changes);
     }
 
     public DrivingLicense getLicense() {
@@ -56,6 +61,7 @@ public class Driver {
 
     public void setLicense(DrivingLicense license) {
         this.license = license;
+        ChangeTracker.changed(changes);
     }
 
     public boolean isAvailable() {
@@ -64,6 +70,11 @@ public class Driver {
 
     public void setAvailable(boolean available) {
         this.available = available;
+        ChangeTracker.changed(changes);
+    }
+
+    public void trackChanges(ChangeTracker changes) {
+        this.changes = changes;
     }
 
     public boolean verifyLicense(String licenseNo) {
@@ -14,6 +14,9 @@ public class Feedback {
     @XmlElement
     private String comment;
 
+    @XmlTransient
+    private volatile ChangeTracker changes;
+
     public Feedback() {}
 
     public Feedback(String orderNo, int rating, String comment) {
@@ -28,6 +31,7 @@ public class Feedback {
 
     public void setOrderNo(String orderNo) {
         this.orderNo = orderNo;
+        ChangeTracker.changed(changes);
     }
 
     public int getRating() {
@@ -37,6 +41,7 @@ public class Feedback {
     public void setRating(int rating) {
         if (rating >= 1 && rating <= 5) {
             this.rating = rating;
+            ChangeTracker.changed(changes);
         } else {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
@@ -48,6 +53,11 @@ public class Feedback {
 
     public void setComment(String comment) {
         this.comment = comment;
+        ChangeTracker.changed(changes);
+    }
+
+    public void trackChanges(ChangeTracker changes) {
+        this.changes = changes;
     }
 
     @Override
@@ -14,7 +14,7 @@ public class GuestCustomer extends Customer {
     }
 
     @Override
-    public double calculateDiscount(double totalBill) {
+    public long calculateDiscountMinor(long totalBill) {
         return 0;
     }
 
@@ -0,0 +1,85 @@
+package com.tastebuds.model;
+
+import jakarta.xml.bind.annotation.*;
+
+
+@XmlRootElement(name = "item")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class MenuItem {
+    // stable id, stored in order line items; never reused for another dish
+    @XmlAttribute(required = true)
+    private int id;
+
+    @XmlElement
+    private String name;
+
+    // minor units; XML carries decimal BDT through the price property below
+    @XmlTransient
+    private long price;
+
+    // retired items stay in the menu file so old orders can still name them
+    @XmlElement
+    private boolean active = true;
+
+    public MenuItem() {}
+
+    public MenuItem(int id, String name, double price) {
+        this.id = id;
+        this.name = name;
+        this.price = Money.ofMajor(price);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPrice() {
+        return Money.toMajor(price);
+    }
+
+    public void setPrice(double price) {
+        this.price = Money.ofMajor(price);
+    }
+
+    public long getPriceMinor() {
+        return price;
+    }
+
+    public void setPriceMinor(long priceMinor) {
+        this.price = priceMinor;
+    }
+
+    @XmlElement(name = "price")
+    private String getPriceXml() {
+        return Money.format(price);
+    }
+
+    private void setPriceXml(String value) {
+        this.price = Money.parse(value);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuItem{id=" + id + ", name='" + name + "', price=" + Money.format(price) + ", active=" + active + "}";
+    }
+}
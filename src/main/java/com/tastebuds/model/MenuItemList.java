@@ -0,0 +1,46 @@
+package com.tastebuds.model;
+
+import jakarta.xml.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "menu")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class MenuItemList {
+
+    // bumped on every edit; a reload only applies a newer version
+    @XmlAttribute
+    private int version;
+
+    @XmlElement(name = "item")
+    private List<MenuItem> items;
+
+    public MenuItemList() {
+        this.items = new ArrayList<>();
+    }
+
+    public MenuItemList(int version, List<MenuItem> items) {
+        this.version = version;
+        this.items = items;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public List<MenuItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<MenuItem> items) {
+        this.items = items;
+    }
+
+    public void addItem(MenuItem item) {
+        this.items.add(item);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tastebuds.model;
+
+/**
+ * Money as a primitive {@code long} count of minor units (poisha, 1/100 BDT).
+ * Sums are exact and cost nothing to allocate; only display and the XML files
+ * use decimal BDT strings.
+ */
+public final class Money {
+    public static final long MINOR_PER_MAJOR = 100;
+
+    private Money() {}
+
+    /**
+     * Nearest minor-unit amount to a BDT value (for callers still working in doubles).
+     */
+    public static long ofMajor(double amount) {
+        return Math.round(amount * MINOR_PER_MAJOR);
+    }
+
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    /**
+     * The given percentage of an amount, rounded half up to the nearest minor unit.
+     * The percentage is taken to two decimals, so the arithmetic stays in longs.
+     */
+    public static long percentOf(long amount, double percent) {
+        long basisPoints = Math.round(percent * 100);
+        long scaled = amount * basisPoints;
+        return scaled >= 0 ? (scaled + 5_000) / 10_000 : -((-scaled + 5_000) / 10_000);
+    }
+
+    /**
+     * "1234.50" style BDT string.
+     */
+    public static String format(long minor) {
+        long abs = Math.abs(minor);
+        long fraction = abs % MINOR_PER_MAJOR;
+        return (minor < 0 ? "-" : "") + abs / MINOR_PER_MAJOR + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    /**
+     * Parses a BDT amount. Plain decimals ("900", "900.5", "900.25") are read exactly;
+     * anything else a double could have printed ("1.0E7", "0.1234") is rounded to
+     * the nearest minor unit.
+     */
+    public static long parse(String text) {
+        String s = text.trim();
+        int dot = s.indexOf('.');
+        int start = s.startsWith("-") || s.startsWith("+") ? 1 : 0;
+        int end = dot < 0 ? s.length() : dot;
+        int fractionDigits = dot < 0 ? 0 : s.length() - dot - 1;
+        if (end > start && end - start <= 15 && fractionDigits <= 2
+                && allDigits(s, start, end) && allDigits(s, end + 1, s.length())) {
+            long major = Long.parseLong(s.substring(start, end));
+            long minor = 0;
+            for (int i = 0; i < 2; i++) {
+                int index = dot + 1 + i;
+                minor = minor * 10 + (dot >= 0 && index < s.length() ? s.charAt(index) - '0' : 0);
+            }
+            long amount = major * MINOR_PER_MAJOR + minor;
+            return s.startsWith("-") ? -amount : amount;
+        }
+        return ofMajor(Double.parseDouble(s));
+    }
+
+    private static boolean allDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,9 +1,13 @@
 package com.tastebuds.model;
 
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlList;
 import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlTransient;
 
 
 @XmlRootElement(name = "order")
@@ -18,14 +22,25 @@ public class Order {
     @XmlElement(required = true)
     private String items;
 
+    // line items as parallel arrays: menu item ordinal and quantity; null for free-text orders
+    @XmlList
     @XmlElement
-    private double billAmount;
+    private int[] menuItems;
 
+    @XmlList
     @XmlElement
-    private double finalBill;
+    private int[] quantities;
 
+    // minor units (poisha); XML carries decimal BDT through the billAmount/finalBill properties below
+    @XmlTransient
+    private long billAmount;
+
+    @XmlTransient
+    private long finalBill;
+
+    // written by the kitchen scheduler thread, read by terminals
     @XmlElement
-    private String status;
+    private volatile OrderStatus status;
 
     @XmlElement
     private int queuePosition;
@@ -45,18 +60,58 @@ public class Order {
     @XmlElement
     private String vehicle;
 
+    // epoch millis of the hand-over; 0 while undelivered, and for orders saved before it was recorded
+    @XmlElement
+    private long deliveredAt;
+
+    // set while the order sits in a live OrderQueue; the position is then read from the queue
+    @XmlTransient
+    private volatile OrderQueue queue;
+
+    @XmlTransient
+    private int queueSlot;
+
+    @XmlTransient
+    private volatile OrderStatusIndex statusIndex;
+
+    // System.nanoTime() on entering each status, by ordinal; 0 for statuses not entered in this process
+    @XmlTransient
+    private final long[] enteredNanos = new long[OrderStatus.values().length];
+
+    @XmlTransient
+    private volatile StageLatencies latencies;
+
+    @XmlTransient
+    private volatile ChangeTracker changes;
+
     public Order() {}
 
     public Order(String orderNo, String customerId, String items,
                  double billAmount, double finalBill, int queuePosition) {
+        this(orderNo, customerId, items, queuePosition);
+        this.billAmount = Money.ofMajor(billAmount);
+        this.finalBill = Money.ofMajor(finalBill);
+    }
+
+    private Order(String orderNo, String customerId, String items, int queuePosition) {
         this.orderNo = orderNo;
         this.customerId = customerId;
         this.items = items;
-        this.billAmount = billAmount;
-        this.finalBill = finalBill;
-        this.status = "PLACED";
+        this.status = OrderStatus.PLACED;
         this.queuePosition = queuePosition;
         this.category = OrderCategory.NORMAL;
+        this.enteredNanos[OrderStatus.PLACED.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * New PLACED order with amounts in minor units.
+     */
+    public static Order placed(String orderNo, String customerId, String items,
+                               long billMinor, long finalBillMinor, int queuePosition) {
+        Order order = new Order(orderNo, customerId, items, queuePosition);
+        order.billAmount = billMinor;
+        order.finalBill = finalBillMinor;
+        return order;
     }
 
     public String getOrderNo() {
@@ -65,6 +120,7 @@ public class Order {
 
     public void setOrderNo(String orderNo) {
         this.orderNo = orderNo;
+        ChangeTracker.changed(changes);
     }
 
     public String getCustomerId() {
@@ -73,6 +129,7 @@ public class Order {
 
     public void setCustomerId(String customerId) {
         this.customerId = customerId;
+        ChangeTracker.changed(changes);
     }
 
     public String getItems() {
@@ -81,38 +138,122 @@ public class Order {
 
     public void setItems(String items) {
         this.items = items;
+        ChangeTracker.changed(changes);
     }
 
+    public boolean hasLineItems() {
+        return menuItems != null;
+    }
+
+    public int getLineItemCount() {
+        return menuItems == null ? 0 : menuItems.length;
+    }
+
+    /**
+     * Menu item ordinal of line item i.
+     */
+    public int getMenuItem(int i) {
+        return menuItems[i];
+    }
+
+    public int getQuantity(int i) {
+        return quantities[i];
+    }
+
+    public void setLineItems(int[] menuItems, int[] quantities) {
+        if (menuItems.length != quantities.length) {
+            throw new IllegalArgumentException("menuItems and quantities differ in length");
+        }
+        this.menuItems = menuItems.clone();
+        this.quantities = quantities.clone();
+        ChangeTracker.changed(changes);
+    }
+
+    /**
+     * Bill in BDT, for display; sums should use {@link #getBillMinor()}.
+     */
     public double getBillAmount() {
-        return billAmount;
+        return Money.toMajor(billAmount);
     }
 
     public void setBillAmount(double billAmount) {
-        this.billAmount = billAmount;
+        this.billAmount = Money.ofMajor(billAmount);
+        ChangeTracker.changed(changes);
     }
 
+    /**
+     * Final bill in BDT, for display; sums should use {@link #getFinalBillMinor()}.
+     */
     public double getFinalBill() {
-        return finalBill;
+        return Money.toMajor(finalBill);
     }
 
     public void setFinalBill(double finalBill) {
-        this.finalBill = finalBill;
+        this.finalBill = Money.ofMajor(finalBill);
+        ChangeTracker.changed(changes);
+    }
+
+    public long getBillMinor() {
+        return billAmount;
+    }
+
+    public void setBillMinor(long billMinor) {
+        this.billAmount = billMinor;
+        ChangeTracker.changed(changes);
     }
 
-    public String getStatus() {
+    public long getFinalBillMinor() {
+        return finalBill;
+    }
+
+    public void setFinalBillMinor(long finalBillMinor) {
+        this.finalBill = finalBillMinor;
+        ChangeTracker.changed(changes);
+    }
+
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    /**
+     * Sets the status without checking the transition table (loading, tests).
+     */
+    public void setStatus(OrderStatus status) {
+        OrderStatus from = this.status;
+        long now = 0;
+        if (from != status && status != null) {
+            // stamped before the volatile status write, so whoever sees the status sees the time
+            now = System.nanoTime();
+            enteredNanos[status.ordinal()] = now;
+        }
         this.status = status;
+        OrderStatusIndex index = statusIndex;
+        if (index != null && from != status) {
+            index.moved(this, from, status);
+        }
+        StageLatencies l = latencies;
+        if (l != null && from != null && from != status) {
+            l.moved(this, from, now);
+        }
+        ChangeTracker.changed(changes);
+    }
+
+    /**
+     * {@link System#nanoTime()} when the order entered the given status, or 0 if it has not
+     * entered it in this process (not reached yet, or reached before the order was loaded).
+     */
+    public long getEnteredNanos(OrderStatus status) {
+        return enteredNanos[status.ordinal()];
     }
 
     public int getQueuePosition() {
-        return queuePosition;
+        OrderQueue q = queue;
+        return q != null ? q.positionOf(this) : queuePosition;
     }
 
     public void setQueuePosition(int queuePosition) {
         this.queuePosition = queuePosition;
+        ChangeTracker.changed(changes);
     }
 
     public OrderCategory getCategory() {
@@ -121,6 +262,7 @@ public class Order {
 
     public void setCategory(OrderCategory category) {
         this.category = category;
+        ChangeTracker.changed(changes);
     }
 
     public String getAssignedChefs() {
@@ -129,6 +271,7 @@ public class Order {
 
     public void setAssignedChefs(String assignedChefs) {
         this.assignedChefs = assignedChefs;
+        ChangeTracker.changed(changes);
     }
 
     public int getEstimatedTime() {
@@ -137,6 +280,7 @@ public class Order {
 
     public void setEstimatedTime(int estimatedTime) {
         this.estimatedTime = estimatedTime;
+        ChangeTracker.changed(changes);
     }
 
     public String getDriverId() {
@@ -145,6 +289,7 @@ public class Order {
 
     public void setDriverId(String driverId) {
         this.driverId = driverId;
+        ChangeTracker.changed(changes);
     }
 
     public String getVehicle() {
@@ -153,28 +298,132 @@ public class Order {
 
     public void setVehicle(String vehicle) {
         this.vehicle = vehicle;
+        ChangeTracker.changed(changes);
+    }
+
+    public long getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(long deliveredAt) {
+        this.deliveredAt = deliveredAt;
+        ChangeTracker.changed(changes);
+    }
+
+    @XmlElement(name = "billAmount")
+    private String getBillAmountXml() {
+        return Money.format(billAmount);
+    }
+
+    private void setBillAmountXml(String value) {
+        this.billAmount = Money.parse(value);
+    }
+
+    @XmlElement(name = "finalBill")
+    private String getFinalBillXml() {
+        return Money.format(finalBill);
+    }
+
+    private void setFinalBillXml(String value) {
+        this.finalBill = Money.parse(value);
+    }
+
+    OrderQueue getQueue() {
+        return queue;
+    }
+
+    int getQueueSlot() {
+        return queueSlot;
+    }
+
+    void attachToQueue(OrderQueue queue, int slot) {
+        this.queue = queue;
+        this.queueSlot = slot;
+    }
+
+    void detachFromQueue() {
+        this.queuePosition = 0;
+        this.queue = null;
+    }
+
+    OrderStatusIndex getStatusIndex() {
+        return statusIndex;
+    }
+
+    void attachToStatusIndex(OrderStatusIndex index) {
+        this.statusIndex = index;
+    }
+
+    void attachToLatencies(StageLatencies latencies) {
+        this.latencies = latencies;
+    }
+
+    public void trackChanges(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    // JAXB callback: persist the live position rather than the one captured at placement
+    void beforeMarshal(Marshaller marshaller) {
+        this.queuePosition = getQueuePosition();
+    }
+
+    // JAXB callback: an order written without a status has not been processed yet,
+    // and half-written line items are dropped (the items text is still there)
+    void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+        if (status == null) {
+            status = OrderStatus.PLACED;
+        }
+        if (menuItems == null || quantities == null || menuItems.length != quantities.length) {
+            menuItems = null;
+            quantities = null;
+        }
+    }
+
+    /**
+     * Moves the order to the given status. Staying in the current status is a no-op;
+     * a move the transition table does not allow throws IllegalStateException.
+     */
+    public void transitionTo(OrderStatus next) {
+        checkTransition(next);
+        setStatus(next);
+    }
+
+    private void checkTransition(OrderStatus next) {
+        OrderStatus from = status;
+        if (from != next && !from.canTransitionTo(next)) {
+            throw new IllegalStateException("Order " + orderNo + " cannot go from " + from + " to " + next);
+        }
     }
 
     // Business methods
     public void markAsPreparing(OrderCategory category, String chefs, int time) {
+        checkTransition(OrderStatus.PREPARING);
         this.category = category;
         this.assignedChefs = chefs;
         this.estimatedTime = time;
-        this.status = "PREPARING";
+        transitionTo(OrderStatus.PREPARING);
     }
 
     public void markAsReady() {
-        this.status = "READY";
+        transitionTo(OrderStatus.READY);
     }
 
     public void assignDelivery(String driverId, String vehicle) {
+        checkTransition(OrderStatus.OUT_FOR_DELIVERY);
         this.driverId = driverId;
         this.vehicle = vehicle;
-        this.status = "OUT_FOR_DELIVERY";
+        transitionTo(OrderStatus.OUT_FOR_DELIVERY);
     }
 
+    /**
+     * Marks the order delivered and stamps the delivery time, unless it was delivered already.
+     */
     public void markAsDelivered() {
-        this.status = "DELIVERED";
+        checkTransition(OrderStatus.DELIVERED);
+        if (status != OrderStatus.DELIVERED) {
+            this.deliveredAt = System.currentTimeMillis();
+        }
+        transitionTo(OrderStatus.DELIVERED);
     }
 
     @Override
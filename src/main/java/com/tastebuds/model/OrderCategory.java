@@ -9,6 +9,12 @@ public enum OrderCategory {
     NORMAL,
 
     @XmlEnumValue("PRIORITY")
-    PRIORITY
-}
+    PRIORITY;
+
+    // orders above this final bill (1000 BDT, in minor units) are suggested as PRIORITY
+    public static final long PRIORITY_THRESHOLD = 1000 * Money.MINOR_PER_MAJOR;
 
+    public static OrderCategory suggestFor(long finalBillMinor) {
+        return finalBillMinor > PRIORITY_THRESHOLD ? PRIORITY : NORMAL;
+    }
+}
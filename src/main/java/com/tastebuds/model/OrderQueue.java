@@ -0,0 +1,124 @@
+package com.tastebuds.model;
+
+import java.util.Arrays;
+
+/**
+ * Live order queue (orders that are not delivered yet), kept as a Fenwick tree over
+ * arrival slots. Enqueue, remove and "position of order X" are all O(log n), so
+ * nothing has to be renumbered when an order leaves the queue.
+ *
+ * Queued orders hold a link back to this queue; {@link Order#getQueuePosition()}
+ * asks the queue while the link is set. All operations are synchronized on the queue.
+ */
+public class OrderQueue {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] tree;      // 1-based Fenwick tree, tree[i] covers slots (i - lowbit(i), i]
+    private Order[] slots;   // slot -> queued order, null once removed
+    private int nextSlot;
+    private int size;
+
+    public OrderQueue() {
+        this.tree = new int[INITIAL_CAPACITY + 1];
+        this.slots = new Order[INITIAL_CAPACITY];
+    }
+
+    public synchronized void enqueue(Order order) {
+        if (order.getQueue() == this) {
+            return;
+        }
+        if (nextSlot == slots.length) {
+            grow();
+        }
+        int slot = nextSlot++;
+        slots[slot] = order;
+        order.attachToQueue(this, slot);
+        add(slot, 1);
+        size++;
+    }
+
+    /**
+     * Takes the order out of the queue; everyone behind it moves up one place.
+     */
+    public synchronized boolean remove(Order order) {
+        if (order.getQueue() != this) {
+            return false;
+        }
+        int slot = order.getQueueSlot();
+        slots[slot] = null;
+        add(slot, -1);
+        size--;
+        order.detachFromQueue();
+        return true;
+    }
+
+    /**
+     * 1-based position of the order, or 0 if it is not in this queue.
+     */
+    public synchronized int positionOf(Order order) {
+        if (order.getQueue() != this) {
+            return 0;
+        }
+        return prefixSum(order.getQueueSlot());
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < nextSlot; i++) {
+            if (slots[i] != null) {
+                slots[i].detachFromQueue();
+            }
+        }
+        Arrays.fill(slots, 0, nextSlot, null);
+        Arrays.fill(tree, 0);
+        nextSlot = 0;
+        size = 0;
+    }
+
+    private void add(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int prefixSum(int slot) {
+        int sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Out of slots: compact the live orders to the front if at most half the slots
+     * are in use, otherwise double the capacity. Either way the tree is rebuilt in O(n).
+     */
+    private void grow() {
+        Order[] live = new Order[size];
+        int n = 0;
+        for (int i = 0; i < nextSlot; i++) {
+            if (slots[i] != null) {
+                live[n++] = slots[i];
+            }
+        }
+
+        int capacity = size * 2 <= slots.length ? slots.length : slots.length * 2;
+        slots = new Order[capacity];
+        tree = new int[capacity + 1];
+        for (int i = 0; i < n; i++) {
+            slots[i] = live[i];
+            live[i].attachToQueue(this, i);
+            tree[i + 1] = 1;
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        nextSlot = n;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tastebuds.model;
+
+/**
+ * Immutable snapshot of how many orders are in each status. {@link OrderStatusIndex}
+ * publishes a new one with every change, so taking a snapshot is a single volatile read
+ * and its counts always agree with each other: an order moving between statuses is
+ * counted in exactly one of them.
+ */
+public final class OrderStats {
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    static final OrderStats EMPTY = new OrderStats(new long[STATUSES.length], 0, 0);
+
+    private final long[] counts;
+    private final long archived;
+    private final long version;
+
+    private OrderStats(long[] counts, long archived, long version) {
+        this.counts = counts;
+        this.archived = archived;
+        this.version = version;
+    }
+
+    /**
+     * Orders in the given status. Archived orders count as DELIVERED.
+     */
+    public long count(OrderStatus status) {
+        long n = counts[status.ordinal()];
+        return status == OrderStatus.DELIVERED ? n + archived : n;
+    }
+
+    /**
+     * Delivered orders that have left the status index for the archive.
+     */
+    public long getArchived() {
+        return archived;
+    }
+
+    /**
+     * Orders not delivered yet.
+     */
+    public long getActive() {
+        long n = 0;
+        for (OrderStatus status : STATUSES) {
+            if (status.isLive()) {
+                n += counts[status.ordinal()];
+            }
+        }
+        return n;
+    }
+
+    public long getTotal() {
+        return getActive() + count(OrderStatus.DELIVERED);
+    }
+
+    /**
+     * Number of the order being served: one past the delivered count.
+     */
+    public long getServingOrder() {
+        return count(OrderStatus.DELIVERED) + 1;
+    }
+
+    /**
+     * Bumped by every change; equal versions mean nothing happened in between.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    OrderStats plus(OrderStatus status, long delta) {
+        long[] next = counts.clone();
+        next[status.ordinal()] += delta;
+        return new OrderStats(next, archived, version + 1);
+    }
+
+    OrderStats moved(OrderStatus from, OrderStatus to) {
+        long[] next = counts.clone();
+        next[from.ordinal()]--;
+        next[to.ordinal()]++;
+        return new OrderStats(next, archived, version + 1);
+    }
+
+    OrderStats archived(OrderStatus from, long delta) {
+        long[] next = counts.clone();
+        next[from.ordinal()] -= delta;
+        return new OrderStats(next, archived + delta, version + 1);
+    }
+
+    OrderStats withArchived(long archived) {
+        return new OrderStats(counts, archived, version + 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("OrderStats{");
+        for (OrderStatus status : STATUSES) {
+            sb.append(status).append('=').append(count(status)).append(", ");
+        }
+        return sb.append("archived=").append(archived).append(", serving=").append(getServingOrder()).append('}').toString();
+    }
+}
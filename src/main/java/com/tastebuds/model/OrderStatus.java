@@ -0,0 +1,51 @@
+package com.tastebuds.model;
+
+import jakarta.xml.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of an order. Written to XML under the same names the status strings used,
+ * so existing orders.xml files load unchanged.
+ */
+@XmlEnum
+@XmlType(name = "orderStatus")
+public enum OrderStatus {
+    @XmlEnumValue("PLACED")
+    PLACED,
+
+    @XmlEnumValue("PREPARING")
+    PREPARING,
+
+    @XmlEnumValue("READY")
+    READY,
+
+    @XmlEnumValue("OUT_FOR_DELIVERY")
+    OUT_FOR_DELIVERY,
+
+    @XmlEnumValue("DELIVERED")
+    DELIVERED;
+
+    // orders still in the queue
+    public static final Set<OrderStatus> LIVE = EnumSet.complementOf(EnumSet.of(DELIVERED));
+
+    private Set<OrderStatus> next;
+
+    static {
+        // the customer can confirm delivery (with feedback) at any point
+        PLACED.next = EnumSet.of(PREPARING, READY, DELIVERED);
+        PREPARING.next = EnumSet.of(READY, DELIVERED);
+        READY.next = EnumSet.of(OUT_FOR_DELIVERY, DELIVERED);
+        OUT_FOR_DELIVERY.next = EnumSet.of(DELIVERED);
+        DELIVERED.next = EnumSet.noneOf(OrderStatus.class);
+    }
+
+    public boolean canTransitionTo(OrderStatus status) {
+        return next.contains(status);
+    }
+
+    public boolean isLive() {
+        return this != DELIVERED;
+    }
+}
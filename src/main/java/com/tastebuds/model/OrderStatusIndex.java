@@ -0,0 +1,106 @@
+package com.tastebuds.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Orders grouped by status, so "all READY orders" costs as much as the result rather
+ * than a scan of every order. Indexed orders hold a link back to the index and move
+ * themselves between buckets on each transition. Buckets are concurrent sets; a reader
+ * racing a transition may briefly see the order in neither bucket.
+ *
+ * The counts are kept alongside as an immutable {@link OrderStats}, swapped in by CAS
+ * on every change, so {@link #stats()} costs a volatile read and never sees an order twice.
+ */
+public class OrderStatusIndex {
+    private final Map<OrderStatus, Set<Order>> buckets = new EnumMap<>(OrderStatus.class);
+    private final AtomicReference<OrderStats> stats = new AtomicReference<>(OrderStats.EMPTY);
+
+    public OrderStatusIndex() {
+        for (OrderStatus status : OrderStatus.values()) {
+            buckets.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    public void add(Order order) {
+        order.attachToStatusIndex(this);
+        OrderStatus status = order.getStatus();
+        if (buckets.get(status).add(order)) {
+            stats.updateAndGet(s -> s.plus(status, 1));
+        }
+    }
+
+    public void remove(Order order) {
+        if (order.getStatusIndex() == this) {
+            order.attachToStatusIndex(null);
+            OrderStatus status = order.getStatus();
+            if (buckets.get(status).remove(order)) {
+                stats.updateAndGet(s -> s.plus(status, -1));
+            }
+        }
+    }
+
+    /**
+     * Removes a delivered order that is being archived. It moves from the DELIVERED count
+     * to the archived count in one step, so the delivered total never dips.
+     */
+    public void retire(Order order) {
+        if (order.getStatusIndex() == this) {
+            order.attachToStatusIndex(null);
+            OrderStatus status = order.getStatus();
+            if (buckets.get(status).remove(order)) {
+                stats.updateAndGet(s -> s.archived(status, 1));
+            }
+        }
+    }
+
+    /**
+     * Sets the number of orders already archived, after loading.
+     */
+    public void setArchived(long archived) {
+        stats.updateAndGet(s -> s.withArchived(archived));
+    }
+
+    /**
+     * Current counts; lock-free and allocation-free, for callers that poll.
+     */
+    public OrderStats stats() {
+        return stats.get();
+    }
+
+    /**
+     * Live, unmodifiable view of the orders in one status (no particular order).
+     */
+    public Set<Order> ordersIn(OrderStatus status) {
+        return Collections.unmodifiableSet(buckets.get(status));
+    }
+
+    public int count(OrderStatus status) {
+        return buckets.get(status).size();
+    }
+
+    public void clear() {
+        for (Set<Order> bucket : buckets.values()) {
+            bucket.forEach(o -> o.attachToStatusIndex(null));
+            bucket.clear();
+        }
+        stats.set(OrderStats.EMPTY);
+    }
+
+    void moved(Order order, OrderStatus from, OrderStatus to) {
+        // counts follow what the buckets actually did, so they cannot drift from them
+        boolean left = buckets.get(from).remove(order);
+        boolean arrived = buckets.get(to).add(order);
+        if (left && arrived) {
+            stats.updateAndGet(s -> s.moved(from, to));
+        } else if (left) {
+            stats.updateAndGet(s -> s.plus(from, -1));
+        } else if (arrived) {
+            stats.updateAndGet(s -> s.plus(to, 1));
+        }
+    }
+}
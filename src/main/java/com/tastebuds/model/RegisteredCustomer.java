@@ -33,11 +33,13 @@ public class RegisteredCustomer extends Customer {
     public void setOrdersThisMonth(int ordersThisMonth) {
         this.ordersThisMonth = ordersThisMonth;
         calculateDiscountRate();
+        changed();
     }
 
     public void incrementOrders() {
         this.ordersThisMonth++;
         calculateDiscountRate();
+        changed();
     }
 
     public double getDiscount() {
@@ -46,6 +48,7 @@ public class RegisteredCustomer extends Customer {
 
     public void setDiscount(double discount) {
         this.discount = discount;
+        changed();
     }
 
     private void calculateDiscountRate() {
@@ -61,8 +64,8 @@ public class RegisteredCustomer extends Customer {
     }
 
     @Override
-    public double calculateDiscount(double totalBill) {
-        return totalBill * (discount / 100.0);
+    public long calculateDiscountMinor(long totalBill) {
+        return Money.percentOf(totalBill, discount);
     }
 
     @Override
@@ -0,0 +1,156 @@
+package com.tastebuds.model;
+
+import com.tastebuds.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * How long orders spend in each status, per {@link OrderCategory} and over all of them,
+ * plus the end-to-end time from PLACED to DELIVERED. Fed by {@link Order#setStatus} from
+ * the nanosecond stamps each order takes on entering a status; orders only report once
+ * {@link #track tracked}, and only for statuses they entered in this process.
+ *
+ * Recording is lock-free (see {@link LatencyHistogram}), so it happens inline in the
+ * transition without slowing the kitchen or dispatch.
+ */
+public final class StageLatencies {
+    private static final OrderCategory[] CATEGORIES = OrderCategory.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    // column 0 is every category together, column c + 1 is category c
+    private static final int ALL = 0;
+
+    private final LatencyHistogram[][] stages = new LatencyHistogram[STATUSES.length][CATEGORIES.length + 1];
+    private final LatencyHistogram[] endToEnd = new LatencyHistogram[CATEGORIES.length + 1];
+
+    public StageLatencies() {
+        for (OrderStatus status : STATUSES) {
+            if (status.isLive()) {
+                for (int c = 0; c <= CATEGORIES.length; c++) {
+                    stages[status.ordinal()][c] = new LatencyHistogram();
+                }
+            }
+        }
+        for (int c = 0; c <= CATEGORIES.length; c++) {
+            endToEnd[c] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Starts reporting the order's transitions here.
+     */
+    public void track(Order order) {
+        order.attachToLatencies(this);
+    }
+
+    // the order left `from` at `now`
+    void moved(Order order, OrderStatus from, long now) {
+        int column = column(order.getCategory());
+        long entered = order.getEnteredNanos(from);
+        if (entered != 0 && from.isLive()) {
+            stages[from.ordinal()][ALL].record(now - entered);
+            stages[from.ordinal()][column].record(now - entered);
+        }
+        long placed = order.getEnteredNanos(OrderStatus.PLACED);
+        if (placed != 0 && order.getStatus() == OrderStatus.DELIVERED) {
+            endToEnd[ALL].record(now - placed);
+            endToEnd[column].record(now - placed);
+        }
+    }
+
+    private static int column(OrderCategory category) {
+        return (category == null ? OrderCategory.NORMAL : category).ordinal() + 1;
+    }
+
+    /**
+     * Time spent in a status before leaving it, over all categories. DELIVERED is final and
+     * has no stage; asking for it throws IllegalArgumentException.
+     */
+    public LatencyHistogram.Snapshot snapshot(OrderStatus stage) {
+        return histogram(stage, ALL).snapshot();
+    }
+
+    public LatencyHistogram.Snapshot snapshot(OrderStatus stage, OrderCategory category) {
+        return histogram(stage, column(category)).snapshot();
+    }
+
+    /**
+     * Time from PLACED to DELIVERED.
+     */
+    public LatencyHistogram.Snapshot endToEnd() {
+        return endToEnd[ALL].snapshot();
+    }
+
+    public LatencyHistogram.Snapshot endToEnd(OrderCategory category) {
+        return endToEnd[column(category)].snapshot();
+    }
+
+    private LatencyHistogram histogram(OrderStatus stage, int column) {
+        if (!stage.isLive()) {
+            throw new IllegalArgumentException(stage + " is final and has no stage time");
+        }
+        return stages[stage.ordinal()][column];
+    }
+
+    /**
+     * Calls the visitor for every stage (the live statuses, then "END_TO_END") and every
+     * category ("ALL" first), e.g. to feed an exporter.
+     */
+    public void forEach(Visitor visitor) {
+        for (OrderStatus status : STATUSES) {
+            if (status.isLive()) {
+                visitAll(visitor, status.name(), stages[status.ordinal()]);
+            }
+        }
+        visitAll(visitor, "END_TO_END", endToEnd);
+    }
+
+    private static void visitAll(Visitor visitor, String stage, LatencyHistogram[] row) {
+        visitor.visit(stage, "ALL", row[ALL].snapshot());
+        for (OrderCategory category : CATEGORIES) {
+            visitor.visit(stage, category.name(), row[column(category)].snapshot());
+        }
+    }
+
+    /**
+     * Writes one CSV row per stage and category, times in nanoseconds.
+     */
+    public void exportCsv(Appendable out) throws IOException {
+        out.append("stage,category,count,mean_ns,p50_ns,p90_ns,p99_ns,p999_ns,max_ns\n");
+        IOException[] failure = new IOException[1];
+        forEach((stage, category, s) -> {
+            if (failure[0] != null) return;
+            try {
+                out.append(String.format(Locale.ROOT, "%s,%s,%d,%.0f,%d,%d,%d,%d,%d%n", stage, category,
+                        s.getCount(), s.getMean(), s.valueAtPercentile(50), s.valueAtPercentile(90),
+                        s.valueAtPercentile(99), s.valueAtPercentile(99.9), s.getMax()));
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Table of stages with any samples, times in milliseconds, for the console.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("%-17s %-9s %8s %10s %10s %10s %10s%n",
+                "Stage", "Category", "Orders", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        forEach((stage, category, s) -> {
+            if (s.getCount() > 0) {
+                sb.append(String.format("%-17s %-9s %8d %10.1f %10.1f %10.1f %10.1f%n", stage, category,
+                        s.getCount(), s.valueAtPercentile(50) / 1e6, s.valueAtPercentile(99) / 1e6,
+                        s.valueAtPercentile(99.9) / 1e6, s.getMax() / 1e6));
+            }
+        });
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(String stage, String category, LatencyHistogram.Snapshot snapshot);
+    }
+}
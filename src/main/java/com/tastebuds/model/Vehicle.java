@@ -13,7 +13,10 @@ public class Vehicle {
     private String type;
 
     @XmlElement
-    private boolean available;
+    private volatile boolean available;
+
+    @XmlTransient
+    private volatile ChangeTracker changes;
 
     public Vehicle() {}
 
@@ -29,6 +32,7 @@ public class Vehicle {
 
     public void setVehicleId(String vehicleId) {
         this.vehicleId = vehicleId;
+        ChangeTracker.changed(changes);
     }
 
     public String getType() {
@@ -37,6 +41,7 @@ public class Vehicle {
 
     public void setType(String type) {
         this.type = type;
+        ChangeTracker.changed(changes);
     }
 
     public boolean isAvailable() {
@@ -45,6 +50,11 @@ public class Vehicle {
 
     public void setAvailable(boolean available) {
         this.available = available;
+        ChangeTracker.changed(changes);
+    }
+
+    public void trackChanges(ChangeTracker changes) {
+        this.changes = changes;
     }
 
     @Override
@@ -0,0 +1,122 @@
+package com.tastebuds.persistence;
+
+import jakarta.xml.bind.JAXBException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash-safe replacement of data files. A save goes to {@code <file>.tmp}, which is
+ * fsynced, then the current file is renamed to {@code <file>.prev} and the temp file
+ * renamed into its place, and the directory is fsynced. Each rename is atomic, so after
+ * a crash at any point the directory holds a complete current file, a complete previous
+ * generation, or both; loads take the first complete one.
+ */
+final class AtomicFiles {
+    private static final int TAIL_BYTES = 256;
+
+    @FunctionalInterface
+    interface Writer {
+        void writeTo(OutputStream out) throws JAXBException, IOException;
+    }
+
+    private AtomicFiles() {}
+
+    static Path previous(Path file) {
+        return file.resolveSibling(file.getFileName() + ".prev");
+    }
+
+    static Path temp(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    static void replace(Path file, Writer writer) throws JAXBException, IOException {
+        Path temp = temp(file);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            writer.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+
+        if (Files.exists(file)) {
+            move(file, previous(file));
+        }
+        move(temp, file);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * The generation of an XML file to read: the current file if it is complete, else the
+     * previous one if that is, else null. Truncation is caught by looking for the closing root tag.
+     */
+    static Path readable(Path file, String rootElement) throws IOException {
+        if (isComplete(file, rootElement)) {
+            return file;
+        }
+        Path previous = previous(file);
+        if (isComplete(previous, rootElement)) {
+            if (Files.exists(file)) {
+                System.err.println(file + " is incomplete, reading " + previous);
+            }
+            return previous;
+        }
+        return null;
+    }
+
+    static boolean exists(Path file) {
+        return Files.exists(file) || Files.exists(previous(file));
+    }
+
+    static boolean isComplete(Path file, String rootElement) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int length = (int) Math.min(size, TAIL_BYTES);
+            ByteBuffer tail = ByteBuffer.allocate(length);
+            channel.read(tail, size - length);
+            String text = new String(tail.array(), 0, tail.position(), StandardCharsets.UTF_8).strip();
+            return text.endsWith("</" + rootElement + ">") || text.endsWith("<" + rootElement + "/>");
+        }
+    }
+
+    static void deleteAll(Path file) {
+        for (Path path : new Path[]{file, previous(file), temp(file)}) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.err.println("Error deleting " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // makes the renames themselves durable; not every platform can open a directory
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+}
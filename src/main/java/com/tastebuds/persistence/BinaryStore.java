@@ -0,0 +1,274 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.metrics.MetricsRegistry;
+import com.tastebuds.model.*;
+
+import jakarta.xml.bind.JAXBException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Binary snapshot store: one {@code <name>.bin} per data file, encoded by
+ * {@link SnapshotCodec} and replaced atomically like the XML files. The menu stays in
+ * menu.xml (it is edited by hand); the journal, the order history and the archive are
+ * shared with the XML store kept in the same directory.
+ * {@link SnapshotConverter} moves a data directory between the two formats.
+ */
+public class BinaryStore implements DataStore {
+    private static final Path DEFAULT_DATA_DIR = Path.of("data");
+
+    private final Path dataDir;
+    // menu, journal, history and archive live in the same place whichever snapshot format is used
+    private final JAXBHandler xml;
+    // null until bindMetrics
+    private volatile SaveMetrics metrics;
+
+    public BinaryStore() {
+        this(DEFAULT_DATA_DIR);
+    }
+
+    /**
+     * Store that keeps its files in the given directory, created if missing.
+     */
+    public BinaryStore(Path dataDir) {
+        this.dataDir = dataDir;
+        this.xml = new JAXBHandler(dataDir);
+    }
+
+    @Override
+    public void bindMetrics(MetricsRegistry registry) {
+        this.metrics = new SaveMetrics(registry, "binary");
+        xml.bindMetrics(registry);
+    }
+
+    @Override
+    public boolean saveCustomers(List<Customer> customers) {
+        return save(DataFile.CUSTOMERS, SnapshotCodec.CUSTOMER, customers, "customers");
+    }
+
+    @Override
+    public List<Customer> loadCustomers() {
+        return load(DataFile.CUSTOMERS, SnapshotCodec.CUSTOMER, "customer");
+    }
+
+    @Override
+    public boolean saveOrders(List<Order> orders) {
+        return save(DataFile.ORDERS, SnapshotCodec.ORDER, orders, "orders");
+    }
+
+    @Override
+    public List<Order> loadOrders() {
+        return load(DataFile.ORDERS, SnapshotCodec.ORDER, "order");
+    }
+
+    /**
+     * Decodes orders.bin straight into the consumer. A file without its end marker is skipped
+     * for the previous generation before anything is read. A bad record or checksum is only
+     * found once the consumer has had orders, so the previous generation is then only tried
+     * if there is a restart to run first.
+     */
+    @Override
+    public boolean forEachOrder(Consumer<Order> consumer, Runnable restart) {
+        Path file = path(DataFile.ORDERS);
+        if (!AtomicFiles.exists(file)) {
+            System.out.println("No order data found.");
+            return true;
+        }
+
+        boolean fed = false;
+        for (Path candidate : new Path[]{file, AtomicFiles.previous(file)}) {
+            try {
+                if (!Files.isRegularFile(candidate) || !SnapshotInput.isComplete(candidate)) {
+                    if (Files.exists(candidate)) {
+                        System.err.println(candidate + " is incomplete");
+                    }
+                    continue;
+                }
+                if (fed) {
+                    if (restart == null) {
+                        return false;
+                    }
+                    restart.run();
+                    fed = false;
+                }
+
+                int count = 0;
+                try (SnapshotInput in = open(candidate, DataFile.ORDERS)) {
+                    Order order;
+                    while ((order = in.read(SnapshotCodec.ORDER)) != null) {
+                        fed = true;
+                        consumer.accept(order);
+                        count++;
+                    }
+                }
+                if (candidate != file) {
+                    System.err.println("Recovered order data from " + candidate);
+                }
+                System.out.println("Loaded " + count + " orders");
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error loading orders from " + candidate + ": " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean saveDrivers(List<Driver> drivers) {
+        return save(DataFile.DRIVERS, SnapshotCodec.DRIVER, drivers, "drivers");
+    }
+
+    @Override
+    public List<Driver> loadDrivers() {
+        return load(DataFile.DRIVERS, SnapshotCodec.DRIVER, "driver");
+    }
+
+    @Override
+    public boolean saveChefs(List<Chef> chefs) {
+        return save(DataFile.CHEFS, SnapshotCodec.CHEF, chefs, "chefs");
+    }
+
+    @Override
+    public List<Chef> loadChefs() {
+        return load(DataFile.CHEFS, SnapshotCodec.CHEF, "chef");
+    }
+
+    @Override
+    public boolean saveVehicles(List<Vehicle> vehicles) {
+        return save(DataFile.VEHICLES, SnapshotCodec.VEHICLE, vehicles, "vehicles");
+    }
+
+    @Override
+    public List<Vehicle> loadVehicles() {
+        return load(DataFile.VEHICLES, SnapshotCodec.VEHICLE, "vehicle");
+    }
+
+    @Override
+    public boolean saveFeedbacks(List<Feedback> feedbacks) {
+        return save(DataFile.FEEDBACK, SnapshotCodec.FEEDBACK, feedbacks, "feedbacks");
+    }
+
+    @Override
+    public List<Feedback> loadFeedbacks() {
+        return load(DataFile.FEEDBACK, SnapshotCodec.FEEDBACK, "feedback");
+    }
+
+    @Override
+    public MenuItemList loadMenu() {
+        return xml.loadMenu();
+    }
+
+    @Override
+    public boolean saveMenu(MenuItemList menu) {
+        return xml.saveMenu(menu);
+    }
+
+    @Override
+    public OrderJournal openJournal() {
+        return xml.openJournal();
+    }
+
+    @Override
+    public MappedOrderStore openOrderHistory() {
+        return xml.openOrderHistory();
+    }
+
+    @Override
+    public OrderArchive orderArchive() {
+        return xml.orderArchive();
+    }
+
+    @Override
+    public long sizeOf(DataFile file) {
+        return path(file).toFile().length();
+    }
+
+    @Override
+    public void clearAllData() {
+        for (DataFile file : DataFile.values()) {
+            AtomicFiles.deleteAll(path(file));
+        }
+        xml.clearAllData();
+    }
+
+    private Path path(DataFile file) {
+        return dataDir.resolve(file.getBinaryFileName());
+    }
+
+    private static SnapshotInput open(Path file, DataFile kind) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return new SnapshotInput(in, kind);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private <T> boolean save(DataFile file, SnapshotCodec<T> codec, List<T> values, String what) {
+        Path path = path(file);
+        SaveMetrics m = metrics;
+        long start = System.nanoTime();
+        try {
+            AtomicFiles.replace(path, out -> {
+                SnapshotOutput snapshot = new SnapshotOutput(out, file);
+                for (T value : values) {
+                    snapshot.write(codec, value);
+                }
+                snapshot.finish();
+            });
+            if (m != null) {
+                m.saved(SaveMetrics.labelOf(file), path, start);
+            }
+
+            System.out.println("Saved " + what + " to " + path);
+            return true;
+        } catch (JAXBException | IOException e) {
+            if (m != null) {
+                m.failed(SaveMetrics.labelOf(file));
+            }
+            System.err.println("Error saving " + what + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the current generation, falling back to the previous one if the current file
+     * is incomplete or fails its checksum. Empty if neither can be read.
+     */
+    private <T> List<T> load(DataFile file, SnapshotCodec<T> codec, String what) {
+        Path path = path(file);
+        if (!AtomicFiles.exists(path)) {
+            System.out.println("No " + what + " data found.");
+            return new ArrayList<>();
+        }
+
+        for (Path candidate : new Path[]{path, AtomicFiles.previous(path)}) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            try (SnapshotInput in = open(candidate, file)) {
+                List<T> values = new ArrayList<>();
+                T value;
+                while ((value = in.read(codec)) != null) {
+                    values.add(value);
+                }
+                if (candidate != path) {
+                    System.err.println("Recovered " + what + " data from " + candidate);
+                }
+                System.out.println("Loaded " + values.size() + " " + what + "s");
+                return values;
+            } catch (IOException e) {
+                System.err.println("Error loading " + what + "s from " + candidate + ": " + e.getMessage());
+            }
+        }
+        return new ArrayList<>();
+    }
+}
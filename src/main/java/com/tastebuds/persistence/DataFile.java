@@ -0,0 +1,37 @@
+package com.tastebuds.persistence;
+
+/**
+ * The entity files that make up a snapshot in the data directory. Each has an XML
+ * name ({@code orders.xml}) and a binary one ({@code orders.bin}).
+ */
+public enum DataFile {
+    CUSTOMERS("customers", "customers"),
+    ORDERS("orders", "orders"),
+    DRIVERS("drivers", "drivers"),
+    CHEFS("chefs", "chefs"),
+    VEHICLES("vehicles", "vehicles"),
+    FEEDBACK("feedback", "feedbacks");
+
+    private final String baseName;
+    private final String rootElement;
+
+    DataFile(String baseName, String rootElement) {
+        this.baseName = baseName;
+        this.rootElement = rootElement;
+    }
+
+    public String getFileName() {
+        return baseName + ".xml";
+    }
+
+    public String getBinaryFileName() {
+        return baseName + ".bin";
+    }
+
+    /**
+     * Name of the document element; a file not ending with it was cut short.
+     */
+    public String getRootElement() {
+        return rootElement;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.metrics.MetricsRegistry;
+import com.tastebuds.model.*;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Where the system keeps its snapshot between runs. {@link JAXBHandler} writes XML;
+ * {@link BinaryStore} writes compact binary snapshots. Both keep the menu as XML and
+ * share the order journal. The snapshot format is picked by the
+ * {@code tastebuds.store} system property (see {@link #configured()}).
+ */
+public interface DataStore {
+
+    boolean saveCustomers(List<Customer> customers);
+
+    List<Customer> loadCustomers();
+
+    boolean saveOrders(List<Order> orders);
+
+    List<Order> loadOrders();
+
+    /**
+     * Feeds the saved orders to the consumer one at a time, without holding them all
+     * first. If the current generation turns out bad after some of its orders were fed,
+     * {@code restart} is run so the caller can drop them, and the previous generation is fed
+     * from the start; with a null {@code restart} that case returns false instead. Returns
+     * false if no generation could be read.
+     */
+    boolean forEachOrder(Consumer<Order> consumer, Runnable restart);
+
+    /**
+     * {@link #forEachOrder(Consumer, Runnable)} for a consumer that cannot start over.
+     */
+    default boolean forEachOrder(Consumer<Order> consumer) {
+        return forEachOrder(consumer, null);
+    }
+
+    boolean saveDrivers(List<Driver> drivers);
+
+    List<Driver> loadDrivers();
+
+    boolean saveChefs(List<Chef> chefs);
+
+    List<Chef> loadChefs();
+
+    boolean saveVehicles(List<Vehicle> vehicles);
+
+    List<Vehicle> loadVehicles();
+
+    boolean saveFeedbacks(List<Feedback> feedbacks);
+
+    List<Feedback> loadFeedbacks();
+
+    /**
+     * The menu file, or null if there is none (or it cannot be read).
+     */
+    MenuItemList loadMenu();
+
+    boolean saveMenu(MenuItemList menu);
+
+    /**
+     * Opens the order journal that sits next to the snapshot, or returns null if it cannot be opened.
+     */
+    OrderJournal openJournal();
+
+    /**
+     * Opens the memory-mapped index of archived orders that sits next to the snapshot,
+     * or returns null if it cannot be opened. A history that cannot be read is started
+     * afresh, since it can be rebuilt from the {@link #orderArchive() archive}.
+     */
+    MappedOrderStore openOrderHistory();
+
+    /**
+     * Month-partitioned XML archive of settled orders; XML whatever the snapshot format.
+     */
+    OrderArchive orderArchive();
+
+    /**
+     * Current size of a snapshot file in bytes, 0 if it does not exist.
+     */
+    long sizeOf(DataFile file);
+
+    /**
+     * Deletes the snapshot, the journal, the order history and the archive; the menu is kept.
+     */
+    void clearAllData();
+
+    /**
+     * Reports save timings, bytes written and failures to the registry from now on.
+     * Stores that report nothing may ignore it.
+     */
+    default void bindMetrics(MetricsRegistry registry) {
+    }
+
+    /**
+     * The store named by the {@code tastebuds.store} system property:
+     * {@code binary} for {@link BinaryStore}, anything else (or unset) for XML.
+     */
+    static DataStore configured() {
+        return "binary".equalsIgnoreCase(System.getProperty("tastebuds.store"))
+                ? new BinaryStore()
+                : new JAXBHandler();
+    }
+}
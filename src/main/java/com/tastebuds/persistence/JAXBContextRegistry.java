@@ -0,0 +1,56 @@
+package com.tastebuds.persistence;
+
+import jakarta.xml.bind.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared JAXBContext instances plus per-thread Marshaller/Unmarshaller pools.
+ * JAXBContext is thread-safe and expensive to build; marshallers are cheap but not thread-safe.
+ */
+final class JAXBContextRegistry {
+    private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Map<Class<?>, Marshaller>> MARSHALLERS =
+            ThreadLocal.withInitial(HashMap::new);
+
+    private static final ThreadLocal<Map<Class<?>, Unmarshaller>> UNMARSHALLERS =
+            ThreadLocal.withInitial(HashMap::new);
+
+    private JAXBContextRegistry() {}
+
+    static JAXBContext context(Class<?> type) throws JAXBException {
+        JAXBContext context = CONTEXTS.get(type);
+        if (context == null) {
+            context = JAXBContext.newInstance(type);
+            JAXBContext existing = CONTEXTS.putIfAbsent(type, context);
+            if (existing != null) {
+                context = existing;
+            }
+        }
+        return context;
+    }
+
+    static Marshaller marshaller(Class<?> type) throws JAXBException {
+        Map<Class<?>, Marshaller> pool = MARSHALLERS.get();
+        Marshaller marshaller = pool.get(type);
+        if (marshaller == null) {
+            marshaller = context(type).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            pool.put(type, marshaller);
+        }
+        return marshaller;
+    }
+
+    static Unmarshaller unmarshaller(Class<?> type) throws JAXBException {
+        Map<Class<?>, Unmarshaller> pool = UNMARSHALLERS.get();
+        Unmarshaller unmarshaller = pool.get(type);
+        if (unmarshaller == null) {
+            unmarshaller = context(type).createUnmarshaller();
+            pool.put(type, unmarshaller);
+        }
+        return unmarshaller;
+    }
+}
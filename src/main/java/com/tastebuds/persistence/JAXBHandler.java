@@ -1,282 +1,411 @@
 package com.tastebuds.persistence;
 
+import com.tastebuds.metrics.MetricsRegistry;
 import com.tastebuds.model.*;
 import jakarta.xml.bind.*;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-
-public class JAXBHandler {
-    private static final String DATA_DIR = "data/";
-    private static final String CUSTOMERS_FILE = DATA_DIR + "customers.xml";
-    private static final String ORDERS_FILE = DATA_DIR + "orders.xml";
-    private static final String DRIVERS_FILE = DATA_DIR + "drivers.xml";
-    private static final String CHEFS_FILE = DATA_DIR + "chefs.xml";
-    private static final String VEHICLES_FILE = DATA_DIR + "vehicles.xml";
-    private static final String FEEDBACK_FILE = DATA_DIR + "feedback.xml";
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * XML snapshot store: one formatted JAXB document per data file.
+ */
+public class JAXBHandler implements DataStore {
+    private static final Path DEFAULT_DATA_DIR = Path.of("data");
+    private static final String MENU_ROOT = "menu";
+
+    private final Path dataDir;
+    private final Path ordersFile;
+    private final Path journalFile;
+    private final Path historyRecordsFile;
+    private final Path historyStringsFile;
+    private final Path archiveDir;
+    private final Path menuFile;
+    // null until bindMetrics
+    private volatile SaveMetrics metrics;
 
     public JAXBHandler() {
+        this(DEFAULT_DATA_DIR);
+    }
 
-        File dataDir = new File(DATA_DIR);
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
+    /**
+     * Store that keeps its files in the given directory, created if missing.
+     */
+    public JAXBHandler(Path dataDir) {
+        this.dataDir = dataDir;
+        this.ordersFile = fileOf(DataFile.ORDERS);
+        this.journalFile = dataDir.resolve("orders.journal");
+        this.historyRecordsFile = dataDir.resolve("orders-history.rec");
+        this.historyStringsFile = dataDir.resolve("orders-history.str");
+        this.archiveDir = dataDir.resolve("archive");
+        this.menuFile = dataDir.resolve("menu.xml");
+
+        File dir = dataDir.toFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
         }
     }
 
-    public void saveCustomers(List<Customer> customers) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(CustomerList.class);
-            Marshaller marshaller = context.createMarshaller();
-
-
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    @Override
+    public void bindMetrics(MetricsRegistry registry) {
+        this.metrics = new SaveMetrics(registry, "xml");
+    }
 
-            CustomerList customerList = new CustomerList(customers);
-            marshaller.marshal(customerList, new File(CUSTOMERS_FILE));
+    private Path fileOf(DataFile file) {
+        return dataDir.resolve(file.getFileName());
+    }
 
-            System.out.println("Saved customers to " + CUSTOMERS_FILE);
-        } catch (JAXBException e) {
-            System.err.println("Error saving customers: " + e.getMessage());
-            e.printStackTrace();
-        }
+    @Override
+    public boolean saveCustomers(List<Customer> customers) {
+        return save(new CustomerList(customers), DataFile.CUSTOMERS, "customers");
     }
 
+    @Override
     public List<Customer> loadCustomers() {
-        try {
-            File file = new File(CUSTOMERS_FILE);
-            if (!file.exists()) {
-                System.out.println("No customer data found.");
-                return new ArrayList<>();
-            }
-
-            JAXBContext context = JAXBContext.newInstance(CustomerList.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-
-            CustomerList customerList = (CustomerList) unmarshaller.unmarshal(file);
-
-            System.out.println("Loaded " + customerList.getCustomers().size() + " customers");
-            return customerList.getCustomers();
-        } catch (JAXBException e) {
-            System.err.println("Error loading customers: " + e.getMessage());
+        CustomerList customerList = load(CustomerList.class, DataFile.CUSTOMERS, "customer");
+        if (customerList == null) {
             return new ArrayList<>();
         }
+        System.out.println("Loaded " + customerList.getCustomers().size() + " customers");
+        return customerList.getCustomers();
     }
 
 
-    public void saveOrders(List<Order> orders) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(OrderList.class);
-            Marshaller marshaller = context.createMarshaller();
+    @Override
+    public boolean saveOrders(List<Order> orders) {
+        return save(new OrderList(orders), DataFile.ORDERS, "orders");
+    }
 
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    @Override
+    public List<Order> loadOrders() {
+        List<Order> orders = new ArrayList<>();
+        if (!forEachOrder(orders::add, orders::clear)) {
+            return new ArrayList<>();
+        }
+        return orders;
+    }
 
-            OrderList orderList = new OrderList(orders);
-            marshaller.marshal(orderList, new File(ORDERS_FILE));
+    /**
+     * Streams orders.xml into the consumer one order at a time (StAX + JAXB), without building
+     * the whole OrderList first. An incomplete file is skipped for the previous generation
+     * before anything is read. A file that stops parsing partway has already fed the consumer,
+     * so the previous generation is only tried if there is a restart to run first.
+     */
+    @Override
+    public boolean forEachOrder(Consumer<Order> consumer, Runnable restart) {
+        if (!AtomicFiles.exists(ordersFile)) {
+            System.out.println("No order data found.");
+            return true;
+        }
 
-            System.out.println("Saved orders to " + ORDERS_FILE);
-        } catch (JAXBException e) {
-            System.err.println("Error saving orders: " + e.getMessage());
-            e.printStackTrace();
+        boolean fed = false;
+        for (Path candidate : new Path[]{ordersFile, AtomicFiles.previous(ordersFile)}) {
+            try {
+                if (!AtomicFiles.isComplete(candidate, DataFile.ORDERS.getRootElement())) {
+                    if (Files.exists(candidate)) {
+                        System.err.println(candidate + " is incomplete");
+                    }
+                    continue;
+                }
+                if (fed) {
+                    if (restart == null) {
+                        return false;
+                    }
+                    restart.run();
+                    fed = false;
+                }
+
+                int count = 0;
+                try (OrderStreamReader reader = new OrderStreamReader(candidate.toFile())) {
+                    Order order;
+                    while ((order = reader.next()) != null) {
+                        fed = true;
+                        consumer.accept(order);
+                        count++;
+                    }
+                }
+                if (candidate != ordersFile) {
+                    System.err.println("Recovered order data from " + candidate);
+                }
+                System.out.println("Loaded " + count + " orders");
+                return true;
+            } catch (JAXBException | XMLStreamException | IOException e) {
+                System.err.println("Error loading orders from " + candidate + ": " + e.getMessage());
+            }
         }
+        return false;
     }
 
-    public List<Order> loadOrders() {
+    /**
+     * Lazily streams orders from orders.xml. The stream holds the file open,
+     * so callers should close it (try-with-resources).
+     */
+    public Stream<Order> streamOrders() {
+        OrderStreamReader reader;
         try {
-            File file = new File(ORDERS_FILE);
-            if (!file.exists()) {
-                System.out.println("No order data found.");
-                return new ArrayList<>();
+            File file = readable(DataFile.ORDERS);
+            if (file == null) {
+                return Stream.empty();
             }
-
-            JAXBContext context = JAXBContext.newInstance(OrderList.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-
-            OrderList orderList = (OrderList) unmarshaller.unmarshal(file);
-
-            System.out.println("Loaded " + orderList.getOrders().size() + " orders");
-            return orderList.getOrders();
-        } catch (JAXBException e) {
+            reader = new OrderStreamReader(file);
+        } catch (JAXBException | XMLStreamException | IOException e) {
             System.err.println("Error loading orders: " + e.getMessage());
-            return new ArrayList<>();
+            return Stream.empty();
         }
-    }
 
+        Spliterator<Order> spliterator = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Order> action) {
+                try {
+                    Order order = reader.next();
+                    if (order == null) {
+                        return false;
+                    }
+                    action.accept(order);
+                    return true;
+                } catch (JAXBException | XMLStreamException e) {
+                    System.err.println("Error loading orders: " + e.getMessage());
+                    return false;
+                }
+            }
+        };
 
-    public void saveDrivers(List<Driver> drivers) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(DriverList.class);
-            Marshaller marshaller = context.createMarshaller();
-
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + ordersFile + ": " + e.getMessage());
+            }
+        });
+    }
 
-            DriverList driverList = new DriverList(drivers);
-            marshaller.marshal(driverList, new File(DRIVERS_FILE));
 
-            System.out.println("Saved drivers to " + DRIVERS_FILE);
-        } catch (JAXBException e) {
-            System.err.println("Error saving drivers: " + e.getMessage());
-            e.printStackTrace();
-        }
+    @Override
+    public boolean saveDrivers(List<Driver> drivers) {
+        return save(new DriverList(drivers), DataFile.DRIVERS, "drivers");
     }
 
+    @Override
     public List<Driver> loadDrivers() {
-        try {
-            File file = new File(DRIVERS_FILE);
-            if (!file.exists()) {
-                System.out.println("No driver data found.");
-                return new ArrayList<>();
-            }
-
-            JAXBContext context = JAXBContext.newInstance(DriverList.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-
-            DriverList driverList = (DriverList) unmarshaller.unmarshal(file);
-
-            System.out.println("Loaded " + driverList.getDrivers().size() + " drivers");
-            return driverList.getDrivers();
-        } catch (JAXBException e) {
-            System.err.println("Error loading drivers: " + e.getMessage());
+        DriverList driverList = load(DriverList.class, DataFile.DRIVERS, "driver");
+        if (driverList == null) {
             return new ArrayList<>();
         }
+        System.out.println("Loaded " + driverList.getDrivers().size() + " drivers");
+        return driverList.getDrivers();
     }
 
-    public void saveFeedbacks(List<Feedback> feedbacks) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(FeedbackList.class);
-            Marshaller marshaller = context.createMarshaller();
-
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-
-            FeedbackList feedbackList = new FeedbackList(feedbacks);
-            marshaller.marshal(feedbackList, new File(FEEDBACK_FILE));
-
-            System.out.println("Saved feedbacks to " + FEEDBACK_FILE);
-        } catch (JAXBException e) {
-            System.err.println("Error saving feedbacks: " + e.getMessage());
-            e.printStackTrace();
-        }
+    @Override
+    public boolean saveFeedbacks(List<Feedback> feedbacks) {
+        return save(new FeedbackList(feedbacks), DataFile.FEEDBACK, "feedbacks");
     }
 
 
+    @Override
     public List<Feedback> loadFeedbacks() {
-        try {
-            File file = new File(FEEDBACK_FILE);
-            if (!file.exists()) {
-                System.out.println("No feedback data found.");
-                return new ArrayList<>();
-            }
-
-            JAXBContext context = JAXBContext.newInstance(FeedbackList.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-
-            FeedbackList feedbackList = (FeedbackList) unmarshaller.unmarshal(file);
-
-            System.out.println("Loaded " + feedbackList.getFeedbacks().size() + " feedbacks");
-            return feedbackList.getFeedbacks();
-        } catch (JAXBException e) {
-            System.err.println("Error loading feedbacks: " + e.getMessage());
+        FeedbackList feedbackList = load(FeedbackList.class, DataFile.FEEDBACK, "feedback");
+        if (feedbackList == null) {
             return new ArrayList<>();
         }
+        System.out.println("Loaded " + feedbackList.getFeedbacks().size() + " feedbacks");
+        return feedbackList.getFeedbacks();
     }
 
 
-    public void saveChefs(List<Chef> chefs) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(ChefList.class);
-            Marshaller marshaller = context.createMarshaller();
+    @Override
+    public boolean saveChefs(List<Chef> chefs) {
+        return save(new ChefList(chefs), DataFile.CHEFS, "chefs");
+    }
 
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    @Override
+    public List<Chef> loadChefs() {
+        ChefList chefList = load(ChefList.class, DataFile.CHEFS, "chef");
+        if (chefList == null) {
+            return new ArrayList<>();
+        }
+        System.out.println("Loaded " + chefList.getChefs().size() + " chefs");
+        return chefList.getChefs();
+    }
 
-            ChefList chefList = new ChefList(chefs);
-            marshaller.marshal(chefList, new File(CHEFS_FILE));
+    @Override
+    public boolean saveVehicles(List<Vehicle> vehicles) {
+        return save(new VehicleList(vehicles), DataFile.VEHICLES, "vehicles");
+    }
 
-            System.out.println("Saved chefs to " + CHEFS_FILE);
-        } catch (JAXBException e) {
-            System.err.println("Error saving chefs: " + e.getMessage());
-            e.printStackTrace();
+    @Override
+    public List<Vehicle> loadVehicles() {
+        VehicleList vehicleList = load(VehicleList.class, DataFile.VEHICLES, "vehicle");
+        if (vehicleList == null) {
+            return new ArrayList<>();
         }
+        System.out.println("Loaded " + vehicleList.getVehicles().size() + " vehicles");
+        return vehicleList.getVehicles();
     }
 
-    public List<Chef> loadChefs() {
+
+    /**
+     * Loads the menu file, or returns null if there is none (or it cannot be read),
+     * in which case the caller keeps the menu it has.
+     */
+    @Override
+    public MenuItemList loadMenu() {
         try {
-            File file = new File(CHEFS_FILE);
-            if (!file.exists()) {
-                System.out.println("No chef data found.");
-                return new ArrayList<>();
+            Path path = AtomicFiles.readable(menuFile, MENU_ROOT);
+            if (path == null) {
+                return null;
             }
 
-            JAXBContext context = JAXBContext.newInstance(ChefList.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
+            Unmarshaller unmarshaller = JAXBContextRegistry.unmarshaller(MenuItemList.class);
 
-            ChefList chefList = (ChefList) unmarshaller.unmarshal(file);
+            MenuItemList menu = (MenuItemList) unmarshaller.unmarshal(path.toFile());
 
-            System.out.println("Loaded " + chefList.getChefs().size() + " chefs");
-            return chefList.getChefs();
-        } catch (JAXBException e) {
-            System.err.println("Error loading chefs: " + e.getMessage());
-            return new ArrayList<>();
+            System.out.println("Loaded menu version " + menu.getVersion() + " (" + menu.getItems().size() + " items)");
+            return menu;
+        } catch (JAXBException | IOException e) {
+            System.err.println("Error loading menu: " + e.getMessage());
+            return null;
         }
     }
 
-    public void saveVehicles(List<Vehicle> vehicles) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(VehicleList.class);
-            Marshaller marshaller = context.createMarshaller();
+    @Override
+    public boolean saveMenu(MenuItemList menu) {
+        return save(menu, menuFile, SaveMetrics.MENU, "menu");
+    }
 
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    private boolean save(Object document, DataFile dataFile, String what) {
+        return save(document, fileOf(dataFile), SaveMetrics.labelOf(dataFile), what);
+    }
 
-            VehicleList vehicleList = new VehicleList(vehicles);
-            marshaller.marshal(vehicleList, new File(VEHICLES_FILE));
+    /**
+     * Writes the document to a temp file and swaps it in (see {@link AtomicFiles}),
+     * so a crash mid-save never leaves a truncated file behind.
+     */
+    private boolean save(Object document, Path file, String label, String what) {
+        SaveMetrics m = metrics;
+        long start = System.nanoTime();
+        try {
+            Marshaller marshaller = JAXBContextRegistry.marshaller(document.getClass());
+            AtomicFiles.replace(file, out -> marshaller.marshal(document, out));
+            if (m != null) {
+                m.saved(label, file, start);
+            }
 
-            System.out.println("Saved vehicles to " + VEHICLES_FILE);
-        } catch (JAXBException e) {
-            System.err.println("Error saving vehicles: " + e.getMessage());
+            System.out.println("Saved " + what + " to " + file);
+            return true;
+        } catch (JAXBException | IOException e) {
+            if (m != null) {
+                m.failed(label);
+            }
+            System.err.println("Error saving " + what + ": " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
-    public List<Vehicle> loadVehicles() {
-        try {
-            File file = new File(VEHICLES_FILE);
-            if (!file.exists()) {
-                System.out.println("No vehicle data found.");
-                return new ArrayList<>();
+    /**
+     * Reads the current generation of a data file, falling back to the previous one if
+     * the current file is incomplete or does not parse. Returns null if neither can be
+     * read, or there is no file at all.
+     */
+    private <T> T load(Class<T> type, DataFile dataFile, String what) {
+        Path file = fileOf(dataFile);
+        if (!AtomicFiles.exists(file)) {
+            System.out.println("No " + what + " data found.");
+            return null;
+        }
+
+        for (Path candidate : new Path[]{file, AtomicFiles.previous(file)}) {
+            try {
+                if (!AtomicFiles.isComplete(candidate, dataFile.getRootElement())) {
+                    if (Files.exists(candidate)) {
+                        System.err.println(candidate + " is incomplete");
+                    }
+                    continue;
+                }
+                Unmarshaller unmarshaller = JAXBContextRegistry.unmarshaller(type);
+                T document = type.cast(unmarshaller.unmarshal(candidate.toFile()));
+                if (candidate != file) {
+                    System.err.println("Recovered " + what + " data from " + candidate);
+                }
+                return document;
+            } catch (JAXBException | IOException e) {
+                System.err.println("Error loading " + what + "s from " + candidate + ": " + e.getMessage());
             }
+        }
+        return null;
+    }
 
-            JAXBContext context = JAXBContext.newInstance(VehicleList.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
+    private File readable(DataFile dataFile) throws IOException {
+        Path path = AtomicFiles.readable(fileOf(dataFile), dataFile.getRootElement());
+        return path == null ? null : path.toFile();
+    }
 
-            VehicleList vehicleList = (VehicleList) unmarshaller.unmarshal(file);
+    /**
+     * Current size of a data file in bytes, 0 if it does not exist.
+     */
+    @Override
+    public long sizeOf(DataFile file) {
+        return fileOf(file).toFile().length();
+    }
 
-            System.out.println("Loaded " + vehicleList.getVehicles().size() + " vehicles");
-            return vehicleList.getVehicles();
-        } catch (JAXBException e) {
-            System.err.println("Error loading vehicles: " + e.getMessage());
-            return new ArrayList<>();
+    /**
+     * Opens the order journal that sits next to the XML snapshot, or returns null if it cannot be opened.
+     */
+    @Override
+    public OrderJournal openJournal() {
+        try {
+            return OrderJournal.open(journalFile);
+        } catch (IOException e) {
+            System.err.println("Error opening journal: " + e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * Opens the order history that sits next to the XML snapshot, starting a new one if
+     * the files cannot be read, or returns null if it cannot be opened at all.
+     */
+    @Override
+    public MappedOrderStore openOrderHistory() {
+        try {
+            return MappedOrderStore.open(historyRecordsFile, historyStringsFile);
+        } catch (IOException e) {
+            System.err.println("Error opening order history, starting a new one: " + e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(historyRecordsFile);
+            Files.deleteIfExists(historyStringsFile);
+            return MappedOrderStore.open(historyRecordsFile, historyStringsFile);
+        } catch (IOException e) {
+            System.err.println("Error opening order history: " + e.getMessage());
+            return null;
+        }
+    }
 
-    public void clearAllData() {
-        deleteFile(CUSTOMERS_FILE);
-        deleteFile(ORDERS_FILE);
-        deleteFile(DRIVERS_FILE);
-        deleteFile(CHEFS_FILE);
-        deleteFile(VEHICLES_FILE);
-        deleteFile(FEEDBACK_FILE);
-        System.out.println("All data files cleared");
+    @Override
+    public OrderArchive orderArchive() {
+        return new OrderArchive(archiveDir);
     }
 
-    private void deleteFile(String filename) {
-        File file = new File(filename);
-        if (file.exists()) {
-            file.delete();
+    @Override
+    public void clearAllData() {
+        for (DataFile file : DataFile.values()) {
+            AtomicFiles.deleteAll(fileOf(file));
         }
+        AtomicFiles.deleteAll(journalFile);
+        AtomicFiles.deleteAll(historyRecordsFile);
+        AtomicFiles.deleteAll(historyStringsFile);
+        orderArchive().clear();
+        System.out.println("All data files cleared");
     }
 }
\ No newline at end of file
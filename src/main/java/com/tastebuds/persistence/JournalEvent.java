@@ -0,0 +1,296 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.Money;
+import com.tastebuds.model.OrderCategory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * One order lifecycle event as written to the order journal.
+ * Only the fields relevant to the event type are populated.
+ */
+public final class JournalEvent {
+
+    public enum Type {
+        // code 1 was ORDER_PLACED with amounts as doubles; it is still read, see decode
+        ORDER_PLACED(7),
+        PREPARING(2),
+        READY(3),
+        OUT_FOR_DELIVERY(4),
+        DELIVERED(5),
+        FEEDBACK(6);
+
+        private final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        static Type fromCode(int code) throws IOException {
+            if (code == LEGACY_ORDER_PLACED) {
+                return ORDER_PLACED;
+            }
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IOException("Unknown journal event type " + code);
+        }
+    }
+
+    private static final int LEGACY_ORDER_PLACED = 1;
+
+    private final Type type;
+    private final String orderNo;
+    private String customerId;
+    private String items;
+    // minor units
+    private long billAmount;
+    private long finalBill;
+    private int queuePosition;
+    private int[] menuItems;
+    private int[] quantities;
+    private OrderCategory category;
+    private String chefs;
+    private int estimatedTime;
+    private String driverId;
+    private String vehicle;
+    private int rating;
+    private String comment;
+
+    private JournalEvent(Type type, String orderNo) {
+        this.type = type;
+        this.orderNo = orderNo;
+    }
+
+    public static JournalEvent orderPlaced(String orderNo, String customerId, String items,
+                                           long billAmount, long finalBill, int queuePosition) {
+        return orderPlaced(orderNo, customerId, items, billAmount, finalBill, queuePosition, null, null);
+    }
+
+    public static JournalEvent orderPlaced(String orderNo, String customerId, String items,
+                                           long billAmount, long finalBill, int queuePosition,
+                                           int[] menuItems, int[] quantities) {
+        JournalEvent event = new JournalEvent(Type.ORDER_PLACED, orderNo);
+        event.customerId = customerId;
+        event.items = items;
+        event.billAmount = billAmount;
+        event.finalBill = finalBill;
+        event.queuePosition = queuePosition;
+        event.menuItems = menuItems;
+        event.quantities = quantities;
+        return event;
+    }
+
+    public static JournalEvent preparing(String orderNo, OrderCategory category, String chefs, int estimatedTime) {
+        JournalEvent event = new JournalEvent(Type.PREPARING, orderNo);
+        event.category = category;
+        event.chefs = chefs;
+        event.estimatedTime = estimatedTime;
+        return event;
+    }
+
+    public static JournalEvent ready(String orderNo) {
+        return new JournalEvent(Type.READY, orderNo);
+    }
+
+    public static JournalEvent outForDelivery(String orderNo, String driverId, String vehicle) {
+        JournalEvent event = new JournalEvent(Type.OUT_FOR_DELIVERY, orderNo);
+        event.driverId = driverId;
+        event.vehicle = vehicle;
+        return event;
+    }
+
+    public static JournalEvent delivered(String orderNo) {
+        return new JournalEvent(Type.DELIVERED, orderNo);
+    }
+
+    public static JournalEvent feedback(String orderNo, int rating, String comment) {
+        JournalEvent event = new JournalEvent(Type.FEEDBACK, orderNo);
+        event.rating = rating;
+        event.comment = comment;
+        return event;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getOrderNo() {
+        return orderNo;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getItems() {
+        return items;
+    }
+
+    public long getBillMinor() {
+        return billAmount;
+    }
+
+    public long getFinalBillMinor() {
+        return finalBill;
+    }
+
+    public int getQueuePosition() {
+        return queuePosition;
+    }
+
+    public int[] getMenuItems() {
+        return menuItems;
+    }
+
+    public int[] getQuantities() {
+        return quantities;
+    }
+
+    public OrderCategory getCategory() {
+        return category;
+    }
+
+    public String getChefs() {
+        return chefs;
+    }
+
+    public int getEstimatedTime() {
+        return estimatedTime;
+    }
+
+    public String getDriverId() {
+        return driverId;
+    }
+
+    public String getVehicle() {
+        return vehicle;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type.code);
+        writeString(out, orderNo);
+        switch (type) {
+            case ORDER_PLACED -> {
+                writeString(out, customerId);
+                writeString(out, items);
+                out.writeLong(billAmount);
+                out.writeLong(finalBill);
+                out.writeInt(queuePosition);
+                writeInts(out, menuItems);
+                writeInts(out, quantities);
+            }
+            case PREPARING -> {
+                writeString(out, category == null ? null : category.name());
+                writeString(out, chefs);
+                out.writeInt(estimatedTime);
+            }
+            case OUT_FOR_DELIVERY -> {
+                writeString(out, driverId);
+                writeString(out, vehicle);
+            }
+            case FEEDBACK -> {
+                out.writeInt(rating);
+                writeString(out, comment);
+            }
+            case READY, DELIVERED -> {
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static JournalEvent decode(DataInputStream in) throws IOException {
+        int code = in.readUnsignedByte();
+        Type type = Type.fromCode(code);
+        JournalEvent event = new JournalEvent(type, readString(in));
+        switch (type) {
+            case ORDER_PLACED -> {
+                event.customerId = readString(in);
+                event.items = readString(in);
+                if (code == LEGACY_ORDER_PLACED) {
+                    event.billAmount = Money.ofMajor(in.readDouble());
+                    event.finalBill = Money.ofMajor(in.readDouble());
+                } else {
+                    event.billAmount = in.readLong();
+                    event.finalBill = in.readLong();
+                }
+                event.queuePosition = in.readInt();
+                // line items were added later; older records end here
+                if (in.available() > 0) {
+                    event.menuItems = readInts(in);
+                    event.quantities = readInts(in);
+                }
+            }
+            case PREPARING -> {
+                String category = readString(in);
+                event.category = category == null ? null : OrderCategory.valueOf(category);
+                event.chefs = readString(in);
+                event.estimatedTime = in.readInt();
+            }
+            case OUT_FOR_DELIVERY -> {
+                event.driverId = readString(in);
+                event.vehicle = readString(in);
+            }
+            case FEEDBACK -> {
+                event.rating = in.readInt();
+                event.comment = readString(in);
+            }
+            case READY, DELIVERED -> {
+            }
+        }
+        return event;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values != null) {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalEvent{type=" + type + ", orderNo='" + orderNo + "'}";
+    }
+}
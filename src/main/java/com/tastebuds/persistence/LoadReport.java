@@ -0,0 +1,99 @@
+package com.tastebuds.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What one startup load did per data file: records read and time taken. Files are
+ * read in parallel, so the total wall time is less than the sum of the file times.
+ * Per-file entries may be recorded from loader threads.
+ */
+public final class LoadReport {
+    private final Map<DataFile, Entry> entries = new EnumMap<>(DataFile.class);
+    private volatile long linkNanos;
+    private volatile long totalNanos;
+
+    public synchronized void loaded(DataFile file, int records, long nanos) {
+        entries.put(file, new Entry(file, records, nanos));
+    }
+
+    public synchronized Entry get(DataFile file) {
+        return entries.get(file);
+    }
+
+    public synchronized Collection<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    /**
+     * Time spent after the files were read: indexes, queues, free lists and journal replay.
+     */
+    public void setLinkNanos(long linkNanos) {
+        this.linkNanos = linkNanos;
+    }
+
+    public void setTotalNanos(long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    public double getLinkMillis() {
+        return linkNanos / 1_000_000.0;
+    }
+
+    /**
+     * Wall time of the whole load.
+     */
+    public double getTotalMillis() {
+        return totalNanos / 1_000_000.0;
+    }
+
+    /**
+     * What the same reads would have cost one after another.
+     */
+    public synchronized double getSequentialMillis() {
+        return entries.values().stream().mapToLong(e -> e.nanos).sum() / 1_000_000.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries.values()) {
+            sb.append(entry).append('\n');
+        }
+        sb.append(String.format("files %.1fms (%.1fms one after another), linking %.1fms, total %.1fms",
+                getTotalMillis() - getLinkMillis(), getSequentialMillis(), getLinkMillis(), getTotalMillis()));
+        return sb.toString();
+    }
+
+    public static final class Entry {
+        private final DataFile file;
+        private final int records;
+        private final long nanos;
+
+        Entry(DataFile file, int records, long nanos) {
+            this.file = file;
+            this.records = records;
+            this.nanos = nanos;
+        }
+
+        public DataFile getFile() {
+            return file;
+        }
+
+        public int getRecords() {
+            return records;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-14s %6d records %7.1fms", file.getFileName(), records, getMillis());
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.Order;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Archived orders kept off the heap in two memory-mapped files: one of fixed-width
+ * records ({@link #RECORD_BYTES} each, so record i sits at a computed offset) and one
+ * holding the variable-length strings and line items the records point into.
+ * Orders are read through {@link OrderView}s over the mapped bytes; nothing is decoded
+ * until a field is asked for.
+ *
+ * The only heap structure is an open-addressing index from order number to record
+ * number (two ints per slot), rebuilt from the records on open.
+ *
+ * Appends are made durable before they become visible: the data is written and forced,
+ * then the record count in the header is bumped and forced. Records past the count
+ * (a crash mid-append) are ignored and overwritten. Records are never changed once
+ * counted, so views read them without locking; only the index lookup is synchronized.
+ */
+public final class MappedOrderStore implements Closeable {
+    static final int RECORD_BYTES = 88;
+
+    // record layout; a string is an (offset, length) pair into the strings file, offset -1 for null
+    static final int ORDER_NO = 0;
+    static final int CUSTOMER_ID = 8;
+    static final int ITEMS = 16;
+    static final int ASSIGNED_CHEFS = 24;
+    static final int DRIVER_ID = 32;
+    static final int VEHICLE = 40;
+    // (offset, count) of count (menu item, quantity) int pairs; offset -1 for free-text orders
+    static final int LINE_ITEMS = 48;
+    static final int BILL = 56;
+    static final int FINAL_BILL = 64;
+    static final int ESTIMATED_TIME = 72;
+    static final int STATUS = 76;
+    static final int CATEGORY = 77;
+    static final int DELIVERED_AT = 80;
+
+    static final int NULL_REF = -1;
+
+    private static final int RECORDS_MAGIC = 0x54424f52;   // "TBOR"
+    private static final int STRINGS_MAGIC = 0x54424f53;   // "TBOS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    // header: magic, version, record count (or used bytes of the strings file), reserved
+    private static final int COUNT_OFFSET = 8;
+    private static final int INITIAL_RECORDS = 1024;
+
+    private final FileChannel recordChannel;
+    private final FileChannel stringChannel;
+
+    // remapped (larger) as the files grow; views keep whichever mapping they were made with
+    private volatile MappedByteBuffer records;
+    private volatile MappedByteBuffer strings;
+    private volatile int count;
+    private int stringsUsed;
+
+    // slot -> record number + 1 (0 = empty), with the order number's hash alongside
+    private int[] slots;
+    private int[] hashes;
+
+    private MappedOrderStore(FileChannel recordChannel, FileChannel stringChannel) {
+        this.recordChannel = recordChannel;
+        this.stringChannel = stringChannel;
+    }
+
+    /**
+     * Opens (or creates) the store kept in the given pair of files.
+     */
+    public static MappedOrderStore open(Path recordFile, Path stringFile) throws IOException {
+        FileChannel recordChannel = FileChannel.open(recordFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel stringChannel;
+        try {
+            stringChannel = FileChannel.open(stringFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            recordChannel.close();
+            throw e;
+        }
+
+        MappedOrderStore store = new MappedOrderStore(recordChannel, stringChannel);
+        try {
+            store.init();
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw new IOException("Cannot open order history " + recordFile + ": " + e.getMessage(), e);
+        }
+        return store;
+    }
+
+    private void init() throws IOException {
+        boolean fresh = recordChannel.size() == 0;
+        records = map(recordChannel, Math.max(recordChannel.size(), HEADER_BYTES + (long) INITIAL_RECORDS * RECORD_BYTES));
+        strings = map(stringChannel, Math.max(stringChannel.size(), HEADER_BYTES + (long) INITIAL_RECORDS * 32));
+
+        if (fresh) {
+            writeHeader(records, RECORDS_MAGIC);
+            writeHeader(strings, STRINGS_MAGIC);
+            strings.putInt(COUNT_OFFSET, HEADER_BYTES);
+            strings.force();
+            records.force();
+        }
+        checkHeader(records, RECORDS_MAGIC);
+        checkHeader(strings, STRINGS_MAGIC);
+
+        int n = records.getInt(COUNT_OFFSET);
+        stringsUsed = strings.getInt(COUNT_OFFSET);
+        if (n < 0 || (long) HEADER_BYTES + (long) n * RECORD_BYTES > records.capacity()
+                || stringsUsed < HEADER_BYTES || stringsUsed > strings.capacity()) {
+            throw new IOException("Order history header is corrupt");
+        }
+
+        slots = new int[tableSize(n)];
+        hashes = new int[slots.length];
+        for (int i = 0; i < n; i++) {
+            int base = offsetOf(i);
+            checkRecord(i, base);
+            index(hash(records, strings, base), i);
+        }
+        count = n;
+    }
+
+    // every reference of a counted record must land inside the committed strings
+    private void checkRecord(int record, int base) throws IOException {
+        if (records.getInt(base + ORDER_NO) == NULL_REF) {
+            throw new IOException("Order history record " + record + " has no order number");
+        }
+        for (int ref : new int[]{ORDER_NO, CUSTOMER_ID, ITEMS, ASSIGNED_CHEFS, DRIVER_ID, VEHICLE}) {
+            checkRef(record, base + ref, 1);
+        }
+        checkRef(record, base + LINE_ITEMS, 8);
+    }
+
+    private void checkRef(int record, int ref, int unit) throws IOException {
+        int offset = records.getInt(ref);
+        int length = records.getInt(ref + 4);
+        if (offset == NULL_REF) {
+            return;
+        }
+        if (offset < HEADER_BYTES || length < 0 || offset + (long) length * unit > stringsUsed) {
+            throw new IOException("Order history record " + record + " points outside the strings file");
+        }
+    }
+
+    /**
+     * Appends the orders that are not in the store yet and returns how many were added.
+     * Either all of them become visible or, on an IOException, none do.
+     */
+    public synchronized int append(Collection<Order> orders) throws IOException {
+        int n = count;
+        int used = stringsUsed;
+        int added = 0;
+        try {
+            MappedByteBuffer recs = ensure(records, recordChannel, offsetOf(n + orders.size()));
+            records = recs;
+
+            // strings repeat a lot (customers, drivers, vehicles); store each once per append
+            Map<String, Long> written = new HashMap<>();
+            for (Order order : orders) {
+                String orderNo = order.getOrderNo();
+                if (orderNo == null || find(orderNo, n + added) >= 0) {
+                    continue;
+                }
+                int needed = utf8Bound(orderNo) + utf8Bound(order.getCustomerId()) + utf8Bound(order.getItems())
+                        + utf8Bound(order.getAssignedChefs()) + utf8Bound(order.getDriverId())
+                        + utf8Bound(order.getVehicle()) + order.getLineItemCount() * 8;
+                MappedByteBuffer strs = ensure(strings, stringChannel, (long) used + needed);
+                strings = strs;
+
+                int base = offsetOf(n + added);
+                used = putString(strs, recs, base + ORDER_NO, orderNo, used, null);
+                used = putString(strs, recs, base + CUSTOMER_ID, order.getCustomerId(), used, written);
+                used = putString(strs, recs, base + ITEMS, order.getItems(), used, written);
+                used = putString(strs, recs, base + ASSIGNED_CHEFS, order.getAssignedChefs(), used, written);
+                used = putString(strs, recs, base + DRIVER_ID, order.getDriverId(), used, written);
+                used = putString(strs, recs, base + VEHICLE, order.getVehicle(), used, written);
+
+                if (order.hasLineItems()) {
+                    recs.putInt(base + LINE_ITEMS, used);
+                    recs.putInt(base + LINE_ITEMS + 4, order.getLineItemCount());
+                    for (int i = 0; i < order.getLineItemCount(); i++) {
+                        strs.putInt(used, order.getMenuItem(i));
+                        strs.putInt(used + 4, order.getQuantity(i));
+                        used += 8;
+                    }
+                } else {
+                    recs.putInt(base + LINE_ITEMS, NULL_REF);
+                    recs.putInt(base + LINE_ITEMS + 4, 0);
+                }
+
+                recs.putLong(base + BILL, order.getBillMinor());
+                recs.putLong(base + FINAL_BILL, order.getFinalBillMinor());
+                recs.putInt(base + ESTIMATED_TIME, order.getEstimatedTime());
+                recs.put(base + STATUS, enumCode(order.getStatus()));
+                recs.put(base + CATEGORY, enumCode(order.getCategory()));
+                recs.putLong(base + DELIVERED_AT, order.getDeliveredAt());
+
+                // indexed now so a repeat later in the same batch is skipped
+                growIndex(n + added + 1);
+                index(hashOf(orderNo), n + added);
+                added++;
+            }
+            if (added == 0) {
+                return 0;
+            }
+
+            strings.force();
+            records.force();
+            strings.putInt(COUNT_OFFSET, used);
+            strings.force();
+            records.putInt(COUNT_OFFSET, n + added);
+            records.force();
+        } catch (IOException | RuntimeException e) {
+            // force() reports I/O failures unchecked; either way nothing past n was committed
+            unindex(n, n + added);
+            throw e instanceof IOException io ? io : new IOException("Could not write order history", e);
+        }
+        stringsUsed = used;
+        count = n + added;
+        return added;
+    }
+
+    /**
+     * View of the order with this number, or null if it is not in the store.
+     */
+    public OrderView find(String orderNo) {
+        if (orderNo == null) {
+            return null;
+        }
+        synchronized (this) {
+            int record = find(orderNo, count);
+            return record < 0 ? null : new OrderView(records, strings, offsetOf(record));
+        }
+    }
+
+    public boolean contains(String orderNo) {
+        if (orderNo == null) {
+            return false;
+        }
+        synchronized (this) {
+            return find(orderNo, count) >= 0;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Feeds every stored order to the consumer in the order they were added. The same view
+     * is moved from record to record, so the consumer must not keep it.
+     */
+    public void forEach(Consumer<OrderView> consumer) {
+        int n;
+        MappedByteBuffer recs;
+        MappedByteBuffer strs;
+        synchronized (this) {
+            n = count;
+            recs = records;
+            strs = strings;
+        }
+        OrderView view = new OrderView(recs, strs, 0);
+        for (int i = 0; i < n; i++) {
+            view.moveTo(offsetOf(i));
+            consumer.accept(view);
+        }
+    }
+
+    /**
+     * Bytes currently mapped for both files.
+     */
+    public long mappedBytes() {
+        return (long) records.capacity() + strings.capacity();
+    }
+
+    /**
+     * Closes the files. Mappings stay readable until they are garbage collected, so views
+     * handed out earlier keep working.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            recordChannel.close();
+        } finally {
+            stringChannel.close();
+        }
+    }
+
+    // record number of orderNo among the first n records, or -1
+    private int find(String orderNo, int n) {
+        byte[] key = orderNo.getBytes(StandardCharsets.UTF_8);
+        int hash = mix(orderNo.hashCode());
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int record = slots[slot] - 1;
+            if (hashes[slot] == hash && record < n && equalsAt(offsetOf(record) + ORDER_NO, key)) {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private boolean equalsAt(int refOffset, byte[] key) {
+        int offset = records.getInt(refOffset);
+        if (offset == NULL_REF || records.getInt(refOffset + 4) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (strings.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(int hash, int record) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = record + 1;
+        hashes[slot] = hash;
+    }
+
+    // drops records [from, to) again after a failed append; rebuilds, since probing chains can't have holes
+    private void unindex(int from, int to) {
+        int[] oldSlots = slots;
+        int[] oldHashes = hashes;
+        slots = new int[oldSlots.length];
+        hashes = new int[oldSlots.length];
+        for (int slot = 0; slot < oldSlots.length; slot++) {
+            int record = oldSlots[slot] - 1;
+            if (record >= 0 && (record < from || record >= to)) {
+                index(oldHashes[slot], record);
+            }
+        }
+    }
+
+    // keeps the table at most half full
+    private void growIndex(int entries) {
+        if (entries * 2 <= slots.length) {
+            return;
+        }
+        int[] oldSlots = slots;
+        int[] oldHashes = hashes;
+        slots = new int[oldSlots.length * 2];
+        hashes = new int[slots.length];
+        for (int slot = 0; slot < oldSlots.length; slot++) {
+            if (oldSlots[slot] != 0) {
+                index(oldHashes[slot], oldSlots[slot] - 1);
+            }
+        }
+    }
+
+    private static int tableSize(int entries) {
+        int size = 16;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int hash(ByteBuffer records, ByteBuffer strings, int base) {
+        return hashOf(new OrderView(records, strings, base).getOrderNo());
+    }
+
+    private static int hashOf(String orderNo) {
+        return mix(orderNo.hashCode());
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int putString(MappedByteBuffer strs, MappedByteBuffer recs, int ref, String value,
+                                 int used, Map<String, Long> written) {
+        if (value == null) {
+            recs.putInt(ref, NULL_REF);
+            recs.putInt(ref + 4, 0);
+            return used;
+        }
+        Long earlier = written == null ? null : written.get(value);
+        if (earlier != null) {
+            recs.putLong(ref, earlier);
+            return used;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strs.put(used, bytes);
+        recs.putInt(ref, used);
+        recs.putInt(ref + 4, bytes.length);
+        if (written != null) {
+            written.put(value, recs.getLong(ref));
+        }
+        return used + bytes.length;
+    }
+
+    // enough room for the string's UTF-8 bytes without encoding it twice
+    private static int utf8Bound(String value) {
+        return value == null ? 0 : value.length() * 3;
+    }
+
+    private static byte enumCode(Enum<?> value) {
+        return (byte) (value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static int offsetOf(int record) {
+        return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+    private static MappedByteBuffer ensure(MappedByteBuffer buffer, FileChannel channel, long needed) throws IOException {
+        if (needed <= buffer.capacity()) {
+            return buffer;
+        }
+        long size = buffer.capacity();
+        while (size < needed) {
+            size *= 2;
+        }
+        if (size > Integer.MAX_VALUE) {
+            if (needed > Integer.MAX_VALUE) {
+                throw new IOException("Order history is full");
+            }
+            size = Integer.MAX_VALUE;
+        }
+        return map(channel, size);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static void writeHeader(MappedByteBuffer buffer, int magic) {
+        buffer.putInt(0, magic);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(COUNT_OFFSET, 0);
+        buffer.putInt(12, 0);
+    }
+
+    private static void checkHeader(MappedByteBuffer buffer, int magic) throws IOException {
+        if (buffer.getInt(0) != magic) {
+            throw new IOException("Not an order history file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported order history version " + version);
+        }
+    }
+}
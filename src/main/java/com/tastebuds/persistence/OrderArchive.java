@@ -0,0 +1,256 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.Order;
+import com.tastebuds.model.OrderList;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Settled orders, partitioned by the month they were delivered in: one {@code orders-YYYY-MM}
+ * directory per month, holding append-only segments in the same format as orders.xml. Each
+ * archiving pass writes its orders as a new segment and leaves the older ones alone, so a
+ * pass costs what it archives rather than the size of the month. Trailing segments are
+ * merged the way a binary counter carries (the newest is folded into the one before it once
+ * it is at least as large), so a month keeps a handful of segments and an order is rewritten
+ * only a logarithmic number of times however many passes the month sees.
+ *
+ * Reading a month merges its segments and keeps the first copy of each order number, so an
+ * archive step cut short and rerun, or a merge cut short before it deleted its inputs, only
+ * leaves duplicates that are never seen.
+ *
+ * The archive is the durable copy. Lookups go through the {@link MappedOrderStore}, which
+ * indexes the same orders and can be rebuilt from here with {@link #forEachOrder}.
+ */
+public class OrderArchive {
+    private static final String PREFIX = "orders-";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SUFFIX = ".xml";
+
+    private final Path dir;
+    private final ZoneId zone;
+
+    public OrderArchive(Path dir) {
+        this(dir, ZoneId.systemDefault());
+    }
+
+    public OrderArchive(Path dir, ZoneId zone) {
+        this.dir = dir;
+        this.zone = zone;
+    }
+
+    /**
+     * Month an order delivered at the given epoch millis is archived under.
+     */
+    public YearMonth partitionOf(long deliveredAt) {
+        return YearMonth.from(Instant.ofEpochMilli(deliveredAt).atZone(zone));
+    }
+
+    /**
+     * Directory holding the segments of one month.
+     */
+    public Path partitionDir(YearMonth month) {
+        return dir.resolve(PREFIX + month);
+    }
+
+    /**
+     * Adds the orders to their month partitions, one new segment per month. Returns false if
+     * any segment could not be written; the months that were written keep the orders added.
+     */
+    public boolean archive(Collection<Order> orders) {
+        Map<YearMonth, List<Order>> byMonth = new TreeMap<>();
+        for (Order order : orders) {
+            byMonth.computeIfAbsent(partitionOf(order.getDeliveredAt()), m -> new ArrayList<>()).add(order);
+        }
+
+        boolean ok = true;
+        for (Map.Entry<YearMonth, List<Order>> entry : byMonth.entrySet()) {
+            ok &= append(entry.getKey(), entry.getValue());
+        }
+        return ok;
+    }
+
+    private boolean append(YearMonth month, List<Order> orders) {
+        Path monthDir = partitionDir(month);
+        List<Path> segments;
+        try {
+            Files.createDirectories(monthDir);
+            segments = segments(monthDir);
+            Path segment = write(monthDir, nextNumber(segments), orders);
+            segments.add(segment);
+            System.out.println("Archived " + orders.size() + " orders to " + segment);
+        } catch (JAXBException | IOException e) {
+            System.err.println("Error archiving orders to " + monthDir + ": " + e.getMessage());
+            return false;
+        }
+
+        // the orders are durable now; a merge that fails only leaves more segments to read
+        try {
+            carry(monthDir, segments);
+        } catch (JAXBException | IOException e) {
+            System.err.println("Error merging segments in " + monthDir + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    // merges the last two segments while the last is at least as large as the one before
+    private void carry(Path monthDir, List<Path> segments) throws JAXBException, IOException {
+        while (segments.size() >= 2) {
+            Path last = segments.get(segments.size() - 1);
+            Path before = segments.get(segments.size() - 2);
+            if (Files.size(last) < Files.size(before)) {
+                return;
+            }
+            Map<String, Order> merged = new LinkedHashMap<>();
+            for (Path segment : List.of(before, last)) {
+                for (Order order : read(segment)) {
+                    merged.putIfAbsent(order.getOrderNo(), order);
+                }
+            }
+            Path segment = write(monthDir, nextNumber(segments), new ArrayList<>(merged.values()));
+            Files.delete(before);
+            Files.delete(last);
+            segments.subList(segments.size() - 2, segments.size()).clear();
+            segments.add(segment);
+        }
+    }
+
+    /**
+     * Months that have a partition, oldest first.
+     */
+    public List<YearMonth> partitions() {
+        List<YearMonth> months = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return months;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(dir, PREFIX + "*")) {
+            for (Path monthDir : dirs) {
+                if (!Files.isDirectory(monthDir)) {
+                    continue;
+                }
+                try {
+                    months.add(YearMonth.parse(monthDir.getFileName().toString().substring(PREFIX.length())));
+                } catch (RuntimeException e) {
+                    // not one of ours
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing " + dir + ": " + e.getMessage());
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * The orders archived under one month, oldest segment first and each order once; empty
+     * if there are none.
+     */
+    public List<Order> load(YearMonth month) throws IOException {
+        Path monthDir = partitionDir(month);
+        if (!Files.isDirectory(monthDir)) {
+            return new ArrayList<>();
+        }
+        Map<String, Order> orders = new LinkedHashMap<>();
+        for (Path segment : segments(monthDir)) {
+            try {
+                for (Order order : read(segment)) {
+                    orders.putIfAbsent(order.getOrderNo(), order);
+                }
+            } catch (JAXBException e) {
+                throw new IOException("Cannot parse " + segment, e);
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Feeds every archived order to the consumer, one partition at a time, oldest first.
+     * Returns false if a partition could not be read; the others are still fed.
+     */
+    public boolean forEachOrder(Consumer<Order> consumer) {
+        boolean ok = true;
+        for (YearMonth month : partitions()) {
+            try {
+                load(month).forEach(consumer);
+            } catch (IOException e) {
+                System.err.println("Error loading archived orders: " + e.getMessage());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Deletes every partition.
+     */
+    public void clear() {
+        for (YearMonth month : partitions()) {
+            Path monthDir = partitionDir(month);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(monthDir)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(monthDir);
+            } catch (IOException e) {
+                System.err.println("Error deleting " + monthDir + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // segment files of one month in the order they were written; leftover temp files are not listed
+    private static List<Path> segments(Path monthDir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(monthDir, SEGMENT_PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (numberOf(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(OrderArchive::numberOf));
+        return segments;
+    }
+
+    private static long numberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long nextNumber(List<Path> segments) {
+        return segments.isEmpty() ? 1 : numberOf(segments.get(segments.size() - 1)) + 1;
+    }
+
+    // a segment is written once under a fresh name, so there is never a previous generation
+    private static Path write(Path monthDir, long number, List<Order> orders) throws JAXBException, IOException {
+        Path segment = monthDir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SUFFIX));
+        OrderList document = new OrderList(orders);
+        Marshaller marshaller = JAXBContextRegistry.marshaller(OrderList.class);
+        AtomicFiles.replace(segment, out -> marshaller.marshal(document, out));
+        return segment;
+    }
+
+    private static List<Order> read(Path segment) throws IOException, JAXBException {
+        OrderList list = (OrderList) JAXBContextRegistry.unmarshaller(OrderList.class).unmarshal(segment.toFile());
+        return list.getOrders() == null ? List.of() : list.getOrders();
+    }
+}
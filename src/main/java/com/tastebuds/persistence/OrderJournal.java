@@ -0,0 +1,180 @@
+package com.tastebuds.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of order lifecycle events, written between XML snapshots.
+ *
+ * Each record is [length][crc32][payload]. A torn record at the tail (crash mid-write)
+ * fails the length or checksum test and is cut off on replay.
+ *
+ * append() returns once the record is on disk. Concurrent appenders share fsyncs
+ * (group commit): whoever syncs first covers every record written before it.
+ */
+public class OrderJournal implements Closeable {
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+
+    private long writtenSeq;          // guarded by writeLock
+    private volatile long syncedSeq;
+
+    private OrderJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    public static OrderJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return new OrderJournal(path, channel);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Feeds every intact record to the consumer in order, drops any torn tail,
+     * and leaves the journal positioned for appending. Returns the number of records replayed.
+     */
+    public int replay(Consumer<JournalEvent> consumer) throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                channel.position(0);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                CRC32 crc = new CRC32();
+                long validEnd = 0;
+                int count = 0;
+
+                while (true) {
+                    byte[] payload;
+                    int expectedCrc;
+                    try {
+                        int length = in.readInt();
+                        if (length <= 0 || length > MAX_RECORD_BYTES) {
+                            break;
+                        }
+                        expectedCrc = in.readInt();
+                        payload = new byte[length];
+                        in.readFully(payload);
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != expectedCrc) {
+                        break;
+                    }
+
+                    consumer.accept(JournalEvent.decode(new DataInputStream(new ByteArrayInputStream(payload))));
+                    validEnd += HEADER_BYTES + payload.length;
+                    count++;
+                }
+
+                if (validEnd < channel.size()) {
+                    System.err.println("Discarding torn journal tail at byte " + validEnd + " of " + path);
+                    channel.truncate(validEnd);
+                    channel.force(false);
+                }
+                channel.position(validEnd);
+                return count;
+            }
+        }
+    }
+
+    public void append(JournalEvent event) throws IOException {
+        awaitDurable(write(event));
+    }
+
+    /**
+     * Writes the record without waiting for the disk and returns its sequence number.
+     * Lets callers fix the record order under their own lock and fsync after releasing it.
+     */
+    public long write(JournalEvent event) throws IOException {
+        byte[] payload = event.encode();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        synchronized (writeLock) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            return ++writtenSeq;
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk.
+     */
+    public void awaitDurable(long seq) throws IOException {
+        if (syncedSeq >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            long target;
+            synchronized (writeLock) {
+                target = writtenSeq;
+            }
+            channel.force(false);
+            syncedSeq = target;
+        }
+    }
+
+    /**
+     * Blocks until everything written so far is on disk. Returns at once if nothing new was written.
+     */
+    public void sync() throws IOException {
+        long target;
+        synchronized (writeLock) {
+            target = writtenSeq;
+        }
+        awaitDurable(target);
+    }
+
+    /**
+     * Empties the journal once a full snapshot has been written.
+     */
+    public void truncate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                channel.truncate(0);
+                channel.position(0);
+                channel.force(false);
+                syncedSeq = writtenSeq;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,73 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.Order;
+import com.tastebuds.model.OrderList;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Pulls {@code <order>} elements out of an orders.xml one at a time with StAX,
+ * so the whole document is never held in memory.
+ */
+final class OrderStreamReader implements AutoCloseable {
+    private static final String ORDER_ELEMENT = "order";
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final InputStream in;
+    private final XMLStreamReader reader;
+    private final Unmarshaller unmarshaller;
+
+    OrderStreamReader(File file) throws IOException, XMLStreamException, JAXBException {
+        this(new FileInputStream(file));
+    }
+
+    OrderStreamReader(InputStream in) throws XMLStreamException, JAXBException, IOException {
+        this.in = in;
+        try {
+            this.reader = INPUT_FACTORY.createXMLStreamReader(in);
+            this.unmarshaller = JAXBContextRegistry.unmarshaller(OrderList.class);
+        } catch (XMLStreamException | JAXBException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the next order in the document, or null once the end is reached.
+     */
+    Order next() throws XMLStreamException, JAXBException {
+        while (reader.hasNext()) {
+            if (reader.isStartElement() && ORDER_ELEMENT.equals(reader.getLocalName())) {
+                return unmarshaller.unmarshal(reader, Order.class).getValue();
+            }
+            reader.next();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // the underlying stream is closed below regardless
+        } finally {
+            in.close();
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
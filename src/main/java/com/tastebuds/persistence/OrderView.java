@@ -0,0 +1,151 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.Order;
+import com.tastebuds.model.OrderCategory;
+import com.tastebuds.model.OrderStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of one order in a {@link MappedOrderStore}. Each getter reads its field
+ * from the mapped record; numbers cost nothing to read, strings are decoded on every call.
+ * {@link #toOrder()} copies the whole order onto the heap when an {@link Order} is needed.
+ */
+public final class OrderView {
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final OrderCategory[] CATEGORIES = OrderCategory.values();
+
+    private final ByteBuffer records;
+    private final ByteBuffer strings;
+    private int base;
+
+    OrderView(ByteBuffer records, ByteBuffer strings, int base) {
+        this.records = records;
+        this.strings = strings;
+        this.base = base;
+    }
+
+    void moveTo(int base) {
+        this.base = base;
+    }
+
+    public String getOrderNo() {
+        return string(MappedOrderStore.ORDER_NO);
+    }
+
+    public String getCustomerId() {
+        return string(MappedOrderStore.CUSTOMER_ID);
+    }
+
+    public String getItems() {
+        return string(MappedOrderStore.ITEMS);
+    }
+
+    public boolean hasLineItems() {
+        return records.getInt(base + MappedOrderStore.LINE_ITEMS) != MappedOrderStore.NULL_REF;
+    }
+
+    public int getLineItemCount() {
+        return records.getInt(base + MappedOrderStore.LINE_ITEMS + 4);
+    }
+
+    /**
+     * Menu item ordinal of line item i.
+     */
+    public int getMenuItem(int i) {
+        return strings.getInt(lineItem(i));
+    }
+
+    public int getQuantity(int i) {
+        return strings.getInt(lineItem(i) + 4);
+    }
+
+    public long getBillMinor() {
+        return records.getLong(base + MappedOrderStore.BILL);
+    }
+
+    public long getFinalBillMinor() {
+        return records.getLong(base + MappedOrderStore.FINAL_BILL);
+    }
+
+    public OrderStatus getStatus() {
+        return decode(STATUSES, records.get(base + MappedOrderStore.STATUS));
+    }
+
+    public OrderCategory getCategory() {
+        return decode(CATEGORIES, records.get(base + MappedOrderStore.CATEGORY));
+    }
+
+    public String getAssignedChefs() {
+        return string(MappedOrderStore.ASSIGNED_CHEFS);
+    }
+
+    public int getEstimatedTime() {
+        return records.getInt(base + MappedOrderStore.ESTIMATED_TIME);
+    }
+
+    public long getDeliveredAt() {
+        return records.getLong(base + MappedOrderStore.DELIVERED_AT);
+    }
+
+    public String getDriverId() {
+        return string(MappedOrderStore.DRIVER_ID);
+    }
+
+    public String getVehicle() {
+        return string(MappedOrderStore.VEHICLE);
+    }
+
+    /**
+     * Heap copy of the order. It is not attached to any system, so changing it changes nothing.
+     */
+    public Order toOrder() {
+        Order order = Order.placed(getOrderNo(), getCustomerId(), getItems(), getBillMinor(), getFinalBillMinor(), 0);
+        int n = getLineItemCount();
+        if (hasLineItems()) {
+            int[] menuItems = new int[n];
+            int[] quantities = new int[n];
+            for (int i = 0; i < n; i++) {
+                menuItems[i] = getMenuItem(i);
+                quantities[i] = getQuantity(i);
+            }
+            order.setLineItems(menuItems, quantities);
+        }
+        OrderStatus status = getStatus();
+        order.setStatus(status == null ? OrderStatus.PLACED : status);
+        order.setCategory(getCategory());
+        order.setAssignedChefs(getAssignedChefs());
+        order.setEstimatedTime(getEstimatedTime());
+        order.setDriverId(getDriverId());
+        order.setVehicle(getVehicle());
+        order.setDeliveredAt(getDeliveredAt());
+        return order;
+    }
+
+    private int lineItem(int i) {
+        if (i < 0 || i >= getLineItemCount()) {
+            throw new IndexOutOfBoundsException("Line item " + i + " of " + getLineItemCount());
+        }
+        return records.getInt(base + MappedOrderStore.LINE_ITEMS) + i * 8;
+    }
+
+    private String string(int field) {
+        int offset = records.getInt(base + field);
+        if (offset == MappedOrderStore.NULL_REF) {
+            return null;
+        }
+        byte[] bytes = new byte[records.getInt(base + field + 4)];
+        strings.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <E extends Enum<E>> E decode(E[] values, byte code) {
+        return code <= 0 || code > values.length ? null : values[code - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "OrderView{orderNo='" + getOrderNo() + "', status='" + getStatus() + "'}";
+    }
+}
@@ -0,0 +1,76 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.metrics.Counter;
+import com.tastebuds.metrics.LatencyHistogram;
+import com.tastebuds.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What a store reports about its saves: how long each took, how many bytes landed on
+ * disk and how many failed, labelled with the store format and the file. The file label
+ * is one of a fixed set (a {@link DataFile} or the menu), and every series is registered
+ * up front, so a save never goes back to the registry.
+ */
+final class SaveMetrics {
+    static final String MENU = "menu";
+
+    // one per label; filled in the constructor and only read after
+    private final Map<String, Series> series = new HashMap<>();
+
+    SaveMetrics(MetricsRegistry registry, String format) {
+        for (DataFile file : DataFile.values()) {
+            series.put(labelOf(file), new Series(registry, format, labelOf(file)));
+        }
+        series.put(MENU, new Series(registry, format, MENU));
+    }
+
+    static String labelOf(DataFile file) {
+        return file.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Records a save of the file that started at the given {@link System#nanoTime()}.
+     */
+    void saved(String label, Path file, long startNanos) {
+        Series s = of(label);
+        s.time.recordSince(startNanos);
+        try {
+            s.bytes.add(Files.size(file));
+        } catch (IOException e) {
+            // replaced again, or removed, since; the timing still counts
+        }
+    }
+
+    void failed(String label) {
+        of(label).failures.inc();
+    }
+
+    private Series of(String label) {
+        Series s = series.get(label);
+        if (s == null) {
+            throw new IllegalArgumentException("No save metrics for " + label);
+        }
+        return s;
+    }
+
+    private static final class Series {
+        final LatencyHistogram time;
+        final Counter bytes;
+        final Counter failures;
+
+        Series(MetricsRegistry registry, String format, String label) {
+            time = registry.timer("tastebuds_store_save_seconds", "Time to write and swap in one snapshot file.",
+                    "format", format, "file", label);
+            bytes = registry.counter("tastebuds_store_written_bytes_total", "Bytes of snapshot files written.",
+                    "format", format, "file", label);
+            failures = registry.counter("tastebuds_store_save_failures_total", "Snapshot file saves that failed.",
+                    "format", format, "file", label);
+        }
+    }
+}
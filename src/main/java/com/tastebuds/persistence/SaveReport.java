@@ -0,0 +1,105 @@
+package com.tastebuds.persistence;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What one save did per data file: skipped because nothing changed, or written,
+ * with the bytes on disk afterwards and the time the write took.
+ */
+public final class SaveReport {
+    private final Map<DataFile, Entry> entries = new EnumMap<>(DataFile.class);
+
+    public void skipped(DataFile file) {
+        entries.put(file, new Entry(file, false, true, 0, 0));
+    }
+
+    public void written(DataFile file, boolean ok, long bytes, long nanos) {
+        entries.put(file, new Entry(file, true, ok, bytes, nanos));
+    }
+
+    public Entry get(DataFile file) {
+        return entries.get(file);
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    public int getFilesWritten() {
+        return (int) entries.values().stream().filter(Entry::isWritten).count();
+    }
+
+    public long getTotalBytes() {
+        return entries.values().stream().mapToLong(Entry::getBytes).sum();
+    }
+
+    public double getTotalMillis() {
+        return entries.values().stream().mapToLong(e -> e.nanos).sum() / 1_000_000.0;
+    }
+
+    /**
+     * True if every file that needed writing was written.
+     */
+    public boolean isSuccess() {
+        return entries.values().stream().allMatch(Entry::isOk);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries.values()) {
+            sb.append(entry).append('\n');
+        }
+        sb.append(String.format("%d of %d files written, %d bytes in %.1fms",
+                getFilesWritten(), entries.size(), getTotalBytes(), getTotalMillis()));
+        return sb.toString();
+    }
+
+    public static final class Entry {
+        private final DataFile file;
+        private final boolean written;
+        private final boolean ok;
+        private final long bytes;
+        private final long nanos;
+
+        Entry(DataFile file, boolean written, boolean ok, long bytes, long nanos) {
+            this.file = file;
+            this.written = written;
+            this.ok = ok;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public DataFile getFile() {
+            return file;
+        }
+
+        public boolean isWritten() {
+            return written;
+        }
+
+        public boolean isOk() {
+            return ok;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            if (!written) {
+                return String.format("%-14s unchanged", file.getFileName());
+            }
+            return String.format("%-14s %s %8d bytes %7.1fms", file.getFileName(),
+                    ok ? "written" : "FAILED ", bytes, getMillis());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.*;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of one entity type inside a snapshot record. Fields are written in a
+ * fixed order; adding one means bumping {@link SnapshotOutput#VERSION}.
+ */
+interface SnapshotCodec<T> {
+
+    void write(SnapshotOutput out, T value);
+
+    T read(SnapshotInput in) throws IOException;
+
+    SnapshotCodec<Order> ORDER = new SnapshotCodec<>() {
+        @Override
+        public void write(SnapshotOutput out, Order order) {
+            out.writeString(order.getOrderNo());
+            out.writeSharedString(order.getCustomerId());
+            out.writeSharedString(order.getItems());
+            out.writeInts(lineItems(order, true));
+            out.writeInts(lineItems(order, false));
+            out.writeVarLong(order.getBillMinor());
+            out.writeVarLong(order.getFinalBillMinor());
+            out.writeEnum(order.getStatus());
+            out.writeVarInt(order.getQueuePosition());
+            out.writeEnum(order.getCategory());
+            out.writeSharedString(order.getAssignedChefs());
+            out.writeVarInt(order.getEstimatedTime());
+            out.writeSharedString(order.getDriverId());
+            out.writeSharedString(order.getVehicle());
+            out.writeVarLong(order.getDeliveredAt());
+        }
+
+        @Override
+        public Order read(SnapshotInput in) throws IOException {
+            Order order = new Order();
+            order.setOrderNo(in.readString());
+            order.setCustomerId(in.readSharedString());
+            order.setItems(in.readSharedString());
+            int[] menuItems = in.readInts();
+            int[] quantities = in.readInts();
+            if (menuItems != null && quantities != null && menuItems.length == quantities.length) {
+                order.setLineItems(menuItems, quantities);
+            }
+            order.setBillMinor(in.readVarLong());
+            order.setFinalBillMinor(in.readVarLong());
+            OrderStatus status = in.readEnum(OrderStatus.values());
+            order.setStatus(status == null ? OrderStatus.PLACED : status);
+            order.setQueuePosition(in.readVarInt());
+            order.setCategory(in.readEnum(OrderCategory.values()));
+            order.setAssignedChefs(in.readSharedString());
+            order.setEstimatedTime(in.readVarInt());
+            order.setDriverId(in.readSharedString());
+            order.setVehicle(in.readSharedString());
+            if (in.version() >= 2) {
+                order.setDeliveredAt(in.readVarLong());
+            }
+            return order;
+        }
+
+        private int[] lineItems(Order order, boolean menuItems) {
+            if (!order.hasLineItems()) {
+                return null;
+            }
+            int[] values = new int[order.getLineItemCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = menuItems ? order.getMenuItem(i) : order.getQuantity(i);
+            }
+            return values;
+        }
+    };
+
+    SnapshotCodec<Customer> CUSTOMER = new SnapshotCodec<>() {
+        private static final int REGISTERED = 1;
+        private static final int GUEST = 2;
+
+        @Override
+        public void write(SnapshotOutput out, Customer customer) {
+            if (customer instanceof RegisteredCustomer registered) {
+                out.writeVarInt(REGISTERED);
+                out.writeString(customer.getId());
+                out.writeSharedString(customer.getName());
+                out.writeVarInt(registered.getOrdersThisMonth());
+                out.writeDouble(registered.getDiscount());
+            } else {
+                out.writeVarInt(GUEST);
+                out.writeString(customer.getId());
+                out.writeSharedString(customer.getName());
+            }
+        }
+
+        @Override
+        public Customer read(SnapshotInput in) throws IOException {
+            int kind = in.readVarInt();
+            String id = in.readString();
+            String name = in.readSharedString();
+            switch (kind) {
+                case REGISTERED -> {
+                    RegisteredCustomer customer = new RegisteredCustomer(id, name);
+                    customer.setOrdersThisMonth(in.readVarInt());
+                    customer.setDiscount(in.readDouble());
+                    return customer;
+                }
+                case GUEST -> {
+                    return new GuestCustomer(id, name);
+                }
+                default -> throw new IOException("Unknown customer kind " + kind);
+            }
+        }
+    };
+
+    SnapshotCodec<Driver> DRIVER = new SnapshotCodec<>() {
+        @Override
+        public void write(SnapshotOutput out, Driver driver) {
+            out.writeString(driver.getId());
+            out.writeSharedString(driver.getName());
+            DrivingLicense license = driver.getLicense();
+            out.writeBoolean(license != null);
+            if (license != null) {
+                out.writeString(license.getLicenseNo());
+                out.writeBoolean(license.isValid());
+            }
+            out.writeBoolean(driver.isAvailable());
+        }
+
+        @Override
+        public Driver read(SnapshotInput in) throws IOException {
+            Driver driver = new Driver();
+            driver.setId(in.readString());
+            driver.setName(in.readSharedString());
+            if (in.readBoolean()) {
+                driver.setLicense(new DrivingLicense(in.readString(), in.readBoolean()));
+            }
+            driver.setAvailable(in.readBoolean());
+            return driver;
+        }
+    };
+
+    SnapshotCodec<Vehicle> VEHICLE = new SnapshotCodec<>() {
+        @Override
+        public void write(SnapshotOutput out, Vehicle vehicle) {
+            out.writeString(vehicle.getVehicleId());
+            out.writeSharedString(vehicle.getType());
+            out.writeBoolean(vehicle.isAvailable());
+        }
+
+        @Override
+        public Vehicle read(SnapshotInput in) throws IOException {
+            Vehicle vehicle = new Vehicle(in.readString(), in.readSharedString());
+            vehicle.setAvailable(in.readBoolean());
+            return vehicle;
+        }
+    };
+
+    SnapshotCodec<Chef> CHEF = new SnapshotCodec<>() {
+        @Override
+        public void write(SnapshotOutput out, Chef chef) {
+            out.writeSharedString(chef.getName());
+            out.writeBoolean(chef.isAvailable());
+        }
+
+        @Override
+        public Chef read(SnapshotInput in) throws IOException {
+            Chef chef = new Chef(in.readSharedString());
+            chef.setAvailable(in.readBoolean());
+            return chef;
+        }
+    };
+
+    SnapshotCodec<Feedback> FEEDBACK = new SnapshotCodec<>() {
+        @Override
+        public void write(SnapshotOutput out, Feedback feedback) {
+            out.writeString(feedback.getOrderNo());
+            out.writeVarInt(feedback.getRating());
+            out.writeSharedString(feedback.getComment());
+        }
+
+        @Override
+        public Feedback read(SnapshotInput in) throws IOException {
+            Feedback feedback = new Feedback();
+            feedback.setOrderNo(in.readString());
+            int rating = in.readVarInt();
+            // the XML files never validated ratings, so an unset one (0) may come through
+            if (rating != 0) {
+                feedback.setRating(rating);
+            }
+            feedback.setComment(in.readSharedString());
+            return feedback;
+        }
+    };
+}
@@ -0,0 +1,42 @@
+package com.tastebuds.persistence;
+
+/**
+ * Copies the snapshot in the data directory from one format to the other:
+ * {@code to-binary} reads the XML files and writes the .bin files, {@code to-xml}
+ * the reverse. The source files are left in place; point the system at the new
+ * format with {@code -Dtastebuds.store=binary} (or drop the property for XML).
+ * Run with the system stopped, after a save, so the journal is empty.
+ */
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {}
+
+    /**
+     * Loads every data file from one store and saves it to the other.
+     * Returns false if any file could not be written.
+     */
+    public static boolean convert(DataStore from, DataStore to) {
+        boolean ok = to.saveCustomers(from.loadCustomers());
+        ok &= to.saveOrders(from.loadOrders());
+        ok &= to.saveDrivers(from.loadDrivers());
+        ok &= to.saveChefs(from.loadChefs());
+        ok &= to.saveVehicles(from.loadVehicles());
+        ok &= to.saveFeedbacks(from.loadFeedbacks());
+        return ok;
+    }
+
+    public static void main(String[] args) {
+        String direction = args.length == 1 ? args[0] : "";
+        boolean ok;
+        switch (direction) {
+            case "to-binary" -> ok = convert(new JAXBHandler(), new BinaryStore());
+            case "to-xml" -> ok = convert(new BinaryStore(), new JAXBHandler());
+            default -> {
+                System.err.println("Usage: SnapshotConverter to-binary|to-xml");
+                System.exit(2);
+                return;
+            }
+        }
+        System.exit(ok ? 0 : 1);
+    }
+}
@@ -0,0 +1,261 @@
+package com.tastebuds.persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a snapshot written by {@link SnapshotOutput}. Decodes straight out of its own
+ * buffer rather than through a DataInputStream, since that is where load time goes.
+ * A bad header, a missing trailer, a checksum mismatch or a length that cannot be right is
+ * an IOException.
+ */
+final class SnapshotInput implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int TRAILER_SIZE = 4 + 8 + 4;
+
+    private final InputStream in;
+    private final CRC32 crc = new CRC32();
+    private final List<String> shared = new ArrayList<>();
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int recordEnd;
+    private int count;
+    private boolean finished;
+    private final int version;
+
+    SnapshotInput(InputStream in, DataFile file) throws IOException {
+        this.in = in;
+        require(6);
+        if (readRawInt() != SnapshotOutput.MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        version = buffer[position++];
+        // version 1 lacks fields added since; the codecs check version() before reading them
+        if (version < 1 || version > SnapshotOutput.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int kind = buffer[position++];
+        if (kind != file.ordinal()) {
+            DataFile[] kinds = DataFile.values();
+            throw new IOException("Snapshot holds " + (kind >= 0 && kind < kinds.length ? kinds[kind] : "kind " + kind)
+                    + ", expected " + file);
+        }
+    }
+
+    /**
+     * Format version the file was written with.
+     */
+    int version() {
+        return version;
+    }
+
+    /**
+     * True if the file ends with the snapshot end marker, i.e. it was written to the end.
+     */
+    static boolean isComplete(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 6 + 1 + TRAILER_SIZE) {
+                return false;
+            }
+            ByteBuffer tail = ByteBuffer.allocate(4);
+            channel.read(tail, size - 4);
+            tail.flip();
+            return tail.remaining() == 4 && tail.getInt() == SnapshotOutput.END_MAGIC;
+        }
+    }
+
+    /**
+     * The next record, or null once the trailer has been read and checked.
+     */
+    <T> T read(SnapshotCodec<T> codec) throws IOException {
+        if (finished) {
+            return null;
+        }
+        require(1);
+        int length = readVarIntUnchecked();
+        if (length == 0) {
+            readTrailer();
+            return null;
+        }
+        if (length < 0 || length > SnapshotOutput.MAX_RECORD_SIZE) {
+            throw new IOException("Corrupt snapshot record length " + length);
+        }
+        require(length);
+        crc.update(buffer, position, length);
+        recordEnd = position + length;
+        T value = codec.read(this);
+        if (position != recordEnd) {
+            throw new IOException("Corrupt snapshot record " + count);
+        }
+        count++;
+        return value;
+    }
+
+    int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = next();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    long readVarLong() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = next();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+
+    boolean readBoolean() throws IOException {
+        return next() != 0;
+    }
+
+    double readDouble() throws IOException {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (next() & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+        int code = readVarInt();
+        if (code < 0 || code > values.length) {
+            throw new IOException("Unknown constant " + (code - 1));
+        }
+        return code == 0 ? null : values[code - 1];
+    }
+
+    String readString() throws IOException {
+        int code = readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        int length = code - 1;
+        if (length < 0 || length > recordEnd - position) {
+            throw new IOException("String runs past the end of its record");
+        }
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    String readSharedString() throws IOException {
+        int code = readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        if (code == 1) {
+            String value = readString();
+            shared.add(value);
+            return value;
+        }
+        if (code < 0 || code - 2 >= shared.size()) {
+            throw new IOException("Unknown shared string " + (code - 2));
+        }
+        return shared.get(code - 2);
+    }
+
+    int[] readInts() throws IOException {
+        int code = readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        // every element takes at least one byte
+        if (code < 0 || code - 1 > recordEnd - position) {
+            throw new IOException("Array runs past the end of its record");
+        }
+        int[] values = new int[code - 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readVarInt();
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private byte next() throws IOException {
+        if (position >= recordEnd) {
+            throw new IOException("Read past the end of snapshot record " + count);
+        }
+        return buffer[position++];
+    }
+
+    private void readTrailer() throws IOException {
+        require(TRAILER_SIZE);
+        int expectedCount = readRawInt();
+        long checksum = ((long) readRawInt() << 32) | (readRawInt() & 0xFFFFFFFFL);
+        if (readRawInt() != SnapshotOutput.END_MAGIC) {
+            throw new IOException("Snapshot trailer missing");
+        }
+        if (expectedCount != count || checksum != crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        finished = true;
+    }
+
+    // record lengths are read before the record bounds are known
+    private int readVarIntUnchecked() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            byte b = buffer[position++];
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed record length");
+    }
+
+    private int readRawInt() {
+        int value = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    // makes at least n unread bytes available in the buffer
+    private void require(int n) throws IOException {
+        if (limit - position >= n) {
+            return;
+        }
+        if (n > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(n, buffer.length * 2));
+        }
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < n) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                throw new EOFException("Snapshot ends early");
+            }
+            limit += read;
+        }
+    }
+}
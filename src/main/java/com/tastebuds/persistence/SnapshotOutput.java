@@ -0,0 +1,175 @@
+package com.tastebuds.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a binary snapshot: a header, then one length-prefixed record per entity, then a
+ * trailer with the record count, a CRC32 of the record bytes and an end marker.
+ *
+ * Numbers are varints. Strings come in two kinds: plain ones (order numbers, mostly
+ * unique) are written in full; shared ones (customer ids, item texts, driver ids, ...)
+ * are written in full the first time and as a table index after that, so the reader
+ * decodes each distinct value once and every record using it gets the same instance.
+ */
+final class SnapshotOutput {
+    static final int MAGIC = 0x5442534E;      // "TBSN"
+    static final int END_MAGIC = 0x54425345;  // "TBSE"
+    static final int VERSION = 2;
+    // a record length above this is taken as corruption by the reader
+    static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private final OutputStream out;
+    private final CRC32 crc = new CRC32();
+    private final Map<String, Integer> shared = new HashMap<>();
+    private byte[] record = new byte[256];
+    private int length;
+    private int count;
+
+    SnapshotOutput(OutputStream out, DataFile file) throws IOException {
+        this.out = out;
+        writeRawInt(MAGIC);
+        out.write(VERSION);
+        out.write(file.ordinal());
+    }
+
+    <T> void write(SnapshotCodec<T> codec, T value) throws IOException {
+        length = 0;
+        codec.write(this, value);
+        if (length > MAX_RECORD_SIZE) {
+            throw new IOException("Snapshot record " + count + " is " + length + " bytes");
+        }
+        crc.update(record, 0, length);
+
+        byte[] prefix = new byte[5];
+        int n = 0;
+        int v = length;
+        while ((v & ~0x7F) != 0) {
+            prefix[n++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        prefix[n++] = (byte) v;
+        out.write(prefix, 0, n);
+        out.write(record, 0, length);
+        count++;
+    }
+
+    /**
+     * Ends the snapshot; without this the reader treats the file as truncated.
+     */
+    void finish() throws IOException {
+        out.write(0);
+        writeRawInt(count);
+        long checksum = crc.getValue();
+        writeRawInt((int) (checksum >>> 32));
+        writeRawInt((int) checksum);
+        writeRawInt(END_MAGIC);
+        out.flush();
+    }
+
+    void writeVarInt(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            record[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record[length++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        ensure(10);
+        // zigzag, so small negative amounts stay short
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            record[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        record[length++] = (byte) v;
+    }
+
+    void writeBoolean(boolean value) {
+        ensure(1);
+        record[length++] = (byte) (value ? 1 : 0);
+    }
+
+    void writeDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            record[length++] = (byte) (bits >>> shift);
+        }
+    }
+
+    /**
+     * Enum constant as ordinal + 1, 0 for null.
+     */
+    void writeEnum(Enum<?> value) {
+        writeVarInt(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * A value that is mostly unique; written in full every time (length + 1, 0 for null).
+     */
+    void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, record, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * A value that repeats across records: 0 for null, 1 followed by the string the first
+     * time, table index + 2 after that.
+     */
+    void writeSharedString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = shared.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return;
+        }
+        shared.put(value, shared.size());
+        writeVarInt(1);
+        writeString(value);
+    }
+
+    /**
+     * Array as length + 1 (0 for null) followed by the values.
+     */
+    void writeInts(int[] values) {
+        if (values == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(values.length + 1);
+        for (int value : values) {
+            writeVarInt(value);
+        }
+    }
+
+    private void writeRawInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tastebuds.service;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Free list of drivers or vehicles that can take a delivery right now.
+ * Claiming removes the item from a concurrent deque, so exactly one caller gets it
+ * and nobody has to scan the whole fleet. The item's own available flag is kept in step.
+ */
+final class AvailabilityPool<T> {
+    private final Deque<T> free = new ConcurrentLinkedDeque<>();
+    private final Predicate<T> isAvailable;
+    private final BiConsumer<T, Boolean> setAvailable;
+
+    AvailabilityPool(Predicate<T> isAvailable, BiConsumer<T, Boolean> setAvailable) {
+        this.isAvailable = isAvailable;
+        this.setAvailable = setAvailable;
+    }
+
+    void reset(Collection<T> all) {
+        free.clear();
+        for (T item : all) {
+            add(item);
+        }
+    }
+
+    void add(T item) {
+        if (isAvailable.test(item)) {
+            free.offerLast(item);
+        }
+    }
+
+    /**
+     * Claims the longest-free item, or returns null if none is free.
+     */
+    T claimNext() {
+        T item;
+        while ((item = free.pollFirst()) != null) {
+            // skip anything flagged busy outside the system since it was pooled
+            if (isAvailable.test(item)) {
+                setAvailable.accept(item, false);
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claims a specific item; false if it is not free. O(pool size), for manual assignment.
+     */
+    boolean claim(T item) {
+        if (free.remove(item)) {
+            setAvailable.accept(item, false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Puts back an item that was claimed but not used, at the front so it keeps its turn.
+     */
+    void unclaim(T item) {
+        setAvailable.accept(item, true);
+        free.offerFirst(item);
+    }
+
+    void release(T item) {
+        if (isAvailable.test(item)) {
+            return;
+        }
+        setAvailable.accept(item, true);
+        free.offerLast(item);
+    }
+
+    int size() {
+        return free.size();
+    }
+}
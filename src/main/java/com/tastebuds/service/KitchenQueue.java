@@ -0,0 +1,225 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.Order;
+import com.tastebuds.model.OrderCategory;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Orders waiting for the kitchen, one FIFO lane per category. PRIORITY orders go first,
+ * but after {@code priorityBurst} PRIORITY orders in a row a waiting NORMAL order is let
+ * through, so NORMAL orders are never starved.
+ *
+ * An order counts as PRIORITY if the head chef already marked it so or its bill is above
+ * {@link OrderCategory#PRIORITY_THRESHOLD}. The wait from enqueue until the kitchen takes
+ * the order is recorded per category. All operations are synchronized on the queue.
+ */
+public class KitchenQueue {
+    public static final int DEFAULT_PRIORITY_BURST = 3;
+
+    private final int priorityBurst;
+    private final Map<OrderCategory, ArrayDeque<Entry>> lanes = new EnumMap<>(OrderCategory.class);
+    // orderNo -> live entry; lane entries not found here were removed and are skipped lazily
+    private final Map<String, Entry> waiting = new HashMap<>();
+    private int stale;
+    private int priorityStreak;
+
+    private final long[] served = new long[OrderCategory.values().length];
+    private final long[] totalWaitNanos = new long[OrderCategory.values().length];
+    private final long[] maxWaitNanos = new long[OrderCategory.values().length];
+
+    public KitchenQueue() {
+        this(DEFAULT_PRIORITY_BURST);
+    }
+
+    public KitchenQueue(int priorityBurst) {
+        if (priorityBurst < 1) {
+            throw new IllegalArgumentException("priorityBurst must be at least 1");
+        }
+        this.priorityBurst = priorityBurst;
+        for (OrderCategory category : OrderCategory.values()) {
+            lanes.put(category, new ArrayDeque<>());
+        }
+    }
+
+    public static OrderCategory categoryOf(Order order) {
+        return order.getCategory() == OrderCategory.PRIORITY
+                ? OrderCategory.PRIORITY
+                : OrderCategory.suggestFor(order.getFinalBillMinor());
+    }
+
+    /**
+     * Adds the order to the back of its lane; false if it is already waiting.
+     */
+    public synchronized boolean add(Order order) {
+        if (waiting.containsKey(order.getOrderNo())) {
+            return false;
+        }
+        Entry entry = new Entry(order, categoryOf(order), System.nanoTime());
+        waiting.put(order.getOrderNo(), entry);
+        lanes.get(entry.category).addLast(entry);
+        return true;
+    }
+
+    /**
+     * The order the kitchen should take next, left in the queue; null if none is waiting.
+     */
+    public synchronized Order peek() {
+        Entry next = next();
+        return next == null ? null : next.order;
+    }
+
+    /**
+     * Takes the next order for the kitchen, or returns null if none is waiting.
+     */
+    public synchronized Order poll() {
+        Entry next = next();
+        if (next == null) {
+            return null;
+        }
+        lanes.get(next.category).pollFirst();
+        waiting.remove(next.order.getOrderNo());
+        taken(next);
+        return next.order;
+    }
+
+    /**
+     * Takes a specific order out of the queue (the kitchen picked it by number, or prepared the
+     * one {@link #peek()} offered); false if it was not waiting.
+     */
+    public synchronized boolean remove(Order order) {
+        Entry entry = waiting.remove(order.getOrderNo());
+        if (entry == null) {
+            return false;
+        }
+        taken(entry);
+        if (++stale > waiting.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return waiting.size();
+    }
+
+    public synchronized int size(OrderCategory category) {
+        int n = 0;
+        for (Entry entry : waiting.values()) {
+            if (entry.category == category) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public synchronized void clear() {
+        lanes.values().forEach(ArrayDeque::clear);
+        waiting.clear();
+        stale = 0;
+        priorityStreak = 0;
+    }
+
+    /**
+     * Wait times of the orders the kitchen has taken so far, per category.
+     */
+    public synchronized Map<OrderCategory, WaitStats> waitStats() {
+        Map<OrderCategory, WaitStats> stats = new EnumMap<>(OrderCategory.class);
+        for (OrderCategory category : OrderCategory.values()) {
+            int i = category.ordinal();
+            stats.put(category, new WaitStats(served[i], totalWaitNanos[i], maxWaitNanos[i]));
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    // head of the lane whose turn it is
+    private Entry next() {
+        Entry priority = head(OrderCategory.PRIORITY);
+        Entry normal = head(OrderCategory.NORMAL);
+        if (priority != null && (normal == null || priorityStreak < priorityBurst)) {
+            return priority;
+        }
+        return normal;
+    }
+
+    // a PRIORITY order taken while a NORMAL one waits counts toward the burst
+    private void taken(Entry entry) {
+        if (entry.category == OrderCategory.PRIORITY) {
+            priorityStreak = head(OrderCategory.NORMAL) == null ? 0 : priorityStreak + 1;
+        } else {
+            priorityStreak = 0;
+        }
+        recordWait(entry);
+    }
+
+    private Entry head(OrderCategory category) {
+        ArrayDeque<Entry> lane = lanes.get(category);
+        Entry entry;
+        while ((entry = lane.peekFirst()) != null && waiting.get(entry.order.getOrderNo()) != entry) {
+            lane.pollFirst();
+            stale--;
+        }
+        return entry;
+    }
+
+    // drop removed entries once they outnumber the live ones
+    private void compact() {
+        for (ArrayDeque<Entry> lane : lanes.values()) {
+            lane.removeIf(entry -> waiting.get(entry.order.getOrderNo()) != entry);
+        }
+        stale = 0;
+    }
+
+    private void recordWait(Entry entry) {
+        long wait = System.nanoTime() - entry.enqueuedAt;
+        int i = entry.category.ordinal();
+        served[i]++;
+        totalWaitNanos[i] += wait;
+        maxWaitNanos[i] = Math.max(maxWaitNanos[i], wait);
+    }
+
+    private static final class Entry {
+        final Order order;
+        final OrderCategory category;
+        final long enqueuedAt;
+
+        Entry(Order order, OrderCategory category, long enqueuedAt) {
+            this.order = order;
+            this.category = category;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    public static final class WaitStats {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        WaitStats(long count, long totalNanos, long maxNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : totalNanos / (double) count / 1_000_000;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1fms max=%.1fms", count, getMeanMillis(), getMaxMillis());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.Order;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules "order is ready" transitions for orders in the kitchen.
+ * One small timer pool serves every order instead of a sleeping thread per order.
+ * The delay is the order's estimated time; {@code millisPerMinute} sets how long
+ * one estimated minute lasts (shortened in tests and demos).
+ */
+public class KitchenScheduler {
+    public static final long REAL_MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final long millisPerMinute;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    public KitchenScheduler() {
+        this(REAL_MINUTE_MILLIS);
+    }
+
+    public KitchenScheduler(long millisPerMinute) {
+        this.millisPerMinute = millisPerMinute;
+        this.executor = new ScheduledThreadPoolExecutor(1, new KitchenThreadFactory());
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Runs {@code onReady} once the order's estimated time has passed.
+     * Re-scheduling an order replaces its previous timer.
+     */
+    public void schedule(Order order, Runnable onReady) {
+        String orderNo = order.getOrderNo();
+        long delay = Math.max(0, order.getEstimatedTime()) * millisPerMinute;
+
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        synchronized (self) {
+            self[0] = executor.schedule(() -> {
+                synchronized (self) {
+                    pending.remove(orderNo, self[0]);
+                }
+                onReady.run();
+            }, delay, TimeUnit.MILLISECONDS);
+
+            ScheduledFuture<?> previous = pending.put(orderNo, self[0]);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Cancels the ready timer of an order; returns false if none was pending.
+     */
+    public boolean cancel(String orderNo) {
+        ScheduledFuture<?> future = pending.remove(orderNo);
+        return future != null && future.cancel(false);
+    }
+
+    public boolean isPending(String orderNo) {
+        return pending.containsKey(orderNo);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops accepting work, drops timers that have not fired yet and waits for a
+     * transition that is already running. Returns the orders whose timers were dropped.
+     */
+    public List<String> shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        List<String> dropped = List.copyOf(pending.keySet());
+        pending.clear();
+        executor.shutdown();
+        executor.awaitTermination(timeout, unit);
+        return dropped;
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    private static class KitchenThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "kitchen-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.MenuItem;
+import com.tastebuds.model.MenuItemList;
+import com.tastebuds.model.Money;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The menu as flat arrays indexed by stable item id, so pricing a line item is an
+ * array read rather than a String hash. Prices are held in minor units (see {@link Money}).
+ * Each version is an immutable {@link Menu}; {@link #update} swaps in a newer one, and
+ * readers keep whichever version they took.
+ *
+ * Ids are never dropped: an id missing from a newer menu file is kept as retired,
+ * so old orders can still be named and priced.
+ */
+public class MenuCatalog {
+
+    private static final List<MenuItem> DEFAULT_ITEMS = List.of(
+            new MenuItem(0, "Chicken Biryani", 250.0),
+            new MenuItem(1, "Beef Steak", 650.0),
+            new MenuItem(2, "Mixed Grill Platter", 1200.0),
+            new MenuItem(3, "Veg Burger", 180.0),
+            new MenuItem(4, "Chicken Burger", 220.0),
+            new MenuItem(5, "Fried Rice", 200.0),
+            new MenuItem(6, "Mutton Korma", 900.0),
+            new MenuItem(7, "Green Salad", 80.0),
+            new MenuItem(8, "Soft Drink (500ml)", 50.0),
+            new MenuItem(9, "Chocolate Cake (slice)", 150.0)
+    );
+
+    private volatile Menu current;
+
+    /**
+     * Catalog holding the built-in menu as version 0, so any menu file replaces it.
+     */
+    public MenuCatalog() {
+        this.current = build(0, DEFAULT_ITEMS, null);
+    }
+
+    public Menu current() {
+        return current;
+    }
+
+    public int version() {
+        return current.version;
+    }
+
+    /**
+     * Installs the given menu if its version is newer than the current one.
+     * Returns false (and changes nothing) for an older or equal version.
+     */
+    public synchronized boolean update(MenuItemList list) {
+        if (list.getVersion() <= current.version) {
+            return false;
+        }
+        current = build(list.getVersion(), list.getItems(), current);
+        return true;
+    }
+
+    private static Menu build(int version, List<MenuItem> items, Menu previous) {
+        int size = previous == null ? 0 : previous.names.length;
+        for (MenuItem item : items) {
+            if (item.getId() < 0) {
+                throw new IllegalArgumentException("Negative menu item id " + item.getId());
+            }
+            size = Math.max(size, item.getId() + 1);
+        }
+
+        String[] names = new String[size];
+        long[] prices = new long[size];
+        boolean[] active = new boolean[size];
+        if (previous != null) {
+            // carry every known id over as retired; the new list re-activates what it still offers
+            System.arraycopy(previous.names, 0, names, 0, previous.names.length);
+            System.arraycopy(previous.prices, 0, prices, 0, previous.prices.length);
+        }
+
+        boolean[] seen = new boolean[size];
+        for (MenuItem item : items) {
+            int id = item.getId();
+            if (seen[id]) {
+                throw new IllegalArgumentException("Duplicate menu item id " + id);
+            }
+            seen[id] = true;
+            names[id] = item.getName();
+            prices[id] = item.getPriceMinor();
+            active[id] = item.isActive();
+        }
+        return new Menu(version, names, prices, active);
+    }
+
+    /**
+     * One immutable version of the menu.
+     */
+    public static final class Menu {
+        private final int version;
+        private final String[] names;
+        private final long[] prices;
+        private final boolean[] active;
+        private final int[] activeIds;
+        private final Map<String, Integer> idsByName;
+        private final Map<String, Double> offered;
+
+        private Menu(int version, String[] names, long[] prices, boolean[] active) {
+            this.version = version;
+            this.names = names;
+            this.prices = prices;
+            this.active = active;
+
+            Map<String, Integer> byName = new HashMap<>();
+            Map<String, Double> offered = new LinkedHashMap<>();
+            int[] ids = new int[names.length];
+            int n = 0;
+            for (int id = 0; id < names.length; id++) {
+                if (names[id] == null) continue;
+                // a retired id never hides a live dish of the same name
+                if (active[id] || !byName.containsKey(names[id])) {
+                    byName.put(names[id], id);
+                }
+                if (active[id]) {
+                    ids[n++] = id;
+                    offered.put(names[id], Money.toMajor(prices[id]));
+                }
+            }
+            this.activeIds = Arrays.copyOf(ids, n);
+            this.idsByName = Map.copyOf(byName);
+            this.offered = Collections.unmodifiableMap(offered);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * One more than the highest id ever used; arrays indexed by item id need this length.
+         */
+        public int size() {
+            return names.length;
+        }
+
+        public boolean isActive(int id) {
+            return id >= 0 && id < active.length && active[id];
+        }
+
+        public boolean exists(int id) {
+            return id >= 0 && id < names.length && names[id] != null;
+        }
+
+        public String name(int id) {
+            return names[id];
+        }
+
+        public long priceMinor(int id) {
+            return prices[id];
+        }
+
+        /**
+         * Price in BDT, for display.
+         */
+        public double price(int id) {
+            return Money.toMajor(prices[id]);
+        }
+
+        /**
+         * Ids currently offered, in id order.
+         */
+        public int[] activeIds() {
+            return activeIds.clone();
+        }
+
+        public int activeCount() {
+            return activeIds.length;
+        }
+
+        public int activeId(int index) {
+            return activeIds[index];
+        }
+
+        /**
+         * Id of the item with this name (retired items included), or -1.
+         */
+        public int idOf(String name) {
+            Integer id = name == null ? null : idsByName.get(name);
+            return id == null ? -1 : id;
+        }
+
+        /**
+         * Items currently offered and their prices, in id order.
+         */
+        public Map<String, Double> asMap() {
+            return offered;
+        }
+    }
+}
@@ -1,166 +1,935 @@
 package com.tastebuds.service;
 
+import com.tastebuds.metrics.Counter;
+import com.tastebuds.metrics.MetricsRegistry;
 import com.tastebuds.model.*;
-import com.tastebuds.persistence.JAXBHandler;
-
+import com.tastebuds.persistence.DataFile;
+import com.tastebuds.persistence.DataStore;
+import com.tastebuds.persistence.JournalEvent;
+import com.tastebuds.persistence.LoadReport;
+import com.tastebuds.persistence.MappedOrderStore;
+import com.tastebuds.persistence.OrderArchive;
+import com.tastebuds.persistence.OrderJournal;
+import com.tastebuds.persistence.OrderView;
+import com.tastebuds.persistence.SaveReport;
+
+import java.io.IOException;
+import java.time.YearMonth;
 import java.util.*;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared by several terminals at once. Locking, outermost first:
+ * <ul>
+ *   <li>checkpointLock - every mutation holds the read side; saveData/loadData hold the
+ *       write side so a snapshot never interleaves with a transition</li>
+ *   <li>order stripe lock - serialises transitions (and their journal records) per order number</li>
+ *   <li>stateLock - the order and feedback lists and queue numbering</li>
+ * </ul>
+ * Drivers and vehicles are handed out from lock-free free lists. A release is journaled
+ * before the item goes back on its free list, so the journal always records it ahead of
+ * the next claim. Lookups go straight to the concurrent indexes and take no lock, and so
+ * does {@link #stats()}: the status index keeps its counts (and with them the serving
+ * counter) as it goes, in a snapshot swapped in on every transition.
+ *
+ * Each data file has a {@link ChangeTracker} that its entities bump on every change;
+ * saveData only rewrites the files whose tracker moved since they were last written.
+ *
+ * Settled orders leave the heap at each save: a delivered order is settled once it has
+ * feedback or {@link #FEEDBACK_WINDOW_MILLIS} has passed since delivery. They are written to
+ * the month partitions of the {@link OrderArchive}, indexed in a memory-mapped
+ * {@link MappedOrderStore}, and dropped from the order list, so the list (and orders.xml)
+ * only holds active orders plus delivered ones still waiting for feedback.
+ */
 public class TasteBudsSystem {
+    private static final int ORDER_LOCK_STRIPES = 64;
+    private static final int LOADER_THREADS =
+            Math.min(DataFile.values().length, Runtime.getRuntime().availableProcessors());
+    // how long a delivered order without feedback stays on the heap before it is archived
+    public static final long FEEDBACK_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(24);
+
     private List<Customer> customers;
-    private List<Order> orders;
+    private List<Order> orders;          // guarded by stateLock
     private List<Driver> drivers;
     private List<Chef> chefs;
     private List<Vehicle> vehicles;
-    private List<Feedback> feedbacks;
-    private int orderCounter;
-    private int currentServingOrder;
-    private JAXBHandler jaxbHandler;
+    private List<Feedback> feedbacks;    // guarded by stateLock
+
+    // id-keyed indexes kept in step with the lists above (first entry wins, like the old scans)
+    private final Map<String, Customer> customerIndex = new ConcurrentHashMap<>();
+    private final Map<String, Order> orderIndex = new ConcurrentHashMap<>();
+    private final Map<String, Driver> driverIndex = new ConcurrentHashMap<>();
+    private final Map<String, Chef> chefIndex = new ConcurrentHashMap<>();
+    private final Map<String, Vehicle> vehicleIndex = new ConcurrentHashMap<>();
+
+    // every order that is not delivered yet, in arrival order
+    private final OrderQueue liveQueue = new OrderQueue();
+    // every order, bucketed by status
+    private final OrderStatusIndex statusIndex = new OrderStatusIndex();
+    // PLACED orders waiting for the kitchen, PRIORITY first
+    private final KitchenQueue kitchenQueue = new KitchenQueue();
+    // time spent per status, for orders placed since start-up
+    private final StageLatencies stageLatencies = new StageLatencies();
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    // per customer type, resolved once so placing an order is a plain LongAdder increment
+    private final Map<String, Counter> ordersPlaced = new ConcurrentHashMap<>();
+    private final Counter discountsGranted = metrics.counter("tastebuds_discounts_granted_total",
+            "Orders placed with a loyalty discount.");
+    private final Counter discountPoisha = metrics.counter("tastebuds_discount_poisha_total",
+            "Loyalty discount given, in poisha (1/100 BDT).");
+
+    private final AvailabilityPool<Driver> freeDrivers =
+            new AvailabilityPool<>(Driver::isAvailable, Driver::setAvailable);
+    private final AvailabilityPool<Vehicle> freeVehicles =
+            new AvailabilityPool<>(Vehicle::isAvailable, Vehicle::setAvailable);
+
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] orderLocks = new ReentrantLock[ORDER_LOCK_STRIPES];
+    private final Object stateLock = new Object();
+
+    private final Map<DataFile, ChangeTracker> changes = new EnumMap<>(DataFile.class);
+
+    private final AtomicInteger orderCounter = new AtomicInteger();
+    private final DataStore store;
+    private final KitchenScheduler kitchen;
+    // only attached by loadData(), so systems that never loaded from disk do not write to it
+    private volatile OrderJournal journal;
+    // index over the archived orders; attached by loadData() like the journal
+    private volatile MappedOrderStore history;
+    private final OrderArchive archive;
 
     public TasteBudsSystem() {
-        this.customers = new ArrayList<>();
+        this(new KitchenScheduler());
+    }
+
+    public TasteBudsSystem(KitchenScheduler kitchen) {
+        this(kitchen, DataStore.configured());
+    }
+
+    public TasteBudsSystem(KitchenScheduler kitchen, DataStore store) {
+        this.kitchen = kitchen;
+        this.customers = new CopyOnWriteArrayList<>();
         this.orders = new ArrayList<>();
-        this.drivers = new ArrayList<>();
-        this.chefs = new ArrayList<>();
-        this.vehicles = new ArrayList<>();
+        this.drivers = new CopyOnWriteArrayList<>();
+        this.chefs = new CopyOnWriteArrayList<>();
+        this.vehicles = new CopyOnWriteArrayList<>();
         this.feedbacks = new ArrayList<>();
-        this.orderCounter = 0;
-        this.currentServingOrder = 1;
-        this.jaxbHandler = new JAXBHandler();
-    }
-
-    private final Map<String, Double> menu = Map.ofEntries(
-            Map.entry("Chicken Biryani", 250.0),
-            Map.entry("Beef Steak", 650.0),
-            Map.entry("Mixed Grill Platter", 1200.0),
-            Map.entry("Veg Burger", 180.0),
-            Map.entry("Chicken Burger", 220.0),
-            Map.entry("Fried Rice", 200.0),
-            Map.entry("Mutton Korma", 900.0),
-            Map.entry("Green Salad", 80.0),
-            Map.entry("Soft Drink (500ml)", 50.0),
-            Map.entry("Chocolate Cake (slice)", 150.0)
-    );
+        this.store = store;
+        this.archive = store.orderArchive();
+        for (int i = 0; i < ORDER_LOCK_STRIPES; i++) {
+            orderLocks[i] = new ReentrantLock();
+        }
+        for (DataFile file : DataFile.values()) {
+            changes.put(file, new ChangeTracker());
+        }
+        registerMetrics();
+        store.bindMetrics(metrics);
+    }
+
+    // gauges and summaries are read at scrape time, so they add nothing to the order path
+    private void registerMetrics() {
+        metrics.gauge("tastebuds_drivers", "Registered drivers.", () -> drivers.size());
+        metrics.gauge("tastebuds_drivers_busy", "Drivers out on a delivery.", () -> busy(drivers, Driver::isAvailable));
+        metrics.gauge("tastebuds_driver_utilization", "Share of drivers out on a delivery, 0 to 1.",
+                () -> utilization(busy(drivers, Driver::isAvailable), drivers.size()));
+        metrics.gauge("tastebuds_vehicles", "Registered vehicles.", () -> vehicles.size());
+        metrics.gauge("tastebuds_vehicles_busy", "Vehicles out on a delivery.", () -> busy(vehicles, Vehicle::isAvailable));
+        metrics.gauge("tastebuds_vehicle_utilization", "Share of vehicles out on a delivery, 0 to 1.",
+                () -> utilization(busy(vehicles, Vehicle::isAvailable), vehicles.size()));
+
+        for (OrderStatus status : OrderStatus.values()) {
+            metrics.gauge("tastebuds_orders", "Orders per status; DELIVERED includes archived orders.",
+                    () -> statusIndex.stats().count(status), "status", status.name());
+        }
+        metrics.gauge("tastebuds_serving_order", "Number of the order being served.",
+                () -> statusIndex.stats().getServingOrder());
+        metrics.gauge("tastebuds_serving_order_lag", "Orders placed after the one being served, inclusive.",
+                () -> Math.max(0, orderCounter.get() - statusIndex.stats().getServingOrder() + 1));
+
+        for (OrderStatus stage : OrderStatus.values()) {
+            if (!stage.isLive()) continue;
+            for (OrderCategory category : OrderCategory.values()) {
+                metrics.summary("tastebuds_order_stage_seconds", "Time orders spent in a status before leaving it.",
+                        () -> stageLatencies.snapshot(stage, category), "stage", stage.name(), "category", category.name());
+            }
+        }
+        for (OrderCategory category : OrderCategory.values()) {
+            metrics.summary("tastebuds_order_end_to_end_seconds", "Time from placing an order to its delivery.",
+                    () -> stageLatencies.endToEnd(category), "category", category.name());
+        }
+    }
+
+    private static <T> long busy(List<T> fleet, Predicate<T> isAvailable) {
+        long n = 0;
+        for (T item : fleet) {
+            if (!isAvailable.test(item)) n++;
+        }
+        return n;
+    }
 
+    private static double utilization(long busy, int total) {
+        return total == 0 ? 0 : (double) busy / total;
+    }
+
+    private static final Pattern LEGACY_ITEM = Pattern.compile("(\\d+)x (.+)");
+
+    private final MenuCatalog menu = new MenuCatalog();
+
+    /**
+     * Items currently offered and their prices, in menu id order.
+     */
     public Map<String, Double> getMenu() {
+        return menu.current().asMap();
+    }
+
+    public MenuCatalog getMenuCatalog() {
         return menu;
     }
 
+    /**
+     * Re-reads data/menu.xml and switches to it if its version is newer than the menu
+     * in use. Orders already placed keep the prices they were billed at.
+     */
+    public boolean reloadMenu() {
+        MenuItemList list = store.loadMenu();
+        if (list == null) return false;
+        try {
+            return menu.update(list);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error loading menu: " + e.getMessage());
+            return false;
+        }
+    }
+
     public void addVehicle(Vehicle v) {
-        this.vehicles.add(v);
+        mutation(() -> {
+            v.trackChanges(changes.get(DataFile.VEHICLES));
+            changes.get(DataFile.VEHICLES).changed();
+            this.vehicles.add(v);
+            index(vehicleIndex, v.getVehicleId(), v);
+            freeVehicles.add(v);
+        });
     }
 
     public List<Vehicle> getVehicles() {
-        return vehicles;
+        return Collections.unmodifiableList(vehicles);
     }
 
     public Vehicle findVehicle(String id) {
-        return vehicles.stream().filter(v -> v.getVehicleId().equals(id)).findFirst().orElse(null);
+        return lookup(vehicleIndex, id);
     }
 
     public boolean autoAssignDelivery(String orderNo) {
-        Order order = findOrder(orderNo);
-        if (order == null || !order.getStatus().equals("READY")) return false;
-
-        // Find first available driver
-        Driver d = drivers.stream().filter(Driver::isAvailable).findFirst().orElse(null);
-        Vehicle v = vehicles.stream().filter(Vehicle::isAvailable).findFirst().orElse(null);
-
-        if (d == null || v == null) return false;
+        Boolean assigned = onOrder(orderNo, order -> {
+            if (order.getStatus() != OrderStatus.READY) return false;
+
+            // Take the longest-free driver and vehicle
+            Driver d = freeDrivers.claimNext();
+            if (d == null) return false;
+            Vehicle v = freeVehicles.claimNext();
+            if (v == null) {
+                freeDrivers.unclaim(d);
+                return false;
+            }
 
-        order.assignDelivery(d.getId(), v.getVehicleId());
-        d.setAvailable(false);
-        v.setAvailable(false);
-        return true;
+            order.assignDelivery(d.getId(), v.getVehicleId());
+            journalWrite(JournalEvent.outForDelivery(orderNo, d.getId(), v.getVehicleId()));
+            return true;
+        });
+        return assigned != null && assigned;
     }
 
     /**
-     * Load all data from XML files using JAXB Unmarshaller
+     * Load all data from XML files using JAXB Unmarshaller, then replay the
+     * order journal on top of that snapshot. The six files are independent, so they
+     * are read in parallel and linked up once all of them are in.
      */
-    public void loadData() {
+    public LoadReport loadData() {
         System.out.println("Loading data...");
 
-        customers = jaxbHandler.loadCustomers();
-        orders = jaxbHandler.loadOrders();
-        drivers = jaxbHandler.loadDrivers();
-    chefs = jaxbHandler.loadChefs();
-    vehicles = jaxbHandler.loadVehicles();
-        feedbacks = jaxbHandler.loadFeedbacks();
+        LoadReport report = new LoadReport();
+        long start = System.nanoTime();
+        checkpointLock.writeLock().lock();
+        try {
+            // before the orders, which are matched against the menu while they load
+            reloadMenu();
+            // before the orders, which skip anything the history already holds
+            openHistory();
+
+            ExecutorService loaders = Executors.newFixedThreadPool(LOADER_THREADS, new LoaderThreadFactory());
+            try {
+                CompletableFuture<List<Customer>> loadedCustomers =
+                        load(report, DataFile.CUSTOMERS, store::loadCustomers, loaders);
+                CompletableFuture<List<Order>> loadedOrders = load(report, DataFile.ORDERS, this::readOrders, loaders);
+                CompletableFuture<List<Driver>> loadedDrivers =
+                        load(report, DataFile.DRIVERS, store::loadDrivers, loaders);
+                CompletableFuture<List<Chef>> loadedChefs = load(report, DataFile.CHEFS, store::loadChefs, loaders);
+                CompletableFuture<List<Vehicle>> loadedVehicles =
+                        load(report, DataFile.VEHICLES, store::loadVehicles, loaders);
+                CompletableFuture<List<Feedback>> loadedFeedbacks =
+                        load(report, DataFile.FEEDBACK, store::loadFeedbacks, loaders);
+
+                customers = new CopyOnWriteArrayList<>(loadedCustomers.join());
+                installOrders(loadedOrders.join());
+                drivers = new CopyOnWriteArrayList<>(loadedDrivers.join());
+                chefs = new CopyOnWriteArrayList<>(loadedChefs.join());
+                vehicles = new CopyOnWriteArrayList<>(loadedVehicles.join());
+                synchronized (stateLock) {
+                    feedbacks = new ArrayList<>(loadedFeedbacks.join());
+                }
+            } finally {
+                loaders.shutdown();
+            }
 
-        if (!orders.isEmpty()) {
-            orderCounter = orders.stream()
-                    .mapToInt(o -> Integer.parseInt(o.getOrderNo()))
-                    .max()
-                    .orElse(0);
+            long linkStart = System.nanoTime();
+            rebuildIndexes();
+            trackLoaded();
+            freeDrivers.reset(drivers);
+            freeVehicles.reset(vehicles);
+            rebuildQueue();
+            replayJournal();
+            resumeKitchen();
+            report.setLinkNanos(System.nanoTime() - linkStart);
+        } finally {
+            checkpointLock.writeLock().unlock();
         }
+        report.setTotalNanos(System.nanoTime() - start);
 
         System.out.println("Data loaded: Customers: " + customers.size() + ", Orders: " + orders.size() + ", Drivers: " + drivers.size() + ", Chefs: " + chefs.size() + ", Vehicles: " + vehicles.size() + ", Feedbacks: " + feedbacks.size());
+        return report;
+    }
+
+    private static <T> CompletableFuture<List<T>> load(LoadReport report, DataFile file,
+                                                       Supplier<List<T>> loader, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            List<T> loaded = loader.get();
+            report.loaded(file, loaded.size(), System.nanoTime() - start);
+            return loaded;
+        }, executor);
+    }
+
+    // runs on a loader thread; only reads the menu, which is immutable per version
+    private List<Order> readOrders() {
+        MappedOrderStore h = history;
+        List<Order> loaded = new ArrayList<>();
+        boolean ok = store.forEachOrder(order -> {
+            // moved to the history by a save that stopped before rewriting the snapshot
+            if (h != null && h.contains(order.getOrderNo())) return;
+            migrateLegacyItems(order);
+            loaded.add(order);
+        }, loaded::clear);
+        if (!ok) {
+            loaded.clear();
+        }
+        return loaded;
+    }
+
+    private void installOrders(List<Order> loaded) {
+        int maxOrderNo = historyMaxOrderNo();
+        for (Order order : loaded) {
+            maxOrderNo = Math.max(maxOrderNo, Integer.parseInt(order.getOrderNo()));
+        }
+
+        synchronized (stateLock) {
+            orders = loaded;
+        }
+        if (maxOrderNo > 0) {
+            orderCounter.set(maxOrderNo);
+        }
+    }
+
+    private int historyMaxOrderNo() {
+        MappedOrderStore h = history;
+        if (h == null) return 0;
+        int[] max = {0};
+        h.forEach(view -> max[0] = Math.max(max[0], Integer.parseInt(view.getOrderNo())));
+        return max[0];
+    }
+
+    private void openHistory() {
+        closeHistory();
+        MappedOrderStore opened = store.openOrderHistory();
+        if (opened != null && opened.size() == 0) {
+            rebuildHistory(opened);
+        }
+        history = opened;
+    }
+
+    // the history is only an index over the archive; refill it if it was lost
+    private void rebuildHistory(MappedOrderStore h) {
+        for (YearMonth month : archive.partitions()) {
+            try {
+                int added = h.append(archive.load(month));
+                System.out.println("Indexed " + added + " archived orders from " + month);
+            } catch (IOException e) {
+                System.err.println("Error indexing archived orders from " + month + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeHistory() {
+        MappedOrderStore h = history;
+        history = null;
+        if (h != null) {
+            try {
+                h.close();
+            } catch (IOException e) {
+                System.err.println("Error closing order history: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Orders saved before line items existed only have the items text
+     * ("2x Chicken Biryani, 1x Green Salad, "). Parse it once on load; text that does
+     * not match the menu is left as free text.
+     */
+    private void migrateLegacyItems(Order order) {
+        String text = order.getItems();
+        if (order.hasLineItems() || text == null || text.isBlank()) return;
+
+        MenuCatalog.Menu current = menu.current();
+        String[] parts = text.split(",");
+        int[] ordinals = new int[parts.length];
+        int[] quantities = new int[parts.length];
+        int n = 0;
+        for (String part : parts) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            Matcher m = LEGACY_ITEM.matcher(part);
+            int ordinal = m.matches() ? current.idOf(m.group(2)) : -1;
+            if (ordinal < 0) return;
+            ordinals[n] = ordinal;
+            quantities[n] = Integer.parseInt(m.group(1));
+            n++;
+        }
+        if (n > 0) {
+            order.setLineItems(Arrays.copyOf(ordinals, n), Arrays.copyOf(quantities, n));
+        }
+    }
+
+    private void rebuildIndexes() {
+        customerIndex.clear();
+        customers.forEach(c -> index(customerIndex, c.getId(), c));
+        orderIndex.clear();
+        orders.forEach(o -> index(orderIndex, o.getOrderNo(), o));
+        statusIndex.clear();
+        orders.forEach(statusIndex::add);
+        MappedOrderStore h = history;
+        statusIndex.setArchived(h == null ? 0 : h.size());
+        driverIndex.clear();
+        drivers.forEach(d -> index(driverIndex, d.getId(), d));
+        chefIndex.clear();
+        chefs.forEach(c -> index(chefIndex, chefKey(c.getName()), c));
+        vehicleIndex.clear();
+        vehicles.forEach(v -> index(vehicleIndex, v.getVehicleId(), v));
+    }
+
+    // what was just read matches the files; journal replay after this marks what it changes
+    private void trackLoaded() {
+        customers.forEach(c -> c.trackChanges(changes.get(DataFile.CUSTOMERS)));
+        orders.forEach(o -> o.trackChanges(changes.get(DataFile.ORDERS)));
+        drivers.forEach(d -> d.trackChanges(changes.get(DataFile.DRIVERS)));
+        chefs.forEach(c -> c.trackChanges(changes.get(DataFile.CHEFS)));
+        vehicles.forEach(v -> v.trackChanges(changes.get(DataFile.VEHICLES)));
+        feedbacks.forEach(f -> f.trackChanges(changes.get(DataFile.FEEDBACK)));
+        changes.values().forEach(ChangeTracker::markClean);
+    }
+
+    private void rebuildQueue() {
+        synchronized (stateLock) {
+            liveQueue.clear();
+            kitchenQueue.clear();
+            orders.stream()
+                    .filter(o -> o.getStatus().isLive())
+                    .sorted(Comparator.comparingInt(Order::getQueuePosition))
+                    .forEach(o -> {
+                        liveQueue.enqueue(o);
+                        if (o.getStatus() == OrderStatus.PLACED) kitchenQueue.add(o);
+                    });
+        }
     }
 
-    public void saveData() {
+    // orders that were still cooking when the system stopped get a fresh timer
+    private void resumeKitchen() {
+        for (Order order : statusIndex.ordersIn(OrderStatus.PREPARING)) {
+            scheduleReady(order);
+        }
+    }
+
+    private void replayJournal() {
+        closeJournal();
+
+        OrderJournal opened = store.openJournal();
+        if (opened == null) {
+            return;
+        }
+
+        Set<String> feedbackOrders = new HashSet<>();
+        feedbacks.forEach(f -> feedbackOrders.add(f.getOrderNo()));
+        try {
+            int replayed = opened.replay(event -> applyJournalEvent(event, feedbackOrders));
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " journal events");
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying journal: " + e.getMessage());
+        }
+        journal = opened;
+    }
+
+    /**
+     * Re-applies one journaled event. Events already reflected in the snapshot
+     * (saveData crashed before truncating the journal) are skipped.
+     */
+    private void applyJournalEvent(JournalEvent event, Set<String> feedbackOrders) {
+        if (event.getType() == JournalEvent.Type.ORDER_PLACED) {
+            if (findOrder(event.getOrderNo()) != null) return;
+
+            Order placed = Order.placed(event.getOrderNo(), event.getCustomerId(), event.getItems(),
+                    event.getBillMinor(), event.getFinalBillMinor(), event.getQueuePosition());
+            if (event.getMenuItems() != null) {
+                placed.setLineItems(event.getMenuItems(), event.getQuantities());
+            }
+            addOrder(placed);
+            orderCounter.accumulateAndGet(Integer.parseInt(event.getOrderNo()), Math::max);
+            if (findCustomer(event.getCustomerId()) instanceof RegisteredCustomer rc) {
+                rc.incrementOrders();
+            }
+            return;
+        }
+
+        Order order = findOrder(event.getOrderNo());
+        if (order == null) return;
+
+        OrderStatus current = order.getStatus();
+        switch (event.getType()) {
+            case PREPARING -> {
+                if (current.compareTo(OrderStatus.PREPARING) < 0) {
+                    order.markAsPreparing(event.getCategory(), event.getChefs(), event.getEstimatedTime());
+                    kitchenQueue.remove(order);
+                }
+            }
+            case READY -> {
+                if (current.compareTo(OrderStatus.READY) < 0) order.markAsReady();
+            }
+            case OUT_FOR_DELIVERY -> {
+                if (current.compareTo(OrderStatus.OUT_FOR_DELIVERY) < 0) {
+                    // the hand-off happened; a READY set outside the system is not journaled, so don't re-check it
+                    order.setDriverId(event.getDriverId());
+                    order.setVehicle(event.getVehicle());
+                    order.setStatus(OrderStatus.OUT_FOR_DELIVERY);
+                    Driver driver = findDriver(event.getDriverId());
+                    if (driver != null && !freeDrivers.claim(driver)) driver.setAvailable(false);
+                    Vehicle v = findVehicle(event.getVehicle());
+                    if (v != null && !freeVehicles.claim(v)) v.setAvailable(false);
+                }
+            }
+            case DELIVERED -> {
+                if (current.isLive()) completeDelivery(order, null);
+            }
+            case FEEDBACK -> {
+                if (feedbackOrders.add(order.getOrderNo())) {
+                    applyFeedback(order, new Feedback(order.getOrderNo(), event.getRating(), event.getComment()), null);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Writes the event without waiting for fsync, so it can be done under the order's stripe
+     * lock (and before a driver or vehicle is released). The operation calls journalSync()
+     * once all its locks are released.
+     */
+    private void journalWrite(JournalEvent event) {
+        OrderJournal j = journal;
+        if (event == null || j == null) return;
+        try {
+            j.write(event);
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
+    }
+
+    // group commit: one fsync covers every record written by any thread so far
+    private void journalSync() {
+        OrderJournal j = journal;
+        if (j == null) return;
+        try {
+            j.sync();
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
+    }
+
+    private void closeJournal() {
+        OrderJournal j = journal;
+        journal = null;
+        if (j != null) {
+            try {
+                j.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private ReentrantLock orderLock(String orderNo) {
+        return orderLocks[Math.floorMod(orderNo.hashCode(), ORDER_LOCK_STRIPES)];
+    }
+
+    private interface OrderOperation<T> {
+        T apply(Order order);
+    }
+
+    /**
+     * Runs a transition on one order under the checkpoint read lock and the order's stripe lock,
+     * then waits for any journal records it wrote. Returns null when the order is not held in
+     * memory: archived orders are only readable, as detached copies, so there is nothing to change.
+     */
+    private <T> T onOrder(String orderNo, OrderOperation<T> operation) {
+        if (orderNo == null) return null;
+
+        checkpointLock.readLock().lock();
+        try {
+            ReentrantLock lock = orderLock(orderNo);
+            lock.lock();
+            try {
+                Order order = lookup(orderIndex, orderNo);
+                return order == null ? null : operation.apply(order);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+            journalSync();
+        }
+    }
+
+    private void mutation(Runnable action) {
+        checkpointLock.readLock().lock();
+        try {
+            action.run();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private static <V> V lookup(Map<String, V> index, String key) {
+        return key == null ? null : index.get(key);
+    }
+
+    private static <V> void index(Map<String, V> index, String key, V value) {
+        if (key != null) {
+            index.putIfAbsent(key, value);
+        }
+    }
+
+    private static String chefKey(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Writes every data file that changed since it was last saved or loaded, then
+     * truncates the journal. Returns what was written, with sizes and timings.
+     */
+    public SaveReport saveData() {
         System.out.println("Saving data...");
 
-        jaxbHandler.saveCustomers(customers);
-        jaxbHandler.saveOrders(orders);
-        jaxbHandler.saveDrivers(drivers);
-    jaxbHandler.saveChefs(chefs);
-    jaxbHandler.saveVehicles(vehicles);
-        jaxbHandler.saveFeedbacks(feedbacks);
+        SaveReport report = new SaveReport();
+        checkpointLock.writeLock().lock();
+        try {
+            archiveSettledOrders();
+            boolean saved = save(report, DataFile.CUSTOMERS, () -> store.saveCustomers(customers));
+            saved &= save(report, DataFile.ORDERS, () -> store.saveOrders(orders));
+            saved &= save(report, DataFile.DRIVERS, () -> store.saveDrivers(drivers));
+            saved &= save(report, DataFile.CHEFS, () -> store.saveChefs(chefs));
+            saved &= save(report, DataFile.VEHICLES, () -> store.saveVehicles(vehicles));
+            saved &= save(report, DataFile.FEEDBACK, () -> store.saveFeedbacks(feedbacks));
+
+            // the snapshot (written now or earlier) covers every journaled event
+            OrderJournal j = journal;
+            if (saved && j != null) {
+                try {
+                    j.truncate();
+                } catch (IOException e) {
+                    System.err.println("Error truncating journal: " + e.getMessage());
+                }
+            }
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
 
         System.out.println("All data saved.");
+        return report;
     }
 
+    /**
+     * Moves settled orders off the heap, ahead of the order snapshot that will no longer
+     * hold them: first into their archive partitions, then into the history index. A crash
+     * part way leaves an order in the snapshot as well; it is archived again at the next save
+     * (reading the archive keeps one copy), and loading skips snapshot orders the
+     * history already holds. Order objects moved out are detached, so later changes to them
+     * are not saved. Caller holds the checkpoint write lock.
+     */
+    private void archiveSettledOrders() {
+        MappedOrderStore h = history;
+        if (h == null) return;
 
-    public Order placeOrder(Customer customer, String items, double billAmount) {
-        orderCounter++;
-        String orderNo = String.format("%03d", orderCounter);
+        Set<String> withFeedback = new HashSet<>();
+        synchronized (stateLock) {
+            feedbacks.forEach(f -> withFeedback.add(f.getOrderNo()));
+        }
+        long now = System.currentTimeMillis();
+        List<Order> settled = new ArrayList<>();
+        for (Order order : statusIndex.ordersIn(OrderStatus.DELIVERED)) {
+            if (order.getDeliveredAt() == 0) {
+                // delivered before delivery times were recorded: long enough ago
+                order.setDeliveredAt(now);
+                settled.add(order);
+            } else if (withFeedback.contains(order.getOrderNo())
+                    || now - order.getDeliveredAt() >= FEEDBACK_WINDOW_MILLIS) {
+                settled.add(order);
+            }
+        }
+        if (settled.isEmpty()) return;
+
+        // they stay on the heap and in the snapshot if either step fails; the next save tries again
+        if (!archive.archive(settled)) return;
+        try {
+            h.append(settled);
+        } catch (IOException e) {
+            System.err.println("Error writing order history: " + e.getMessage());
+            return;
+        }
 
-        int queuePos = (int) orders.stream()
-                .filter(o -> o.getStatus().equals("PLACED") || o.getStatus().equals("PREPARING"))
-                .count() + 1;
+        Set<Order> moved = new HashSet<>(settled);
+        synchronized (stateLock) {
+            orders.removeIf(moved::contains);
+            for (Order order : settled) {
+                statusIndex.retire(order);
+                orderIndex.remove(order.getOrderNo(), order);
+                order.trackChanges(null);
+            }
+            changes.get(DataFile.ORDERS).changed();
+        }
+    }
 
-        double discount = customer.calculateDiscount(billAmount);
-        double finalBill = billAmount - discount;
+    private boolean save(SaveReport report, DataFile file, BooleanSupplier writer) {
+        ChangeTracker tracker = changes.get(file);
+        if (!tracker.isDirty()) {
+            report.skipped(file);
+            return true;
+        }
+        long version = tracker.version();
+        long start = System.nanoTime();
+        boolean ok = writer.getAsBoolean();
+        report.written(file, ok, ok ? store.sizeOf(file) : 0, System.nanoTime() - start);
+        if (ok) {
+            tracker.markSaved(version);
+        }
+        return ok;
+    }
 
-        Order order = new Order(orderNo, customer.getId(), items, billAmount, finalBill, queuePos);
-        orders.add(order);
 
-        if (customer instanceof RegisteredCustomer) {
-            ((RegisteredCustomer) customer).incrementOrders();
+    /**
+     * Places an order for menu items by id; the bill and the items text are worked out
+     * from the menu version current at the time of the call.
+     */
+    public Order placeOrder(Customer customer, int[] menuItems, int[] quantities) {
+        if (menuItems.length != quantities.length) {
+            throw new IllegalArgumentException("menuItems and quantities differ in length");
+        }
+        MenuCatalog.Menu current = menu.current();
+        StringBuilder items = new StringBuilder();
+        long billAmount = 0;
+        for (int i = 0; i < menuItems.length; i++) {
+            int id = menuItems[i];
+            if (!current.isActive(id)) {
+                throw new IllegalArgumentException("Menu item " + id + " is not on the menu");
+            }
+            items.append(quantities[i]).append("x ").append(current.name(id)).append(", ");
+            billAmount += current.priceMinor(id) * quantities[i];
         }
+        return placeOrder(customer, items.toString(), billAmount, menuItems, quantities);
+    }
 
-        return order;
+    public Order placeOrder(Customer customer, String items, double billAmount) {
+        return placeOrder(customer, items, Money.ofMajor(billAmount), null, null);
     }
 
-    public void prepareOrder(String orderNo, OrderCategory category, String chefs, int time) {
-        Order order = findOrder(orderNo);
-        if (order != null) {
-            order.markAsPreparing(category, chefs, time);
+    // amounts in minor units from here on, so discounts and totals are exact
+    private Order placeOrder(Customer customer, String items, long billAmount, int[] menuItems, int[] quantities) {
+        String orderNo = String.format("%03d", orderCounter.incrementAndGet());
+
+        checkpointLock.readLock().lock();
+        ReentrantLock lock = orderLock(orderNo);
+        lock.lock();
+        try {
+            long discount;
+            // discount tier and monthly count move together per customer
+            synchronized (customer) {
+                discount = customer.calculateDiscountMinor(billAmount);
+                if (customer instanceof RegisteredCustomer) {
+                    ((RegisteredCustomer) customer).incrementOrders();
+                }
+            }
+            long finalBill = billAmount - discount;
+            ordersPlaced.computeIfAbsent(customer.getCustomerType(), type -> metrics.counter(
+                    "tastebuds_orders_placed_total", "Orders placed since start-up.", "customer_type", type)).inc();
+            if (discount > 0) {
+                discountsGranted.inc();
+                discountPoisha.add(discount);
+            }
 
-            new Thread(() -> {
-                try {
-                    Thread.sleep(2000);
-                    order.markAsReady();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+            Order order;
+            int queuePos;
+            synchronized (stateLock) {
+                queuePos = liveQueue.size() + 1;
+                order = Order.placed(orderNo, customer.getId(), items, billAmount, finalBill, queuePos);
+                if (menuItems != null) {
+                    order.setLineItems(menuItems, quantities);
                 }
-            }).start();
+                stageLatencies.track(order);
+                addOrder(order);
+            }
+
+            journalWrite(JournalEvent.orderPlaced(orderNo, customer.getId(), items, billAmount, finalBill, queuePos,
+                    menuItems, quantities));
+            return order;
+        } finally {
+            lock.unlock();
+            checkpointLock.readLock().unlock();
+            journalSync();
         }
     }
 
+    /**
+     * Sends a PLACED order to the kitchen; false if the order does not exist or has moved past PLACED.
+     */
+    public boolean prepareOrder(String orderNo, OrderCategory category, String chefs, int time) {
+        Boolean prepared = onOrder(orderNo, order -> {
+            if (order.getStatus() != OrderStatus.PLACED) return false;
+            kitchenQueue.remove(order);
+            order.markAsPreparing(category, chefs, time);
+            journalWrite(JournalEvent.preparing(orderNo, category, chefs, time));
+            scheduleReady(order);
+            return true;
+        });
+        return prepared != null && prepared;
+    }
 
-    public void assignDelivery(String orderNo, String driverId, String vehicle) {
-        Order order = findOrder(orderNo);
-        Driver driver = findDriver(driverId);
+    /**
+     * The next order the kitchen should prepare: PRIORITY orders first, with a NORMAL order
+     * let through after every few PRIORITY ones. Returns null when nothing is waiting.
+     * The order stays PLACED and first in line until prepareOrder() is called for it, so one
+     * that is never prepared is offered again.
+     */
+    public Order nextOrderForKitchen() {
+        Order order;
+        while ((order = kitchenQueue.peek()) != null) {
+            if (order.getStatus() == OrderStatus.PLACED) return order;
+            // moved on outside the kitchen flow
+            kitchenQueue.remove(order);
+        }
+        return null;
+    }
 
-        Vehicle v = findVehicle(vehicle);
+    /**
+     * How long orders waited for the kitchen, per category.
+     */
+    public Map<OrderCategory, KitchenQueue.WaitStats> getKitchenWaitStats() {
+        return kitchenQueue.waitStats();
+    }
 
-        if (order != null && driver != null) {
-            order.assignDelivery(driverId, vehicle);
-            driver.setAvailable(false);
-            if (v != null) v.setAvailable(false);
+    private void scheduleReady(Order order) {
+        try {
+            kitchen.schedule(order, () -> onOrder(order.getOrderNo(), o -> {
+                // the order may have moved on (e.g. marked delivered) while it was cooking
+                if (o.getStatus() != OrderStatus.PREPARING) return false;
+                o.markAsReady();
+                journalWrite(JournalEvent.ready(o.getOrderNo()));
+                return true;
+            }));
+        } catch (RejectedExecutionException e) {
+            System.err.println("Kitchen is shut down; order " + order.getOrderNo() + " stays PREPARING");
         }
     }
 
+    /**
+     * Stops the kitchen timer for an order; the order stays PREPARING.
+     */
+    public boolean cancelPreparation(String orderNo) {
+        return kitchen.cancel(orderNo);
+    }
+
+    /**
+     * Stops the kitchen scheduler and closes the journal. Orders still cooking
+     * stay PREPARING and are rescheduled by the next loadData().
+     */
+    public void shutdown() {
+        try {
+            List<String> dropped = kitchen.shutdown(5, TimeUnit.SECONDS);
+            if (!dropped.isEmpty()) {
+                System.out.println("Kitchen stopped with " + dropped.size() + " orders still preparing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        checkpointLock.writeLock().lock();
+        try {
+            closeJournal();
+            closeHistory();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Manually assigns a READY order to a driver (and vehicle, if it is a registered one).
+     * Returns false if the order is not READY or the driver or vehicle is already busy.
+     */
+    public boolean assignDelivery(String orderNo, String driverId, String vehicle) {
+        Boolean assigned = onOrder(orderNo, order -> {
+            Driver driver = findDriver(driverId);
+            Vehicle v = findVehicle(vehicle);
+            if (driver == null || order.getStatus() != OrderStatus.READY) return false;
+
+            if (!freeDrivers.claim(driver)) return false;
+            if (v != null && !freeVehicles.claim(v)) {
+                freeDrivers.unclaim(driver);
+                return false;
+            }
+
+            order.assignDelivery(driverId, vehicle);
+            journalWrite(JournalEvent.outForDelivery(orderNo, driverId, vehicle));
+            return true;
+        });
+        return assigned != null && assigned;
+    }
+
     public boolean driverCheckout(String orderNo, String licenseNo) {
         Order order = findOrder(orderNo);
         if (order == null) return false;
@@ -171,133 +940,293 @@ public class TasteBudsSystem {
         return driver.verifyLicense(licenseNo);
     }
 
-    public void submitFeedback(String orderNo, int rating, String comment) {
-        Order order = findOrder(orderNo);
-        if (order != null) {
-            order.markAsDelivered();
+    /**
+     * Records feedback and marks the order delivered. Returns false if the order is not
+     * held in memory (unknown, or already archived).
+     */
+    public boolean submitFeedback(String orderNo, int rating, String comment) {
+        Boolean applied = onOrder(orderNo, order -> {
             Feedback feedback = new Feedback(orderNo, rating, comment);
+            applyFeedback(order, feedback, JournalEvent.feedback(orderNo, rating, comment));
+            return true;
+        });
+        return applied != null && applied;
+    }
+
+    /**
+     * Records the feedback and marks the order delivered. The event (null on replay) is
+     * journaled before the driver and vehicle go back on their free lists.
+     */
+    private void applyFeedback(Order order, Feedback feedback, JournalEvent event) {
+        boolean wasDelivered = order.getStatus() == OrderStatus.DELIVERED;
+        order.markAsDelivered();
+        synchronized (stateLock) {
+            feedback.trackChanges(changes.get(DataFile.FEEDBACK));
+            changes.get(DataFile.FEEDBACK).changed();
             feedbacks.add(feedback);
+        }
+        journalWrite(event);
 
-            // Free up driver
-            Driver driver = findDriver(order.getDriverId());
-            if (driver != null) {
-                driver.setAvailable(true);
-            }
+        // Free up driver and vehicle, unless the delivery was already completed (they may be on another order by now)
+        if (!wasDelivered) {
+            releaseFleet(order);
+        }
 
-            updateServingOrder();
+        synchronized (stateLock) {
+            liveQueue.remove(order);
         }
     }
 
     public boolean driverCompleteDelivery(String orderNo, String licenseNo) {
-        Order order = findOrder(orderNo);
-        if (order == null) return false;
+        Boolean completed = onOrder(orderNo, order -> {
+            Driver driver = findDriver(order.getDriverId());
+            if (driver == null) return false;
 
-        Driver driver = findDriver(order.getDriverId());
-        if (driver == null) return false;
+            if (!driver.verifyLicense(licenseNo)) return false;
+            if (order.getStatus() != OrderStatus.OUT_FOR_DELIVERY) return false;
 
-        if (!driver.verifyLicense(licenseNo)) return false;
+            completeDelivery(order, JournalEvent.delivered(orderNo));
+            return true;
+        });
+        return completed != null && completed;
+    }
 
+    /**
+     * Marks the order delivered; the event (null on replay) is journaled before the
+     * driver and vehicle go back on their free lists.
+     */
+    private void completeDelivery(Order order, JournalEvent event) {
         order.markAsDelivered();
+        journalWrite(event);
+        releaseFleet(order);
 
-        driver.setAvailable(true);
-        Vehicle v = findVehicle(order.getVehicle());
-        if (v != null) v.setAvailable(true);
-
-        int removedPos = order.getQueuePosition();
-        if (removedPos > 0) {
-            for (Order o : orders) {
-                if (o.getOrderNo().equals(orderNo)) {
-                    o.setQueuePosition(0);
-                    continue;
-                }
-                if (o.getQueuePosition() > removedPos) {
-                    o.setQueuePosition(o.getQueuePosition() - 1);
-                }
-            }
+        synchronized (stateLock) {
+            // everyone behind it moves up; O(log n) instead of renumbering every order
+            liveQueue.remove(order);
+            order.setQueuePosition(0);
         }
+    }
+
 
-        updateServingOrder();
-        return true;
+    private void releaseFleet(Order order) {
+        Driver driver = findDriver(order.getDriverId());
+        if (driver != null) freeDrivers.release(driver);
+        Vehicle v = findVehicle(order.getVehicle());
+        if (v != null) freeVehicles.release(v);
     }
 
 
     public Customer findCustomer(String id) {
-        return customers.stream()
-                .filter(c -> c.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return lookup(customerIndex, id);
     }
 
+    /**
+     * The order with this number. An archived order is found through the history index and
+     * comes back as a detached heap copy; {@link #findHistoricalOrder} reads it without copying.
+     */
     public Order findOrder(String orderNo) {
-        return orders.stream()
-                .filter(o -> o.getOrderNo().equals(orderNo))
-                .findFirst()
-                .orElse(null);
+        Order order = lookup(orderIndex, orderNo);
+        if (order != null) return order;
+        OrderView view = findHistoricalOrder(orderNo);
+        return view == null ? null : view.toOrder();
+    }
+
+    /**
+     * View over an archived order in the mapped history index, or null if it is not archived.
+     */
+    public OrderView findHistoricalOrder(String orderNo) {
+        MappedOrderStore h = history;
+        return h == null ? null : h.find(orderNo);
     }
 
     public Driver findDriver(String id) {
-        return drivers.stream()
-                .filter(d -> d.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return lookup(driverIndex, id);
     }
 
     public void addCustomer(Customer customer) {
-        customers.add(customer);
+        mutation(() -> {
+            customer.trackChanges(changes.get(DataFile.CUSTOMERS));
+            changes.get(DataFile.CUSTOMERS).changed();
+            customers.add(customer);
+            index(customerIndex, customer.getId(), customer);
+        });
     }
 
     public void addDriver(Driver driver) {
-        drivers.add(driver);
+        mutation(() -> {
+            driver.trackChanges(changes.get(DataFile.DRIVERS));
+            changes.get(DataFile.DRIVERS).changed();
+            drivers.add(driver);
+            index(driverIndex, driver.getId(), driver);
+            freeDrivers.add(driver);
+        });
     }
 
     public void addChef(Chef chef) {
-        chefs.add(chef);
+        mutation(() -> {
+            chef.trackChanges(changes.get(DataFile.CHEFS));
+            changes.get(DataFile.CHEFS).changed();
+            chefs.add(chef);
+            index(chefIndex, chefKey(chef.getName()), chef);
+        });
+    }
+
+    void addOrder(Order order) {
+        synchronized (stateLock) {
+            order.trackChanges(changes.get(DataFile.ORDERS));
+            changes.get(DataFile.ORDERS).changed();
+            orders.add(order);
+            statusIndex.add(order);
+            if (order.getStatus() != OrderStatus.DELIVERED) {
+                liveQueue.enqueue(order);
+            }
+            if (order.getStatus() == OrderStatus.PLACED) {
+                kitchenQueue.add(order);
+            }
+        }
+        index(orderIndex, order.getOrderNo(), order);
     }
 
     public List<Chef> getChefs() {
-        return chefs;
+        return Collections.unmodifiableList(chefs);
     }
 
     public Chef findChef(String name) {
-        return chefs.stream()
-                .filter(c -> c.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        return lookup(chefIndex, chefKey(name));
     }
 
+    /**
+     * One past the number of delivered orders (archived included). Lock-free.
+     */
     public int getCurrentServingOrder() {
-        return currentServingOrder;
+        return (int) statusIndex.stats().getServingOrder();
+    }
+
+    /**
+     * Order counts per status and the serving counter, as one consistent snapshot.
+     * A single volatile read, so it can be polled as often as a dashboard likes.
+     */
+    public OrderStats stats() {
+        return statusIndex.stats();
+    }
+
+    /**
+     * How long orders placed since start-up spent in each status, per category. Orders
+     * loaded from disk or replayed from the journal are not included.
+     */
+    public StageLatencies getStageLatencies() {
+        return stageLatencies;
+    }
+
+    /**
+     * Live counters and gauges for this system and its store; see {@link com.tastebuds.metrics.PrometheusExporter}.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
     }
 
     public List<Customer> getCustomers() {
-        return customers;
+        return Collections.unmodifiableList(customers);
+    }
+
+    /**
+     * Copy of the orders on the heap currently in the given status, in no particular order.
+     * Costs as much as the result, not the whole order list. Archived orders are
+     * not included.
+     */
+    public List<Order> getOrdersByStatus(OrderStatus status) {
+        return List.copyOf(statusIndex.ordersIn(status));
+    }
+
+    /**
+     * Number of orders in the given status, counting archived ones as delivered.
+     */
+    public int countOrders(OrderStatus status) {
+        return (int) statusIndex.stats().count(status);
     }
 
+    /**
+     * Sum of all final bills in minor units, history included; exact however many orders there are.
+     */
+    public long totalSalesMinor() {
+        long[] total = {0};
+        synchronized (stateLock) {
+            for (Order order : orders) {
+                total[0] += order.getFinalBillMinor();
+            }
+            // under the lock, so an order being moved to the history is not counted twice
+            MappedOrderStore h = history;
+            if (h != null) {
+                h.forEach(view -> total[0] += view.getFinalBillMinor());
+            }
+        }
+        return total[0];
+    }
+
+    /**
+     * Total quantity ordered per menu item, indexed by menu item id, history included.
+     * Reads the line items in place (heap arrays or mapped records), so it allocates nothing per order.
+     */
+    public long[] dishDemand() {
+        long[] demand = new long[menu.current().size()];
+        synchronized (stateLock) {
+            for (Order order : orders) {
+                for (int i = 0, n = order.getLineItemCount(); i < n; i++) {
+                    int ordinal = order.getMenuItem(i);
+                    if (ordinal < demand.length) {
+                        demand[ordinal] += order.getQuantity(i);
+                    }
+                }
+            }
+            MappedOrderStore h = history;
+            if (h != null) {
+                h.forEach(view -> {
+                    for (int i = 0, n = view.getLineItemCount(); i < n; i++) {
+                        int ordinal = view.getMenuItem(i);
+                        if (ordinal < demand.length) {
+                            demand[ordinal] += view.getQuantity(i);
+                        }
+                    }
+                });
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Point-in-time copy of the orders on the heap: everything not archived yet.
+     */
     public List<Order> getOrders() {
-        return orders;
+        synchronized (stateLock) {
+            return List.copyOf(orders);
+        }
     }
 
     public List<Driver> getDrivers() {
-        return drivers;
+        return Collections.unmodifiableList(drivers);
     }
 
+    /**
+     * Point-in-time copy of all feedbacks.
+     */
     public List<Feedback> getFeedbacks() {
-        return feedbacks;
+        synchronized (stateLock) {
+            return List.copyOf(feedbacks);
+        }
     }
 
-
-    private void updateServingOrder() {
-        long deliveredCount = orders.stream()
-                .filter(o -> o.getStatus().equals("DELIVERED"))
-                .count();
-        currentServingOrder = (int) deliveredCount + 1;
+    /**
+     * Orders not delivered yet, in queue order.
+     */
+    public List<Order> getQueue() {
+        return OrderStatus.LIVE.stream()
+                .flatMap(status -> statusIndex.ordersIn(status).stream())
+                .sorted(Comparator.comparingInt(Order::getQueuePosition))
+                .toList();
     }
 
     public void displayQueue() {
-        List<Order> pendingOrders = orders.stream()
-                .filter(o -> !o.getStatus().equals("DELIVERED"))
-                .sorted(Comparator.comparingInt(Order::getQueuePosition))
-                .toList();
+        List<Order> pendingOrders = getQueue();
 
         if (pendingOrders.isEmpty()) {
             System.out.println("No orders in queue");
@@ -347,4 +1276,15 @@ public class TasteBudsSystem {
             System.out.println(chef.getName() + " | Available: " + (chef.isAvailable() ? "Yes" : "No"));
         }
     }
-}
\ No newline at end of file
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "data-loader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tastebuds.api;
+
+import com.tastebuds.model.*;
+import com.tastebuds.service.KitchenScheduler;
+import com.tastebuds.service.TasteBudsSystem;
+
+import org.junit.jupiter.api.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the HTTP/JSON order API
+ */
+class ApiServerTest {
+
+    private TasteBudsSystem system;
+    private ApiServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        system = new TasteBudsSystem(new KitchenScheduler(20));
+        system.addCustomer(new RegisteredCustomer("C001", "Samir", 5));
+        system.addDriver(new Driver("D001", "Rafi", "LIC-001"));
+        system.addVehicle(new Vehicle("V001", "Bike"));
+
+        server = new ApiServer(system, new InetSocketAddress("localhost", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        system.shutdown();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(HttpResponse<String> response) {
+        return (Map<String, Object>) Json.parse(response.body());
+    }
+
+    @Test
+    @DisplayName("API should take an order from placement through feedback")
+    void testOrderLifecycle() throws Exception {
+        HttpResponse<String> placed = post("/orders", "{\"customerId\":\"C001\",\"menuItems\":[0,7],\"quantities\":[2,1]}");
+        assertThat(placed.statusCode()).isEqualTo(201);
+        Map<String, Object> order = object(placed);
+        assertThat(order.get("orderNo")).isEqualTo("001");
+        assertThat(order.get("status")).isEqualTo("PLACED");
+        assertThat((List<?>) order.get("lineItems")).hasSize(2);
+        assertThat((List<?>) Json.parse(get("/queue").body())).hasSize(1);
+
+        // the order cannot go out before the kitchen has it ready
+        assertThat(post("/orders/001/dispatch", "").statusCode()).isEqualTo(409);
+
+        HttpResponse<String> prepared = post("/orders/001/prepare", "{\"category\":\"PRIORITY\",\"chefs\":\"Chef A\",\"time\":1}");
+        assertThat(prepared.statusCode()).isEqualTo(200);
+        assertThat(object(prepared).get("status")).isEqualTo("PREPARING");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"READY".equals(object(get("/orders/001")).get("status"))) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+
+        HttpResponse<String> dispatched = post("/orders/001/dispatch", "");
+        assertThat(dispatched.statusCode()).isEqualTo(200);
+        assertThat(object(dispatched).get("driverId")).isEqualTo("D001");
+
+        HttpResponse<String> wrongLicense = post("/orders/001/deliver", "{\"licenseNo\":\"WRONG\"}");
+        assertThat(wrongLicense.statusCode()).isEqualTo(403);
+        assertThat((String) object(wrongLicense).get("error")).contains("License WRONG");
+        HttpResponse<String> delivered = post("/orders/001/deliver", "{\"licenseNo\":\"LIC-001\"}");
+        assertThat(object(delivered).get("status")).isEqualTo("DELIVERED");
+
+        assertThat(post("/orders/001/feedback", "{\"rating\":4,\"comment\":\"Good\"}").statusCode()).isEqualTo(200);
+        // delivered orders cannot be delivered again, whatever the license
+        assertThat(post("/orders/001/deliver", "{\"licenseNo\":\"WRONG\"}").statusCode()).isEqualTo(409);
+
+        Map<String, Object> stats = object(get("/stats"));
+        assertThat(((Map<?, ?>) stats.get("counts")).get("DELIVERED")).isEqualTo(1L);
+        assertThat(stats.get("servingOrder")).isEqualTo(2L);
+        assertThat((List<?>) Json.parse(get("/queue").body())).isEmpty();
+
+        Map<String, Object> latencies = object(get("/latencies"));
+        Map<?, ?> endToEnd = (Map<?, ?>) ((Map<?, ?>) latencies.get("END_TO_END")).get("PRIORITY");
+        assertThat(endToEnd.get("count")).isEqualTo(1L);
+        assertThat((Long) endToEnd.get("p50")).isPositive();
+    }
+
+    @Test
+    @DisplayName("API should reject bad requests with the matching status code")
+    void testErrors() throws Exception {
+        assertThat(post("/orders", "{\"customerId\":\"C999\",\"menuItems\":[0],\"quantities\":[1]}").statusCode()).isEqualTo(404);
+        assertThat(post("/orders", "{\"customerId\":\"C001\",\"menuItems\":[99],\"quantities\":[1]}").statusCode()).isEqualTo(400);
+        assertThat(post("/orders", "{\"customerId\":").statusCode()).isEqualTo(400);
+        assertThat(get("/orders").statusCode()).isEqualTo(405);
+        assertThat(get("/orders/042").statusCode()).isEqualTo(404);
+        assertThat(post("/orders/042/prepare", "{}").statusCode()).isEqualTo(404);
+
+        post("/orders", "{\"customerId\":\"C001\",\"menuItems\":[0],\"quantities\":[1]}");
+        HttpResponse<String> badRating = post("/orders/001/feedback", "{\"rating\":9}");
+        assertThat(badRating.statusCode()).isEqualTo(400);
+        assertThat(object(badRating).get("error")).isEqualTo("rating must be 1 to 5");
+        assertThat(post("/orders/001/bogus", "").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("API should list the menu with exact prices")
+    void testMenu() throws Exception {
+        Map<String, Object> menu = object(get("/menu"));
+        List<?> items = (List<?>) menu.get("items");
+        assertThat(items).hasSize(10);
+        assertThat(((Map<?, ?>) items.get(0)).get("name")).isEqualTo("Chicken Biryani");
+        assertThat(get("/menu").body()).contains("\"price\":");
+    }
+}
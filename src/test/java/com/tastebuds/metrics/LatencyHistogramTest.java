@@ -0,0 +1,76 @@
+package com.tastebuds.metrics;
+
+import org.junit.jupiter.api.*;
+import java.util.concurrent.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the lock-free latency histogram
+ */
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Buckets should cover every value and report it within 1/64")
+    void testBucketPrecision() {
+        long[] values = {0, 1, 127, 128, 129, 1000, 65_535, 1_000_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            long reported = LatencyHistogram.highestValueAt(index);
+            assertThat(reported).isGreaterThanOrEqualTo(value);
+            assertThat(reported - value).isLessThanOrEqualTo(value / 64);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValueAt(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Percentiles should follow the recorded distribution")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(10_000);
+        assertThat(snapshot.getMax()).isEqualTo(10_000_000);
+        assertThat(snapshot.getMean()).isEqualTo(5_000_500.0);
+        assertThat(snapshot.valueAtPercentile(50)).isCloseTo(5_000_000L, withinPercentage(2));
+        assertThat(snapshot.valueAtPercentile(99)).isCloseTo(9_900_000L, withinPercentage(2));
+        assertThat(snapshot.valueAtPercentile(99.9)).isCloseTo(9_990_000L, withinPercentage(2));
+        assertThat(snapshot.valueAtPercentile(100)).isEqualTo(10_000_000);
+        assertThat(new LatencyHistogram().snapshot().valueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    @DisplayName("Concurrent recording should lose no values")
+    void testConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] writers = new Future<?>[4];
+            for (int t = 0; t < writers.length; t++) {
+                writers[t] = pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50_000; i++) {
+                        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long[] total = {0};
+        histogram.snapshot().forEachBucket((value, count) -> total[0] += count);
+        assertThat(total[0]).isEqualTo(200_000);
+        assertThat(histogram.snapshot().getMax()).isLessThan(1_000_000);
+    }
+}
@@ -0,0 +1,105 @@
+package com.tastebuds.metrics;
+
+import org.junit.jupiter.api.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the metrics registry and its Prometheus exporter
+ */
+class MetricsRegistryTest {
+
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    @DisplayName("Counters should be shared per name and labels and written once per family")
+    void testCounters() {
+        registry.counter("orders_total", "Orders.", "type", "GUEST").inc();
+        registry.counter("orders_total", "Orders.", "type", "GUEST").add(2);
+        registry.counter("orders_total", "Orders.", "type", "REGISTERED").inc();
+
+        assertThat(registry.counter("orders_total", "Orders.", "type", "GUEST").get()).isEqualTo(3);
+        assertThat(registry.scrape()).isEqualTo("""
+                # HELP orders_total Orders.
+                # TYPE orders_total counter
+                orders_total{type="GUEST"} 3
+                orders_total{type="REGISTERED"} 1
+                """);
+        assertThatThrownBy(() -> registry.counter("orders_total", "Orders.").add(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Gauges should be read at scrape time and label values escaped")
+    void testGauges() {
+        double[] value = {0.25};
+        registry.gauge("utilization", "Busy share.", () -> value[0], "fleet", "say \"hi\"\\");
+        value[0] = 0.5;
+
+        assertThat(registry.scrape()).contains("utilization{fleet=\"say \\\"hi\\\"\\\\\"} 0.5\n");
+        assertThatThrownBy(() -> registry.counter("utilization", "Busy share."))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.gauge("bad-name", "x", () -> 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.gauge("odd", "x", () -> 1, "label"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Timers should export quantiles, sum and count in seconds")
+    void testTimers() {
+        LatencyHistogram timer = registry.timer("save_seconds", "Save time.", "file", "orders.xml");
+        timer.record(2_000_000_000L);
+        timer.record(2_000_000_000L);
+        assertThat(registry.timer("save_seconds", "Save time.", "file", "orders.xml")).isSameAs(timer);
+
+        String text = registry.scrape();
+        assertThat(text).contains("# TYPE save_seconds summary\n");
+        // bucketed values are capped at the largest recorded, so identical samples report exactly
+        assertThat(text).contains("save_seconds{file=\"orders.xml\",quantile=\"0.5\"} 2\n");
+        assertThat(text).contains("save_seconds_sum{file=\"orders.xml\"} 4\n");
+        assertThat(text).contains("save_seconds_count{file=\"orders.xml\"} 2\n");
+
+        // a supplied summary is not silently swapped for a fresh timer
+        LatencyHistogram supplied = new LatencyHistogram();
+        supplied.record(1_000_000_000L);
+        registry.summary("wait_seconds", "Wait time.", supplied::snapshot, "lane", "a");
+        assertThatThrownBy(() -> registry.timer("wait_seconds", "Wait time.", "lane", "a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.scrape()).contains("wait_seconds_count{lane=\"a\"} 1\n");
+    }
+
+    @Test
+    @DisplayName("Exporter should serve the registry over HTTP")
+    void testExporter() throws Exception {
+        registry.counter("scrapes_total", "Scrapes.").inc();
+        PrometheusExporter exporter = new PrometheusExporter(registry, new InetSocketAddress("localhost", 0));
+        exporter.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            URI uri = URI.create("http://localhost:" + exporter.getPort() + "/metrics");
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                    type -> assertThat(type).startsWith("text/plain; version=0.0.4"));
+            assertThat(response.body()).contains("scrapes_total 1\n");
+
+            HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(post.statusCode()).isEqualTo(405);
+        } finally {
+            exporter.stop();
+        }
+    }
+}
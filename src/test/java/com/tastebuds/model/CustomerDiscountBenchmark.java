@@ -0,0 +1,59 @@
+package com.tastebuds.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RegisteredCustomer.calculateDiscount on every discount tier, through the BDT
+ * entry point (double in and out) and the minor-unit one placeOrder uses. Both
+ * should be allocation-free; run with -prof gc to check.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerDiscountBenchmark {
+    private static final int BILLS = 1024;
+
+    // 0%, 5%, 10% and 15% tiers
+    @Param({"0", "3", "5", "10"})
+    private int ordersThisMonth;
+
+    private RegisteredCustomer customer;
+    private final double[] bills = new double[BILLS];
+    private final long[] billsMinor = new long[BILLS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        customer = new RegisteredCustomer("C001", "Samir", ordersThisMonth);
+        Random random = new Random(42);
+        for (int i = 0; i < BILLS; i++) {
+            billsMinor[i] = 5_000 + random.nextInt(500_000);
+            bills[i] = Money.toMajor(billsMinor[i]);
+        }
+    }
+
+    @Benchmark
+    public double calculateDiscount() {
+        return customer.calculateDiscount(bills[next++ & (BILLS - 1)]);
+    }
+
+    @Benchmark
+    public long calculateDiscountMinor() {
+        return customer.calculateDiscountMinor(billsMinor[next++ & (BILLS - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomerDiscountBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -25,7 +25,7 @@ class DeliveryManagerTest {
     void testAssignDeliverySuccess() {
         manager.assignDelivery(order, driver, "Bike-12");
 
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(order.getDriverId()).isEqualTo("D001");
         assertThat(order.getVehicle()).isEqualTo("Bike-12");
         assertThat(driver.isAvailable()).isFalse();
@@ -35,7 +35,7 @@ class DeliveryManagerTest {
     @DisplayName("DeliveryManager should handle unavailable driver")
     void testAssignDeliveryUnavailableDriver() {
         driver.setAvailable(false);
-        String originalStatus = order.getStatus();
+        OrderStatus originalStatus = order.getStatus();
 
         manager.assignDelivery(order, driver, "Bike-12");
 
@@ -51,7 +51,7 @@ class DeliveryManagerTest {
 
         manager.completeDelivery(order, driver);
 
-        assertThat(order.getStatus()).isEqualTo("DELIVERED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
         assertThat(driver.isAvailable()).isTrue();
     }
 
@@ -62,7 +62,7 @@ class DeliveryManagerTest {
 
         manager.assignDelivery(order, driver, "Car-5");
 
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.PRIORITY);
     }
 
@@ -73,7 +73,7 @@ class DeliveryManagerTest {
 
         manager.assignDelivery(order, driver, "Bike-3");
 
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.NORMAL);
     }
 
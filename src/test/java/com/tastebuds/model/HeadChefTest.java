@@ -16,7 +16,7 @@ class HeadChefTest {
 
         headChef.prepareOrder(order, OrderCategory.PRIORITY, "Chef A, Chef B", 20);
 
-        assertThat(order.getStatus()).isEqualTo("PREPARING");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.PRIORITY);
         assertThat(order.getAssignedChefs()).isEqualTo("Chef A, Chef B");
         assertThat(order.getEstimatedTime()).isEqualTo(20);
@@ -31,6 +31,6 @@ class HeadChefTest {
         order.markAsPreparing(OrderCategory.NORMAL, "Chef C", 15);
         headChef.markOrderReady(order);
 
-        assertThat(order.getStatus()).isEqualTo("READY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.tastebuds.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for minor-unit money arithmetic
+ */
+class MoneyTest {
+
+    @Test
+    @DisplayName("Money should parse plain and double-printed amounts")
+    void testParse() {
+        assertThat(Money.parse("900")).isEqualTo(90000);
+        assertThat(Money.parse("900.0")).isEqualTo(90000);
+        assertThat(Money.parse("900.05")).isEqualTo(90005);
+        assertThat(Money.parse("1.0E7")).isEqualTo(1_000_000_000L);
+        assertThat(Money.parse("0.1234")).isEqualTo(12);
+        assertThat(Money.parse("-12.5")).isEqualTo(-1250);
+    }
+
+    @Test
+    @DisplayName("Money should format with two decimals")
+    void testFormat() {
+        assertThat(Money.format(123450)).isEqualTo("1234.50");
+        assertThat(Money.format(5)).isEqualTo("0.05");
+        assertThat(Money.format(-1250)).isEqualTo("-12.50");
+        assertThat(Money.parse(Money.format(987654321L))).isEqualTo(987654321L);
+    }
+
+    @Test
+    @DisplayName("Percentages should round half up to the nearest minor unit")
+    void testPercentOf() {
+        assertThat(Money.percentOf(100000, 10)).isEqualTo(10000);
+        assertThat(Money.percentOf(33333, 5)).isEqualTo(1667);
+        assertThat(Money.percentOf(10, 15)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sums of minor units should not drift")
+    void testExactSums() {
+        long total = 0;
+        double drifting = 0;
+        for (int i = 0; i < 1000; i++) {
+            total += Money.ofMajor(0.1);
+            drifting += 0.1;
+        }
+        assertThat(total).isEqualTo(10000);
+        assertThat(drifting).isNotEqualTo(100.0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.tastebuds.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for OrderQueue class
+ */
+class OrderQueueTest {
+
+    private OrderQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new OrderQueue();
+    }
+
+    private Order newOrder(int n) {
+        return new Order(String.format("%03d", n), "C001", "Pizza", 100.0, 100.0, 0);
+    }
+
+    @Test
+    @DisplayName("Queue should number orders by arrival")
+    void testPositionsByArrival() {
+        Order a = newOrder(1);
+        Order b = newOrder(2);
+        Order c = newOrder(3);
+        queue.enqueue(a);
+        queue.enqueue(b);
+        queue.enqueue(c);
+
+        assertThat(a.getQueuePosition()).isEqualTo(1);
+        assertThat(b.getQueuePosition()).isEqualTo(2);
+        assertThat(c.getQueuePosition()).isEqualTo(3);
+        assertThat(queue.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Removing an order should move later orders up")
+    void testRemoveShiftsLaterOrders() {
+        Order a = newOrder(1);
+        Order b = newOrder(2);
+        Order c = newOrder(3);
+        queue.enqueue(a);
+        queue.enqueue(b);
+        queue.enqueue(c);
+
+        assertThat(queue.remove(b)).isTrue();
+
+        assertThat(a.getQueuePosition()).isEqualTo(1);
+        assertThat(b.getQueuePosition()).isEqualTo(0);
+        assertThat(c.getQueuePosition()).isEqualTo(2);
+        assertThat(queue.remove(b)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Queue should keep positions correct across growth and compaction")
+    void testGrowthAndCompaction() {
+        List<Order> live = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            Order order = newOrder(i);
+            queue.enqueue(order);
+            live.add(order);
+            if (i % 3 == 0) {
+                queue.remove(live.remove(0));
+            }
+        }
+
+        assertThat(queue.size()).isEqualTo(live.size());
+        for (int i = 0; i < live.size(); i++) {
+            assertThat(live.get(i).getQueuePosition()).isEqualTo(i + 1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.tastebuds.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for OrderStatusIndex class
+ */
+class OrderStatusIndexTest {
+
+    private OrderStatusIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new OrderStatusIndex();
+    }
+
+    private Order newOrder(int n) {
+        return new Order(String.format("%03d", n), "C001", "Pizza", 100.0, 100.0, 0);
+    }
+
+    @Test
+    @DisplayName("Index should follow orders through their transitions")
+    void testOrdersMoveBetweenBuckets() {
+        Order a = newOrder(1);
+        Order b = newOrder(2);
+        index.add(a);
+        index.add(b);
+        assertThat(index.count(OrderStatus.PLACED)).isEqualTo(2);
+
+        a.markAsReady();
+        b.markAsPreparing(OrderCategory.NORMAL, "Chef A", 10);
+        b.markAsReady();
+        a.assignDelivery("D001", "Bike-12");
+
+        assertThat(index.count(OrderStatus.PLACED)).isZero();
+        assertThat(index.ordersIn(OrderStatus.READY)).containsExactly(b);
+        assertThat(index.ordersIn(OrderStatus.OUT_FOR_DELIVERY)).containsExactly(a);
+    }
+
+    @Test
+    @DisplayName("Removed orders should no longer be tracked")
+    void testRemove() {
+        Order a = newOrder(1);
+        index.add(a);
+        index.remove(a);
+        a.markAsReady();
+
+        assertThat(index.count(OrderStatus.PLACED)).isZero();
+        assertThat(index.count(OrderStatus.READY)).isZero();
+    }
+
+    @Test
+    @DisplayName("Stats snapshots should follow transitions and stay unchanged once taken")
+    void testStatsSnapshot() {
+        Order a = newOrder(1);
+        Order b = newOrder(2);
+        index.add(a);
+        index.add(b);
+        OrderStats before = index.stats();
+
+        a.markAsReady();
+        a.markAsDelivered();
+        OrderStats after = index.stats();
+
+        assertThat(before.count(OrderStatus.PLACED)).isEqualTo(2);
+        assertThat(before.getServingOrder()).isEqualTo(1);
+        assertThat(after.count(OrderStatus.PLACED)).isEqualTo(1);
+        assertThat(after.count(OrderStatus.READY)).isZero();
+        assertThat(after.count(OrderStatus.DELIVERED)).isEqualTo(1);
+        assertThat(after.getActive()).isEqualTo(1);
+        assertThat(after.getServingOrder()).isEqualTo(2);
+        assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+    }
+
+    @Test
+    @DisplayName("Retired orders should count as delivered without a dip")
+    void testRetire() {
+        Order a = newOrder(1);
+        index.add(a);
+        a.markAsDelivered();
+        index.setArchived(5);
+
+        index.retire(a);
+
+        OrderStats stats = index.stats();
+        assertThat(index.count(OrderStatus.DELIVERED)).isZero();
+        assertThat(stats.getArchived()).isEqualTo(6);
+        assertThat(stats.count(OrderStatus.DELIVERED)).isEqualTo(6);
+        assertThat(stats.getTotal()).isEqualTo(6);
+    }
+}
@@ -26,7 +26,7 @@ class OrderTest {
         assertThat(order.getBillAmount()).isEqualTo(1000.0);
         assertThat(order.getFinalBill()).isEqualTo(900.0);
         assertThat(order.getQueuePosition()).isEqualTo(1);
-        assertThat(order.getStatus()).isEqualTo("PLACED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.NORMAL);
     }
 
@@ -35,7 +35,7 @@ class OrderTest {
     void testMarkAsPreparing() {
         order.markAsPreparing(OrderCategory.PRIORITY, "Chef A, Chef B", 30);
 
-        assertThat(order.getStatus()).isEqualTo("PREPARING");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.PRIORITY);
         assertThat(order.getAssignedChefs()).isEqualTo("Chef A, Chef B");
         assertThat(order.getEstimatedTime()).isEqualTo(30);
@@ -47,7 +47,7 @@ class OrderTest {
         order.markAsPreparing(OrderCategory.NORMAL, "Chef C", 20);
         order.markAsReady();
 
-        assertThat(order.getStatus()).isEqualTo("READY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
     }
 
     @Test
@@ -56,7 +56,7 @@ class OrderTest {
         order.markAsReady();
         order.assignDelivery("D001", "Bike-12");
 
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(order.getDriverId()).isEqualTo("D001");
         assertThat(order.getVehicle()).isEqualTo("Bike-12");
     }
@@ -66,9 +66,22 @@ class OrderTest {
     void testMarkAsDelivered() {
         order.markAsReady();
         order.assignDelivery("D001", "Bike-12");
+        assertThat(order.getDeliveredAt()).isZero();
         order.markAsDelivered();
 
-        assertThat(order.getStatus()).isEqualTo("DELIVERED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        long deliveredAt = order.getDeliveredAt();
+        assertThat(deliveredAt).isPositive();
+        order.markAsDelivered();
+        assertThat(order.getDeliveredAt()).isEqualTo(deliveredAt);
+
+        // monotonic stamps on entering each status; PREPARING was skipped
+        long placed = order.getEnteredNanos(OrderStatus.PLACED);
+        assertThat(placed).isNotZero();
+        assertThat(order.getEnteredNanos(OrderStatus.PREPARING)).isZero();
+        assertThat(order.getEnteredNanos(OrderStatus.READY) - placed).isNotNegative();
+        assertThat(order.getEnteredNanos(OrderStatus.DELIVERED) - order.getEnteredNanos(OrderStatus.OUT_FOR_DELIVERY))
+                .isNotNegative();
     }
 
     @Test
@@ -84,25 +97,25 @@ class OrderTest {
     @DisplayName("Order should handle full lifecycle")
     void testFullOrderLifecycle() {
         // Initial state
-        assertThat(order.getStatus()).isEqualTo("PLACED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
 
         // Kitchen preparation
         order.markAsPreparing(OrderCategory.PRIORITY, "Chef A", 25);
-        assertThat(order.getStatus()).isEqualTo("PREPARING");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.PRIORITY);
 
         // Ready for delivery
         order.markAsReady();
-        assertThat(order.getStatus()).isEqualTo("READY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
 
         // Out for delivery
         order.assignDelivery("D001", "Car-5");
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(order.getDriverId()).isEqualTo("D001");
 
         // Delivered
         order.markAsDelivered();
-        assertThat(order.getStatus()).isEqualTo("DELIVERED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
     }
 
     @Test
@@ -143,4 +156,19 @@ class OrderTest {
         assertThat(order.getFinalBill()).isEqualTo(450.0);
         assertThat(order.getQueuePosition()).isEqualTo(10);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Order should reject transitions outside the lifecycle")
+    void testInvalidTransition() {
+        order.markAsPreparing(OrderCategory.NORMAL, "Chef A", 20);
+
+        assertThatThrownBy(() -> order.assignDelivery("D001", "Bike-12"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
+        assertThat(order.getDriverId()).isNull();
+
+        order.markAsDelivered();
+        order.markAsDelivered();
+        assertThatThrownBy(order::markAsReady).isInstanceOf(IllegalStateException.class);
+    }
+}
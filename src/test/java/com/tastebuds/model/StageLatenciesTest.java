@@ -0,0 +1,95 @@
+package com.tastebuds.model;
+
+import com.tastebuds.metrics.LatencyHistogram;
+
+import org.junit.jupiter.api.*;
+import java.io.StringWriter;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the per-stage order latency histograms
+ */
+class StageLatenciesTest {
+
+    private StageLatencies latencies;
+
+    @BeforeEach
+    void setUp() {
+        latencies = new StageLatencies();
+    }
+
+    private Order tracked(String orderNo) {
+        Order order = new Order(orderNo, "C001", "Pizza", 800.0, 800.0, 1);
+        latencies.track(order);
+        return order;
+    }
+
+    private static void pause() throws InterruptedException {
+        Thread.sleep(2);
+    }
+
+    @Test
+    @DisplayName("Each transition should record the time spent in the status it left")
+    void testStagesRecorded() throws Exception {
+        Order order = tracked("001");
+        pause();
+        order.markAsPreparing(OrderCategory.PRIORITY, "Chef A", 10);
+        pause();
+        order.markAsReady();
+        pause();
+        order.assignDelivery("D001", "Bike");
+        pause();
+        order.markAsDelivered();
+
+        for (OrderStatus stage : new OrderStatus[]{OrderStatus.PLACED, OrderStatus.PREPARING,
+                OrderStatus.READY, OrderStatus.OUT_FOR_DELIVERY}) {
+            LatencyHistogram.Snapshot all = latencies.snapshot(stage);
+            assertThat(all.getCount()).as(stage.name()).isEqualTo(1);
+            assertThat(all.getMax()).as(stage.name()).isGreaterThanOrEqualTo(2_000_000);
+            assertThat(latencies.snapshot(stage, OrderCategory.PRIORITY).getCount()).isEqualTo(1);
+            assertThat(latencies.snapshot(stage, OrderCategory.NORMAL).getCount()).isZero();
+        }
+        assertThat(latencies.endToEnd().getMax()).isGreaterThanOrEqualTo(8_000_000);
+        assertThat(latencies.endToEnd(OrderCategory.PRIORITY).getCount()).isEqualTo(1);
+        assertThatThrownBy(() -> latencies.snapshot(OrderStatus.DELIVERED))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Untracked orders and statuses entered before loading should not be recorded")
+    void testOnlyStampedStagesRecorded() {
+        Order untracked = new Order("001", "C001", "Pizza", 800.0, 800.0, 1);
+        untracked.markAsPreparing(OrderCategory.NORMAL, "Chef A", 10);
+        assertThat(latencies.snapshot(OrderStatus.PLACED).getCount()).isZero();
+
+        // as if loaded from orders.xml: already PREPARING, with no stamp for it
+        Order loaded = new Order();
+        loaded.setOrderNo("002");
+        loaded.setStatus(OrderStatus.PREPARING);
+        latencies.track(loaded);
+        loaded.setStatus(OrderStatus.READY);
+        loaded.setStatus(OrderStatus.DELIVERED);
+
+        assertThat(latencies.snapshot(OrderStatus.READY).getCount()).isEqualTo(1);
+        assertThat(latencies.endToEnd().getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("CSV export should have a row per stage and category")
+    void testExportCsv() throws Exception {
+        Order order = tracked("001");
+        order.markAsPreparing(OrderCategory.NORMAL, "Chef A", 10);
+
+        StringWriter out = new StringWriter();
+        latencies.exportCsv(out);
+        String[] lines = out.toString().split("\\R");
+
+        // header, then 4 stages + end to end, each for ALL, NORMAL and PRIORITY
+        assertThat(lines).hasSize(1 + 5 * 3);
+        assertThat(lines[0]).startsWith("stage,category,count");
+        assertThat(lines[1]).startsWith("PLACED,ALL,1,");
+        assertThat(lines[2]).startsWith("PLACED,NORMAL,1,");
+        assertThat(lines[3]).startsWith("PLACED,PRIORITY,0,");
+        assertThat(latencies.report()).contains("PLACED").doesNotContain("END_TO_END");
+    }
+}
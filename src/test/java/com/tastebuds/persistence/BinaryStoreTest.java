@@ -0,0 +1,149 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the binary snapshot store and the XML converter
+ */
+class BinaryStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private BinaryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new BinaryStore(dir);
+    }
+
+    private static Order deliveredOrder(String orderNo, String customerId) {
+        Order order = new Order(orderNo, customerId, "2x Chicken Biryani, ", 500.25, 450.5, 1);
+        order.setLineItems(new int[]{0}, new int[]{2});
+        order.markAsPreparing(OrderCategory.PRIORITY, "Chef A", 25);
+        order.markAsReady();
+        order.assignDelivery("D001", "Bike-12");
+        order.markAsDelivered();
+        return order;
+    }
+
+    @Test
+    @DisplayName("BinaryStore should round-trip orders with shared strings decoded once")
+    void testOrderRoundTrip() {
+        store.saveOrders(List.of(deliveredOrder("001", "C001"), deliveredOrder("002", "C001"),
+                new Order("003", "C002", "Pizza", 800.0, 800.0, 3)));
+
+        List<Order> loaded = store.loadOrders();
+
+        assertThat(loaded).extracting(Order::getOrderNo).containsExactly("001", "002", "003");
+        Order first = loaded.get(0);
+        assertThat(first.getBillMinor()).isEqualTo(50025);
+        assertThat(first.getFinalBillMinor()).isEqualTo(45050);
+        assertThat(first.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(first.getCategory()).isEqualTo(OrderCategory.PRIORITY);
+        assertThat(first.getVehicle()).isEqualTo("Bike-12");
+        assertThat(first.getEstimatedTime()).isEqualTo(25);
+        assertThat(first.getDeliveredAt()).isPositive();
+        assertThat(first.getMenuItem(0)).isZero();
+        assertThat(first.getQuantity(0)).isEqualTo(2);
+        assertThat(loaded.get(1).getCustomerId()).isSameAs(first.getCustomerId());
+        assertThat(loaded.get(1).getItems()).isSameAs(first.getItems());
+        assertThat(loaded.get(2).hasLineItems()).isFalse();
+        assertThat(loaded.get(2).getStatus()).isEqualTo(OrderStatus.PLACED);
+    }
+
+    @Test
+    @DisplayName("BinaryStore should round-trip customers, staff, vehicles and feedback")
+    void testEntityRoundTrip() {
+        store.saveCustomers(List.of(new RegisteredCustomer("C001", "Samir", 6), new GuestCustomer("G001", "Guest")));
+        store.saveDrivers(List.of(new Driver("D001", "Rahim", new DrivingLicense("DL-1", false))));
+        store.saveChefs(List.of(new Chef("Chef A")));
+        store.saveVehicles(List.of(new Vehicle("V001", "Bike")));
+        store.saveFeedbacks(List.of(new Feedback("001", 4, "Good"), new Feedback("002", 5, null)));
+
+        List<Customer> customers = store.loadCustomers();
+        assertThat(customers.get(0)).isInstanceOf(RegisteredCustomer.class);
+        assertThat(((RegisteredCustomer) customers.get(0)).getDiscount()).isEqualTo(10.0);
+        assertThat(customers.get(1)).isInstanceOf(GuestCustomer.class);
+        assertThat(store.loadDrivers().get(0).getLicense().isValid()).isFalse();
+        assertThat(store.loadChefs()).extracting(Chef::getName).containsExactly("Chef A");
+        assertThat(store.loadVehicles().get(0).getType()).isEqualTo("Bike");
+        assertThat(store.loadFeedbacks()).extracting(Feedback::getComment).containsExactly("Good", null);
+    }
+
+    @Test
+    @DisplayName("BinaryStore should fall back to the previous generation on a bad checksum or truncation")
+    void testCorruptSnapshotFallsBack() throws Exception {
+        store.saveOrders(List.of(deliveredOrder("001", "C001")));
+        store.saveOrders(List.of(deliveredOrder("001", "C001"), deliveredOrder("002", "C002")));
+        Path file = dir.resolve("orders.bin");
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // low bit of the last record byte, ahead of the end-of-records marker and the trailer
+            raf.seek(raf.length() - 18);
+            int b = raf.read();
+            raf.seek(raf.length() - 18);
+            raf.write(b ^ 0x01);
+        }
+        assertThat(store.loadOrders()).extracting(Order::getOrderNo).containsExactly("001");
+        // the checksum only fails at the end, after both orders were streamed
+        List<Order> streamed = new ArrayList<>();
+        assertThat(store.forEachOrder(streamed::add, streamed::clear)).isTrue();
+        assertThat(streamed).extracting(Order::getOrderNo).containsExactly("001");
+        assertThat(store.forEachOrder(order -> {})).isFalse();
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThat(store.loadOrders()).extracting(Order::getOrderNo).containsExactly("001");
+    }
+
+    @Test
+    @DisplayName("BinaryStore should reject a garbage header or record length as corruption")
+    void testGarbageLengthsRejected() throws Exception {
+        store.saveOrders(List.of(deliveredOrder("001", "C001")));
+        Path file = dir.resolve("orders.bin");
+        byte[] good = Files.readAllBytes(file);
+
+        // kind byte (after the magic and the version) naming no data file
+        byte[] badKind = good.clone();
+        badKind[5] = 0x7F;
+        Files.write(file, badKind);
+        assertThat(store.loadOrders()).isEmpty();
+        assertThat(store.forEachOrder(order -> {})).isFalse();
+
+        // first record length claiming about 2 GB
+        byte[] badLength = Arrays.copyOf(good, good.length + 4);
+        System.arraycopy(good, 7, badLength, 11, good.length - 7);
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0, badLength, 6, 5);
+        Files.write(file, badLength);
+        assertThat(store.loadOrders()).isEmpty();
+        assertThat(store.forEachOrder(order -> {})).isFalse();
+    }
+
+    @Test
+    @DisplayName("SnapshotConverter should copy XML data into binary and back")
+    void testConvert() {
+        JAXBHandler xml = new JAXBHandler(dir);
+        xml.saveOrders(List.of(deliveredOrder("001", "C001")));
+        xml.saveCustomers(List.of(new RegisteredCustomer("C001", "Samir", 3)));
+
+        assertThat(SnapshotConverter.convert(xml, store)).isTrue();
+        assertThat(store.loadOrders().get(0).getFinalBillMinor()).isEqualTo(45050);
+        assertThat(store.loadCustomers()).extracting(Customer::getId).containsExactly("C001");
+
+        xml.clearAllData();
+        assertThat(SnapshotConverter.convert(store, xml)).isTrue();
+        assertThat(xml.loadOrders().get(0).getStatus()).isEqualTo(OrderStatus.DELIVERED);
+    }
+}
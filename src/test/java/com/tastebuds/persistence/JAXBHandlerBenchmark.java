@@ -0,0 +1,94 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.*;
+import jakarta.xml.bind.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold (new JAXBContext per call, the old JAXBHandler behaviour) vs warm
+ * (JAXBContextRegistry) save/load cycle of an OrderList, marshalled in memory; and
+ * the real JAXBHandler.saveOrders, temp file and atomic swap included, into a
+ * scratch directory so data/ is left alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JAXBHandlerBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int orderCount;
+
+    private OrderList orderList;
+    private Path dataDir;
+    private JAXBHandler handler;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= orderCount; i++) {
+            orders.add(new Order(String.format("%03d", i), "C001", "2x Chicken Biryani, ", 500.0, 450.0, i));
+        }
+        orderList = new OrderList(orders);
+
+        dataDir = Files.createTempDirectory("jaxb-bench");
+        handler = new JAXBHandler(dataDir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public OrderList coldSaveLoad() throws JAXBException {
+        JAXBContext context = JAXBContext.newInstance(OrderList.class);
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaller.marshal(orderList, out);
+
+        Unmarshaller unmarshaller = JAXBContext.newInstance(OrderList.class).createUnmarshaller();
+        return (OrderList) unmarshaller.unmarshal(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Benchmark
+    public OrderList warmSaveLoad() throws JAXBException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JAXBContextRegistry.marshaller(OrderList.class).marshal(orderList, out);
+
+        Unmarshaller unmarshaller = JAXBContextRegistry.unmarshaller(OrderList.class);
+        return (OrderList) unmarshaller.unmarshal(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Benchmark
+    public boolean saveOrders() {
+        return handler.saveOrders(orderList.getOrders());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JAXBHandlerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
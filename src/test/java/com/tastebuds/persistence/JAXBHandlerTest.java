@@ -1,11 +1,16 @@
 package com.tastebuds.persistence;
 
+import com.tastebuds.metrics.MetricsRegistry;
 import com.tastebuds.model.*;
 import com.tastebuds.model.Order;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import static org.assertj.core.api.Assertions.*;
 
@@ -121,11 +126,118 @@ class JAXBHandlerTest {
         assertThat(loaded).hasSize(1);
         assertThat(loaded.get(0).getOrderNo()).isEqualTo("001");
         assertThat(loaded.get(0).getCustomerId()).isEqualTo("C001");
-        assertThat(loaded.get(0).getStatus()).isEqualTo("PREPARING");
+        assertThat(loaded.get(0).getStatus()).isEqualTo(OrderStatus.PREPARING);
         assertThat(loaded.get(0).getCategory()).isEqualTo(OrderCategory.PRIORITY);
         assertThat(loaded.get(0).getAssignedChefs()).isEqualTo("Chef A");
     }
 
+    @Test
+    @DisplayName("JAXBHandler should save and load order line items")
+    void testSaveAndLoadLineItems() {
+        Order order = new Order("001", "C001", "2x Chicken Biryani, 1x Green Salad, ", 580.0, 580.0, 1);
+        order.setLineItems(new int[]{0, 7}, new int[]{2, 1});
+        Order freeText = new Order("002", "C001", "Pizza", 800.0, 800.0, 2);
+
+        handler.saveOrders(List.of(order, freeText));
+        List<Order> loaded = handler.loadOrders();
+
+        assertThat(loaded.get(0).getLineItemCount()).isEqualTo(2);
+        assertThat(loaded.get(0).getMenuItem(1)).isEqualTo(7);
+        assertThat(loaded.get(0).getQuantity(0)).isEqualTo(2);
+        assertThat(loaded.get(0).getItems()).isEqualTo("2x Chicken Biryani, 1x Green Salad, ");
+        assertThat(loaded.get(1).hasLineItems()).isFalse();
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should load the shipped menu file")
+    void testLoadMenu() {
+        MenuItemList menu = handler.loadMenu();
+
+        assertThat(menu).isNotNull();
+        assertThat(menu.getVersion()).isGreaterThanOrEqualTo(1);
+        assertThat(menu.getItems()).extracting(MenuItem::getName).contains("Chicken Biryani", "Green Salad");
+        assertThat(menu.getItems()).allMatch(MenuItem::isActive);
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should read amounts written as doubles exactly")
+    void testLegacyAmounts() throws Exception {
+        Files.writeString(Path.of(TEST_DATA_DIR + "orders.xml"),
+                "<orders><order><orderNo>001</orderNo><customerId>C001</customerId><items>Pizza</items>"
+                        + "<billAmount>1000.1</billAmount><finalBill>900.09</finalBill>"
+                        + "<status>PLACED</status></order></orders>");
+
+        Order order = handler.loadOrders().get(0);
+
+        assertThat(order.getBillMinor()).isEqualTo(100010);
+        assertThat(order.getFinalBillMinor()).isEqualTo(90009);
+
+        handler.saveOrders(List.of(order));
+        assertThat(handler.loadOrders().get(0).getFinalBillMinor()).isEqualTo(90009);
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should fall back to the previous generation of a truncated file")
+    void testTruncatedFileFallsBack() throws Exception {
+        handler.saveOrders(List.of(new Order("001", "C001", "Pizza", 1000.0, 900.0, 1)));
+        handler.saveOrders(List.of(new Order("001", "C001", "Pizza", 1000.0, 900.0, 1),
+                new Order("002", "C002", "Steak", 2000.0, 1800.0, 2)));
+        Path orders = Path.of(TEST_DATA_DIR + "orders.xml");
+
+        assertThat(handler.loadOrders()).hasSize(2);
+        assertThat(Path.of(TEST_DATA_DIR + "orders.xml.tmp")).doesNotExist();
+
+        // a crash halfway through a non-atomic write
+        byte[] full = Files.readAllBytes(orders);
+        Files.write(orders, Arrays.copyOf(full, full.length / 2));
+        assertThat(handler.loadOrders()).extracting(Order::getOrderNo).containsExactly("001");
+
+        // a crash between moving the old file aside and renaming the new one in
+        Files.delete(orders);
+        assertThat(handler.loadOrders()).extracting(Order::getOrderNo).containsExactly("001");
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should fall back when a complete-looking file does not parse")
+    void testCorruptFileFallsBack() throws Exception {
+        handler.saveDrivers(List.of(new Driver("D001", "Rahim", "DL-1")));
+        handler.saveDrivers(List.of(new Driver("D002", "Karim", "DL-2")));
+        Files.writeString(Path.of(TEST_DATA_DIR + "drivers.xml"),
+                "<drivers><driver><id>D9</drivers>");
+
+        assertThat(handler.loadDrivers()).extracting(Driver::getId).containsExactly("D001");
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should fall back when orders.xml does not parse")
+    void testCorruptOrdersFallBack() throws Exception {
+        handler.saveOrders(List.of(new Order("001", "C001", "Pizza", 1000.0, 900.0, 1)));
+        handler.saveOrders(List.of(new Order("001", "C001", "Pizza", 1000.0, 900.0, 1),
+                new Order("002", "C002", "Steak", 2000.0, 1800.0, 2)));
+        // the first order parses, the second does not, and the closing tag is intact
+        Files.writeString(Path.of(TEST_DATA_DIR + "orders.xml"),
+                "<orders><order><orderNo>001</orderNo><customerId>C001</customerId></order>"
+                        + "<order><orderNo>002</orders>");
+
+        // streamed: the bad file is found out after order 001 went by, so the reader starts over
+        List<Order> seen = new ArrayList<>();
+        int[] restarts = {0};
+        assertThat(handler.forEachOrder(seen::add, () -> {
+            restarts[0]++;
+            seen.clear();
+        })).isTrue();
+        assertThat(restarts[0]).isEqualTo(1);
+        assertThat(seen).extracting(Order::getOrderNo).containsExactly("001");
+        assertThat(seen.get(0).getItems()).isEqualTo("Pizza");
+        assertThat(handler.loadOrders()).extracting(Order::getOrderNo).containsExactly("001");
+        // without a way to start over, the partial read is reported as a failure
+        assertThat(handler.forEachOrder(order -> {})).isFalse();
+
+        Files.delete(Path.of(TEST_DATA_DIR + "orders.xml.prev"));
+        assertThat(handler.forEachOrder(order -> {}, () -> {})).isFalse();
+        assertThat(handler.loadOrders()).isEmpty();
+    }
+
     @Test
     @DisplayName("JAXBHandler should preserve order lifecycle")
     void testOrderLifecyclePersistence() {
@@ -139,11 +251,30 @@ class JAXBHandlerTest {
         handler.saveOrders(orders);
         List<Order> loaded = handler.loadOrders();
 
-        assertThat(loaded.get(0).getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(loaded.get(0).getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(loaded.get(0).getDriverId()).isEqualTo("D001");
         assertThat(loaded.get(0).getVehicle()).isEqualTo("Car-5");
     }
 
+    @Test
+    @DisplayName("JAXBHandler should stream orders one at a time")
+    void testStreamOrders() {
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order("001", "C001", "Pizza", 1000.0, 900.0, 1));
+        orders.add(new Order("002", "C002", "Steak", 2000.0, 1800.0, 2));
+        orders.add(new Order("003", "C001", "Burger", 500.0, 450.0, 3));
+        handler.saveOrders(orders);
+
+        List<String> seen = new ArrayList<>();
+        assertThat(handler.forEachOrder(o -> seen.add(o.getOrderNo()))).isTrue();
+        assertThat(seen).containsExactly("001", "002", "003");
+
+        try (var stream = handler.streamOrders()) {
+            assertThat(stream.map(Order::getCustomerId).toList())
+                    .containsExactly("C001", "C002", "C001");
+        }
+    }
+
     // ==================== DRIVER TESTS ====================
 
     @Test
@@ -268,4 +399,54 @@ class JAXBHandlerTest {
         assertThat(drivers).isEmpty();
         assertThat(feedbacks).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("JAXBHandler should reuse cached JAXB context and marshallers")
+    void testContextAndMarshallerReuse() throws Exception {
+        assertThat(JAXBContextRegistry.context(OrderList.class))
+                .isSameAs(JAXBContextRegistry.context(OrderList.class));
+        assertThat(JAXBContextRegistry.marshaller(OrderList.class))
+                .isSameAs(JAXBContextRegistry.marshaller(OrderList.class));
+        assertThat(JAXBContextRegistry.unmarshaller(OrderList.class))
+                .isSameAs(JAXBContextRegistry.unmarshaller(OrderList.class));
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should keep its files in the directory it was given")
+    void testCustomDataDirectory(@TempDir Path dir) {
+        JAXBHandler scratch = new JAXBHandler(dir.resolve("store"));
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order("001", "C001", "Pizza", 800.0, 800.0, 1));
+
+        assertThat(scratch.saveOrders(orders)).isTrue();
+
+        assertThat(dir.resolve("store").resolve("orders.xml")).exists();
+        assertThat(new File(TEST_DATA_DIR + "orders.xml")).doesNotExist();
+        assertThat(scratch.sizeOf(DataFile.ORDERS)).isPositive();
+        assertThat(scratch.loadOrders()).extracting(Order::getOrderNo).containsExactly("001");
+    }
+
+    @Test
+    @DisplayName("JAXBHandler should report save time and bytes once metrics are bound")
+    void testSaveMetrics(@TempDir Path dir) {
+        JAXBHandler scratch = new JAXBHandler(dir);
+        MetricsRegistry registry = new MetricsRegistry();
+        scratch.bindMetrics(registry);
+
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order("001", "C001", "Pizza", 800.0, 800.0, 1));
+        scratch.saveOrders(orders);
+
+        long bytes = registry.counter("tastebuds_store_written_bytes_total", "",
+                "format", "xml", "file", "orders").get();
+        assertThat(bytes).isEqualTo(scratch.sizeOf(DataFile.ORDERS));
+        assertThat(registry.timer("tastebuds_store_save_seconds", "",
+                "format", "xml", "file", "orders").snapshot().getCount()).isEqualTo(1);
+
+        // every series exists from the start, one per data file plus the menu
+        String text = registry.scrape();
+        assertThat(text).contains("tastebuds_store_save_failures_total{format=\"xml\",file=\"customers\"} 0\n");
+        assertThat(text).contains("tastebuds_store_save_seconds_count{format=\"xml\",file=\"menu\"} 0\n");
+        assertThat(text).doesNotContain("orders.xml");
+    }
+}
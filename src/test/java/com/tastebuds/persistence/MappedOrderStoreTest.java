@@ -0,0 +1,136 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped store of delivered orders
+ */
+class MappedOrderStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private MappedOrderStore open() throws Exception {
+        return MappedOrderStore.open(dir.resolve("history.rec"), dir.resolve("history.str"));
+    }
+
+    private static Order deliveredOrder(String orderNo, String customerId) {
+        Order order = new Order(orderNo, customerId, "2x Chicken Biryani, 1x Green Salad, ", 580.0, 522.0, 1);
+        order.setLineItems(new int[]{0, 7}, new int[]{2, 1});
+        order.markAsPreparing(OrderCategory.PRIORITY, "Chef A", 25);
+        order.markAsReady();
+        order.assignDelivery("D001", "Bike-12");
+        order.markAsDelivered();
+        return order;
+    }
+
+    @Test
+    @DisplayName("MappedOrderStore should read every field back through a view")
+    void testViewReadsFields() throws Exception {
+        try (MappedOrderStore store = open()) {
+            store.append(List.of(deliveredOrder("001", "C001"), new Order("002", "C002", "Pizza", 800.0, 800.0, 2)));
+
+            OrderView view = store.find("001");
+            assertThat(view.getOrderNo()).isEqualTo("001");
+            assertThat(view.getCustomerId()).isEqualTo("C001");
+            assertThat(view.getBillMinor()).isEqualTo(58000);
+            assertThat(view.getFinalBillMinor()).isEqualTo(52200);
+            assertThat(view.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+            assertThat(view.getCategory()).isEqualTo(OrderCategory.PRIORITY);
+            assertThat(view.getAssignedChefs()).isEqualTo("Chef A");
+            assertThat(view.getEstimatedTime()).isEqualTo(25);
+            assertThat(view.getDriverId()).isEqualTo("D001");
+            assertThat(view.getVehicle()).isEqualTo("Bike-12");
+            assertThat(view.getLineItemCount()).isEqualTo(2);
+            assertThat(view.getMenuItem(1)).isEqualTo(7);
+            assertThat(view.getQuantity(0)).isEqualTo(2);
+            assertThat(view.getDeliveredAt()).isPositive();
+
+            OrderView free = store.find("002");
+            assertThat(free.hasLineItems()).isFalse();
+            assertThat(free.getDriverId()).isNull();
+            assertThat(store.find("003")).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("MappedOrderStore should keep its orders and index across reopen and growth")
+    void testReopenAfterGrowth() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            orders.add(deliveredOrder(String.format("%03d", i), "C" + (i % 10)));
+        }
+        try (MappedOrderStore store = open()) {
+            assertThat(store.append(orders.subList(0, 1000))).isEqualTo(1000);
+            assertThat(store.append(orders)).isEqualTo(2000);
+        }
+
+        try (MappedOrderStore store = open()) {
+            assertThat(store.size()).isEqualTo(3000);
+            assertThat(store.find("2999").getCustomerId()).isEqualTo("C9");
+            Order copy = store.find("1500").toOrder();
+            assertThat(copy.getFinalBill()).isEqualTo(522.0);
+            assertThat(copy.getMenuItem(1)).isEqualTo(7);
+
+            long[] total = {0};
+            store.forEach(view -> total[0] += view.getFinalBillMinor());
+            assertThat(total[0]).isEqualTo(3000L * 52200);
+        }
+    }
+
+    @Test
+    @DisplayName("MappedOrderStore should ignore records written past the committed count")
+    void testUncommittedTailIgnored() throws Exception {
+        try (MappedOrderStore store = open()) {
+            store.append(List.of(deliveredOrder("001", "C001"), deliveredOrder("002", "C001")));
+        }
+        // as if the process died after writing record 2 but before bumping the count
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve("history.rec").toFile(), "rw")) {
+            file.seek(8);
+            file.writeInt(1);
+        }
+
+        try (MappedOrderStore store = open()) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.contains("002")).isFalse();
+            assertThat(store.append(List.of(deliveredOrder("002", "C002")))).isEqualTo(1);
+            assertThat(store.find("002").getCustomerId()).isEqualTo("C002");
+        }
+    }
+
+    @Test
+    @DisplayName("MappedOrderStore should report a record pointing outside its strings as an IOException")
+    void testCorruptReferenceRejected() throws Exception {
+        Path records = dir.resolve("orders-history.rec");
+        Path strings = dir.resolve("orders-history.str");
+        try (MappedOrderStore store = MappedOrderStore.open(records, strings)) {
+            store.append(List.of(deliveredOrder("001", "C001"), deliveredOrder("002", "C001")));
+        }
+        // order number of record 1 pointing far past the end of the strings file
+        try (RandomAccessFile file = new RandomAccessFile(records.toFile(), "rw")) {
+            file.seek(16 + MappedOrderStore.RECORD_BYTES + MappedOrderStore.ORDER_NO);
+            file.writeInt(Integer.MAX_VALUE - 8);
+        }
+
+        assertThatThrownBy(() -> MappedOrderStore.open(records, strings))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("orders-history.rec")
+                .hasMessageContaining("record 1");
+
+        // the store starts a new history instead of failing startup
+        try (MappedOrderStore history = new JAXBHandler(dir).openOrderHistory()) {
+            assertThat(history).isNotNull();
+            assertThat(history.size()).isZero();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the month-partitioned order archive
+ */
+class OrderArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private OrderArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new OrderArchive(dir, ZoneOffset.UTC);
+    }
+
+    private static Order deliveredOn(String orderNo, int year, int month, int day) {
+        Order order = new Order(orderNo, "C001", "Pizza", 800.0, 720.0, 1);
+        order.setStatus(OrderStatus.DELIVERED);
+        order.setDeliveredAt(LocalDateTime.of(year, month, day, 12, 0).toInstant(ZoneOffset.UTC).toEpochMilli());
+        return order;
+    }
+
+    @Test
+    @DisplayName("OrderArchive should put each order in the partition of its delivery month")
+    void testPartitionsByMonth() throws Exception {
+        assertThat(archive.archive(List.of(
+                deliveredOn("001", 2026, 9, 30),
+                deliveredOn("002", 2026, 10, 1),
+                deliveredOn("003", 2026, 10, 18)))).isTrue();
+
+        assertThat(archive.partitions()).containsExactly(YearMonth.of(2026, 9), YearMonth.of(2026, 10));
+        assertThat(Files.isDirectory(dir.resolve("orders-2026-10"))).isTrue();
+        assertThat(archive.load(YearMonth.of(2026, 10))).extracting(Order::getOrderNo).containsExactly("002", "003");
+        assertThat(archive.load(YearMonth.of(2026, 8))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("OrderArchive should not archive the same order twice")
+    void testArchiveIsIdempotent() throws Exception {
+        archive.archive(List.of(deliveredOn("001", 2026, 10, 1)));
+        archive.archive(List.of(deliveredOn("001", 2026, 10, 1), deliveredOn("002", 2026, 10, 2)));
+
+        List<Order> all = new ArrayList<>();
+        assertThat(archive.forEachOrder(all::add)).isTrue();
+        assertThat(all).extracting(Order::getOrderNo).containsExactly("001", "002");
+        assertThat(all.get(0).getFinalBill()).isEqualTo(720.0);
+        assertThat(all.get(0).getDeliveredAt()).isEqualTo(deliveredOn("001", 2026, 10, 1).getDeliveredAt());
+
+        archive.clear();
+        assertThat(archive.partitions()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("OrderArchive should append a segment per pass and leave larger ones untouched")
+    void testAppendOnlySegments() throws Exception {
+        List<Order> first = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            first.add(deliveredOn(String.format("%03d", i), 2026, 10, i));
+        }
+        archive.archive(first);
+        Path base = segments(YearMonth.of(2026, 10)).get(0);
+        byte[] before = Files.readAllBytes(base);
+
+        for (int i = 11; i <= 16; i++) {
+            assertThat(archive.archive(List.of(deliveredOn(String.format("%03d", i), 2026, 10, 20)))).isTrue();
+        }
+
+        // six one-order passes carry into two segments, neither as large as the first, which stays put
+        List<Path> segments = segments(YearMonth.of(2026, 10));
+        assertThat(segments.get(0)).isEqualTo(base);
+        assertThat(Files.readAllBytes(base)).isEqualTo(before);
+        assertThat(segments).hasSize(3);
+        assertThat(archive.load(YearMonth.of(2026, 10))).extracting(Order::getOrderNo)
+                .hasSize(16).startsWith("001", "002").endsWith("016").doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("OrderArchive should leave a segment alone when it cannot be read")
+    void testUnreadableSegmentKept() throws Exception {
+        archive.archive(List.of(deliveredOn("001", 2026, 10, 1)));
+        Path file = segments(YearMonth.of(2026, 10)).get(0);
+        Files.writeString(file, "<orders><order>");
+
+        // the new orders still go in; only the merge with the bad segment is skipped
+        assertThat(archive.archive(List.of(deliveredOn("002", 2026, 10, 2)))).isTrue();
+        assertThat(Files.readString(file)).isEqualTo("<orders><order>");
+        assertThat(segments(YearMonth.of(2026, 10))).hasSize(2);
+        assertThatThrownBy(() -> archive.load(YearMonth.of(2026, 10))).isInstanceOf(IOException.class);
+        assertThat(archive.forEachOrder(order -> {})).isFalse();
+    }
+
+    private List<Path> segments(YearMonth month) throws IOException {
+        try (Stream<Path> files = Files.list(archive.partitionDir(month))) {
+            return files.filter(f -> f.toString().endsWith(".xml")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.OrderCategory;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the order lifecycle journal
+ */
+class OrderJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Journal should replay appended events in order")
+    void testAppendAndReplay() throws Exception {
+        Path file = tempDir.resolve("orders.journal");
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            journal.append(JournalEvent.orderPlaced("001", "C001", "1x Fried Rice, ", 20000, 18000, 1,
+                    new int[]{5}, new int[]{1}));
+            journal.append(JournalEvent.preparing("001", OrderCategory.PRIORITY, "Chef A", 20));
+            journal.append(JournalEvent.ready("001"));
+            journal.append(JournalEvent.outForDelivery("001", "D001", "Bike-12"));
+            journal.append(JournalEvent.feedback("001", 5, null));
+        }
+
+        List<JournalEvent> events = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            assertThat(journal.replay(events::add)).isEqualTo(5);
+        }
+
+        assertThat(events).extracting(JournalEvent::getType).containsExactly(
+                JournalEvent.Type.ORDER_PLACED, JournalEvent.Type.PREPARING, JournalEvent.Type.READY,
+                JournalEvent.Type.OUT_FOR_DELIVERY, JournalEvent.Type.FEEDBACK);
+        assertThat(events.get(0).getFinalBillMinor()).isEqualTo(18000);
+        assertThat(events.get(0).getMenuItems()).containsExactly(5);
+        assertThat(events.get(0).getQuantities()).containsExactly(1);
+        assertThat(events.get(1).getCategory()).isEqualTo(OrderCategory.PRIORITY);
+        assertThat(events.get(3).getVehicle()).isEqualTo("Bike-12");
+        assertThat(events.get(4).getComment()).isNull();
+    }
+
+    @Test
+    @DisplayName("Journal should drop a torn tail record and keep appending after it")
+    void testTornTailIsDiscarded() throws Exception {
+        Path file = tempDir.resolve("orders.journal");
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            journal.append(JournalEvent.ready("001"));
+            journal.append(JournalEvent.delivered("001"));
+        }
+        long intact = Files.size(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(intact - 3);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            assertThat(journal.replay(e -> {})).isEqualTo(1);
+            journal.append(JournalEvent.ready("002"));
+        }
+
+        List<String> orderNos = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            journal.replay(e -> orderNos.add(e.getOrderNo()));
+        }
+        assertThat(orderNos).containsExactly("001", "002");
+    }
+
+    @Test
+    @DisplayName("Journal should be empty after truncate")
+    void testTruncate() throws Exception {
+        Path file = tempDir.resolve("orders.journal");
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            journal.append(JournalEvent.ready("001"));
+            journal.truncate();
+            assertThat(journal.replay(e -> {})).isZero();
+        }
+        assertThat(Files.size(file)).isZero();
+    }
+}
@@ -0,0 +1,94 @@
+package com.tastebuds.persistence;
+
+import com.tastebuds.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading an order history from formatted XML (the StAX + JAXB path JAXBHandler uses)
+ * vs from a binary snapshot. Both documents are built in memory in setup, so the data/
+ * directory is left alone and the numbers are parse cost only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SnapshotBenchmark {
+    private static final String[] ITEMS = {
+            "2x Chicken Biryani, ", "1x Beef Steak, 1x Soft Drink (500ml), ", "3x Fried Rice, ",
+            "1x Mixed Grill Platter, 2x Green Salad, ", "1x Chicken Burger, 1x Chocolate Cake (slice), "
+    };
+
+    @Param({"1000000"})
+    private int orderCount;
+
+    private byte[] xml;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 1; i <= orderCount; i++) {
+            Order order = new Order(String.format("%07d", i), String.format("C%04d", i % 5000),
+                    ITEMS[i % ITEMS.length], 500 + i % 700, 450 + i % 700, 0);
+            order.setLineItems(new int[]{i % 10, (i + 3) % 10}, new int[]{1 + i % 3, 1});
+            order.markAsPreparing(OrderCategory.NORMAL, "Chef " + (i % 8), 20);
+            order.markAsReady();
+            order.assignDelivery(String.format("D%03d", i % 200), String.format("V%03d", i % 150));
+            order.markAsDelivered();
+            orders.add(order);
+        }
+
+        ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+        JAXBContextRegistry.marshaller(OrderList.class).marshal(new OrderList(orders), xmlOut);
+        xml = xmlOut.toByteArray();
+
+        ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+        SnapshotOutput snapshot = new SnapshotOutput(binaryOut, DataFile.ORDERS);
+        for (Order order : orders) {
+            snapshot.write(SnapshotCodec.ORDER, order);
+        }
+        snapshot.finish();
+        binary = binaryOut.toByteArray();
+
+        System.out.printf("%n%d orders: XML %d bytes, binary %d bytes%n", orderCount, xml.length, binary.length);
+    }
+
+    @Benchmark
+    public int loadXml() throws Exception {
+        int count = 0;
+        try (OrderStreamReader reader = new OrderStreamReader(new ByteArrayInputStream(xml))) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int loadBinary() throws Exception {
+        int count = 0;
+        try (SnapshotInput in = new SnapshotInput(new ByteArrayInputStream(binary), DataFile.ORDERS)) {
+            while (in.read(SnapshotCodec.ORDER) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
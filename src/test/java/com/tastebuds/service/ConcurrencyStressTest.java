@@ -0,0 +1,129 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Several terminals driving one TasteBudsSystem at the same time
+ */
+class ConcurrencyStressTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int DRIVERS = 3;
+    private static final int VEHICLES = 4;
+
+    private TasteBudsSystem system;
+
+    @BeforeEach
+    void setUp() {
+        system = new TasteBudsSystem(new KitchenScheduler(0));
+        for (int i = 1; i <= DRIVERS; i++) {
+            system.addDriver(new Driver("D" + i, "Driver " + i, "LIC-" + i));
+        }
+        for (int i = 1; i <= VEHICLES; i++) {
+            system.addVehicle(new Vehicle("V" + i, "Bike"));
+        }
+        system.addCustomer(new RegisteredCustomer("C001", "Samir"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        system.shutdown();
+    }
+
+    @Test
+    @DisplayName("Parallel order lifecycles never double-book a driver or vehicle")
+    void testParallelLifecycles() throws Exception {
+        Set<String> busyDrivers = ConcurrentHashMap.newKeySet();
+        Set<String> busyVehicles = ConcurrentHashMap.newKeySet();
+        Set<String> orderNos = ConcurrentHashMap.newKeySet();
+        AtomicInteger violations = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Customer customer = system.findCustomer("C001");
+
+        Callable<Void> terminal = () -> {
+            start.await();
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                Order order = system.placeOrder(customer, "1x Fried Rice, ", 200.0);
+                String orderNo = order.getOrderNo();
+                if (!orderNos.add(orderNo)) violations.incrementAndGet();
+
+                system.prepareOrder(orderNo, OrderCategory.NORMAL, "Chef A", 0);
+                while (order.getStatus() != OrderStatus.READY) {
+                    Thread.onSpinWait();
+                }
+
+                while (!system.autoAssignDelivery(orderNo)) {
+                    Thread.yield();
+                }
+                if (!busyDrivers.add(order.getDriverId())) violations.incrementAndGet();
+                if (!busyVehicles.add(order.getVehicle())) violations.incrementAndGet();
+
+                // release our claim before completing, so the next owner can claim it
+                busyDrivers.remove(order.getDriverId());
+                busyVehicles.remove(order.getVehicle());
+                String license = system.findDriver(order.getDriverId()).getLicense().getLicenseNo();
+                if (!system.driverCompleteDelivery(orderNo, license)) violations.incrementAndGet();
+            }
+            return null;
+        };
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(terminal));
+        }
+        start.countDown();
+        for (Future<Void> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int total = THREADS * ORDERS_PER_THREAD;
+        assertThat(violations.get()).isZero();
+        assertThat(orderNos).hasSize(total);
+        assertThat(system.getOrders()).hasSize(total)
+                .allMatch(o -> o.getStatus() == OrderStatus.DELIVERED)
+                .allMatch(o -> o.getQueuePosition() == 0);
+        assertThat(system.getDrivers()).allMatch(Driver::isAvailable);
+        assertThat(system.getVehicles()).allMatch(Vehicle::isAvailable);
+        assertThat(system.getCurrentServingOrder()).isEqualTo(total + 1);
+        assertThat(((RegisteredCustomer) customer).getOrdersThisMonth()).isEqualTo(total);
+    }
+
+    @Test
+    @DisplayName("Only one of several managers gets to assign the same order")
+    void testSameOrderAssignedOnce() throws Exception {
+        Order order = system.placeOrder(system.findCustomer("C001"), "1x Fried Rice, ", 200.0);
+        order.markAsReady();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return system.autoAssignDelivery(order.getOrderNo());
+            }));
+        }
+        start.countDown();
+
+        int assigned = 0;
+        for (Future<Boolean> r : results) {
+            if (r.get(10, TimeUnit.SECONDS)) assigned++;
+        }
+        pool.shutdown();
+
+        assertThat(assigned).isEqualTo(1);
+        assertThat(system.getDrivers().stream().filter(d -> !d.isAvailable()).count()).isEqualTo(1);
+        assertThat(system.getVehicles().stream().filter(v -> !v.isAvailable()).count()).isEqualTo(1);
+    }
+}
@@ -32,7 +32,7 @@ class DriverDeliveryTest {
         system.assignDelivery(order.getOrderNo(), driver.getId(), vehicle.getVehicleId());
 
         // Sanity checks before completion
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(driver.isAvailable()).isFalse();
         assertThat(vehicle.isAvailable()).isFalse();
 
@@ -41,7 +41,7 @@ class DriverDeliveryTest {
         assertThat(done).isTrue();
 
         // Post-conditions
-        assertThat(order.getStatus()).isEqualTo("DELIVERED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
         assertThat(driver.isAvailable()).isTrue();
         assertThat(vehicle.isAvailable()).isTrue();
         assertThat(order.getQueuePosition()).isEqualTo(0);
@@ -0,0 +1,64 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.Order;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOrder via the hash index vs the old stream scan, from 1k to 1M orders.
+ * The indexed lookup should stay flat as the order history grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindOrderBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int orderCount;
+
+    private TasteBudsSystem system;
+    private String[] orderNos;
+
+    @Setup
+    public void setUp() {
+        system = new TasteBudsSystem();
+        orderNos = new String[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            orderNos[i] = String.format("%03d", i + 1);
+            system.addOrder(new Order(orderNos[i], "C001", "1x Fried Rice, ", 200.0, 200.0, 0));
+        }
+    }
+
+    private String randomOrderNo() {
+        // copy so the lookup pays for hashing, as a caller's freshly read order number would
+        return new String(orderNos[ThreadLocalRandom.current().nextInt(orderCount)]);
+    }
+
+    @Benchmark
+    public Order indexedLookup() {
+        return system.findOrder(randomOrderNo());
+    }
+
+    @Benchmark
+    public Order linearScan() {
+        String orderNo = randomOrderNo();
+        return system.getOrders().stream()
+                .filter(o -> o.getOrderNo().equals(orderNo))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FindOrderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
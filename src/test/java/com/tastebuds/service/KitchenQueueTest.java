@@ -0,0 +1,108 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the priority-aware kitchen dispatch queue
+ */
+class KitchenQueueTest {
+
+    private KitchenQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new KitchenQueue(2);
+    }
+
+    private Order order(String orderNo, double finalBill) {
+        return new Order(orderNo, "C001", "Pizza", finalBill, finalBill, 1);
+    }
+
+    private List<String> drain() {
+        List<String> served = new ArrayList<>();
+        Order next;
+        while ((next = queue.poll()) != null) {
+            served.add(next.getOrderNo());
+        }
+        return served;
+    }
+
+    @Test
+    @DisplayName("High-value orders should be dispatched ahead of normal ones")
+    void testPriorityFirst() {
+        queue.add(order("001", 500.0));
+        queue.add(order("002", 1500.0));
+        queue.add(order("003", 300.0));
+
+        assertThat(KitchenQueue.categoryOf(order("004", 1500.0))).isEqualTo(OrderCategory.PRIORITY);
+        assertThat(queue.size(OrderCategory.PRIORITY)).isEqualTo(1);
+        assertThat(drain()).containsExactly("002", "001", "003");
+    }
+
+    @Test
+    @DisplayName("Normal orders should get a turn after a burst of priority orders")
+    void testStarvationProtection() {
+        queue.add(order("001", 500.0));
+        for (int i = 2; i <= 6; i++) {
+            queue.add(order(String.format("%03d", i), 2000.0));
+        }
+
+        assertThat(drain()).containsExactly("002", "003", "001", "004", "005", "006");
+    }
+
+    @Test
+    @DisplayName("Orders taken by number should not be dispatched again")
+    void testRemove() {
+        Order first = order("001", 500.0);
+        queue.add(first);
+        queue.add(order("002", 500.0));
+
+        assertThat(queue.add(first)).isFalse();
+        assertThat(queue.remove(first)).isTrue();
+        assertThat(queue.remove(first)).isFalse();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(drain()).containsExactly("002");
+    }
+
+    @Test
+    @DisplayName("Peeking should leave the order queued until it is removed")
+    void testPeek() {
+        Order normal = order("001", 500.0);
+        queue.add(normal);
+        for (int i = 2; i <= 4; i++) {
+            queue.add(order(String.format("%03d", i), 2000.0));
+        }
+
+        Order next = queue.peek();
+        assertThat(next.getOrderNo()).isEqualTo("002");
+        assertThat(queue.peek()).isSameAs(next);
+        assertThat(queue.size()).isEqualTo(4);
+
+        // the burst is counted as orders are taken, by peek-and-remove as by poll
+        queue.remove(next);
+        queue.remove(queue.peek());
+        assertThat(queue.peek()).isSameAs(normal);
+        assertThat(drain()).containsExactly("001", "004");
+    }
+
+    @Test
+    @DisplayName("Wait times should be recorded per category")
+    void testWaitStats() {
+        queue.add(order("001", 500.0));
+        queue.add(order("002", 1500.0));
+        queue.add(order("003", 1500.0));
+        drain();
+
+        Map<OrderCategory, KitchenQueue.WaitStats> stats = queue.waitStats();
+        assertThat(stats.get(OrderCategory.PRIORITY).getCount()).isEqualTo(2);
+        assertThat(stats.get(OrderCategory.NORMAL).getCount()).isEqualTo(1);
+        assertThat(stats.get(OrderCategory.NORMAL).getMaxMillis()).isGreaterThanOrEqualTo(0);
+    }
+}
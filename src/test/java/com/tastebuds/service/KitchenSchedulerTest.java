@@ -0,0 +1,80 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+
+import org.junit.jupiter.api.*;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the kitchen ready-time scheduler
+ */
+class KitchenSchedulerTest {
+
+    private KitchenScheduler kitchen;
+
+    @BeforeEach
+    void setUp() {
+        kitchen = new KitchenScheduler(10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        kitchen.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private Order preparingOrder(String orderNo, int minutes) {
+        Order order = new Order(orderNo, "C001", "Pizza", 800.0, 800.0, 1);
+        order.markAsPreparing(OrderCategory.NORMAL, "Chef A", minutes);
+        return order;
+    }
+
+    @Test
+    @DisplayName("Scheduler should mark order ready after its estimated time")
+    void testReadyAfterEstimatedTime() throws InterruptedException {
+        Order order = preparingOrder("001", 5);
+        CountDownLatch ready = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        kitchen.schedule(order, () -> {
+            order.markAsReady();
+            ready.countDown();
+        });
+
+        assertThat(ready.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
+        assertThat(kitchen.isPending("001")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Cancelled order should never become ready")
+    void testCancel() throws InterruptedException {
+        Order order = preparingOrder("001", 10);
+        kitchen.schedule(order, order::markAsReady);
+
+        assertThat(kitchen.cancel("001")).isTrue();
+        assertThat(kitchen.cancel("001")).isFalse();
+
+        Thread.sleep(200);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
+    }
+
+    @Test
+    @DisplayName("Shutdown should drop pending timers and reject new ones")
+    void testShutdown() throws InterruptedException {
+        Order order = preparingOrder("001", 100);
+        kitchen.schedule(order, order::markAsReady);
+
+        List<String> dropped = kitchen.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(dropped).containsExactly("001");
+        assertThat(kitchen.isShutdown()).isTrue();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
+        assertThatThrownBy(() -> kitchen.schedule(preparingOrder("002", 1), () -> {}))
+                .isInstanceOf(java.util.concurrent.RejectedExecutionException.class);
+    }
+}
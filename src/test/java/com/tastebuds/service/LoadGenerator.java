@@ -0,0 +1,272 @@
+package com.tastebuds.service;
+
+import com.tastebuds.metrics.LatencyHistogram;
+import com.tastebuds.model.*;
+import com.tastebuds.model.Order;
+import com.tastebuds.persistence.BinaryStore;
+import com.tastebuds.persistence.JAXBHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Drives whole order lifecycles through one in-memory TasteBudsSystem and reports
+ * throughput and latency per stage: place, prepare, the wait for the kitchen, dispatch,
+ * deliver and feedback, plus end to end. Customers, drivers and vehicles are synthetic.
+ *
+ * With a rate set, order i is due at start + i / rate and its end-to-end time counts from
+ * then, so a system that falls behind shows it in the tail instead of quietly slowing the
+ * generator down. Dispatch includes retries while every driver or vehicle is out.
+ *
+ * By default the system is loaded from an empty XML store in a temporary directory, so every
+ * stage pays for its journal write and the group-commit fsync as it would in production;
+ * {@code store=binary} uses the binary snapshot format and {@code store=none} leaves
+ * persistence out.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dexec.args="orders=50000 threads=8 rate=2000"
+ * </pre>
+ */
+public class LoadGenerator {
+
+    public enum Stage { PLACE, PREPARE, KITCHEN, DISPATCH, DELIVER, FEEDBACK, END_TO_END }
+
+    private static final long STAGE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    // settings, overridable from the command line as name=value
+    int orders = 10_000;
+    int threads = 8;
+    // orders started per second across all threads; 0 runs flat out
+    double rate = 0;
+    int customers = 100;
+    int drivers = 20;
+    int vehicles = 20;
+    int prepMinutes = 1;
+    // how long one estimated kitchen minute lasts
+    long kitchenMillisPerMinute = 0;
+    // xml, binary, or none to run without a journal
+    String store = "xml";
+
+    private final Map<Stage, LatencyHistogram> latencies = new EnumMap<>(Stage.class);
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private TasteBudsSystem system;
+    private Customer[] customerPool;
+    private int menuSize;
+
+    public LoadGenerator() {
+        for (Stage stage : Stage.values()) {
+            latencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public Result run() throws Exception {
+        Path dataDir = store.equals("none") ? null : Files.createTempDirectory("tastebuds-load");
+        KitchenScheduler kitchen = new KitchenScheduler(kitchenMillisPerMinute);
+        switch (store) {
+            case "none" -> system = new TasteBudsSystem(kitchen);
+            case "xml" -> system = new TasteBudsSystem(kitchen, new JAXBHandler(dataDir));
+            case "binary" -> system = new TasteBudsSystem(kitchen, new BinaryStore(dataDir));
+            default -> throw new IllegalArgumentException("Unknown store " + store);
+        }
+        try {
+            if (dataDir != null) {
+                // opens the journal, so every transition below is written and synced
+                system.loadData();
+            }
+            populate();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            try {
+                Future<?>[] workers = new Future<?>[threads];
+                for (int t = 0; t < threads; t++) {
+                    workers[t] = pool.submit(() -> work(start));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            return new Result(System.nanoTime() - start);
+        } finally {
+            system.shutdown();
+            if (dataDir != null) {
+                deleteRecursively(dataDir);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void populate() {
+        customerPool = new Customer[customers];
+        for (int i = 0; i < customers; i++) {
+            String id = String.format("C%05d", i + 1);
+            // every other customer registered, so the discount path is exercised too
+            customerPool[i] = i % 2 == 0
+                    ? new RegisteredCustomer(id, "Customer " + (i + 1), i % 12)
+                    : new GuestCustomer(id, "Guest " + (i + 1));
+            system.addCustomer(customerPool[i]);
+        }
+        for (int i = 1; i <= drivers; i++) {
+            system.addDriver(new Driver(String.format("D%04d", i), "Driver " + i, "LIC-" + i));
+        }
+        for (int i = 1; i <= vehicles; i++) {
+            system.addVehicle(new Vehicle(String.format("V%04d", i), "Bike"));
+        }
+        menuSize = system.getMenuCatalog().current().activeCount();
+    }
+
+    private void work(long start) {
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        int i;
+        while ((i = next.getAndIncrement()) < orders) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long begin = interval > 0 ? due : System.nanoTime();
+            if (lifecycle()) {
+                latencies.get(Stage.END_TO_END).recordSince(begin);
+                completed.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean lifecycle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Customer customer = customerPool[random.nextInt(customerPool.length)];
+        MenuCatalog.Menu menu = system.getMenuCatalog().current();
+        int lines = 1 + random.nextInt(3);
+        int[] items = new int[lines];
+        int[] quantities = new int[lines];
+        for (int l = 0; l < lines; l++) {
+            items[l] = menu.activeId(random.nextInt(menuSize));
+            quantities[l] = 1 + random.nextInt(3);
+        }
+
+        long t = System.nanoTime();
+        String orderNo = system.placeOrder(customer, items, quantities).getOrderNo();
+        t = lap(Stage.PLACE, t);
+
+        OrderCategory category = random.nextInt(4) == 0 ? OrderCategory.PRIORITY : OrderCategory.NORMAL;
+        if (!system.prepareOrder(orderNo, category, "Chef A", prepMinutes)) return false;
+        t = lap(Stage.PREPARE, t);
+
+        Order order = system.findOrder(orderNo);
+        while (order.getStatus() != OrderStatus.READY) {
+            if (System.nanoTime() - t > STAGE_TIMEOUT_NANOS) return false;
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+        t = lap(Stage.KITCHEN, t);
+
+        while (!system.autoAssignDelivery(orderNo)) {
+            if (System.nanoTime() - t > STAGE_TIMEOUT_NANOS) return false;
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+        t = lap(Stage.DISPATCH, t);
+
+        String licenseNo = "LIC-" + Integer.parseInt(order.getDriverId().substring(1));
+        if (!system.driverCompleteDelivery(orderNo, licenseNo)) return false;
+        t = lap(Stage.DELIVER, t);
+
+        if (!system.submitFeedback(orderNo, 1 + random.nextInt(5), "Load test")) return false;
+        lap(Stage.FEEDBACK, t);
+        return true;
+    }
+
+    private long lap(Stage stage, long since) {
+        long now = System.nanoTime();
+        latencies.get(stage).record(now - since);
+        return now;
+    }
+
+    /**
+     * What one run measured.
+     */
+    public class Result {
+        private final long elapsedNanos;
+        private final Map<Stage, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(Stage.class);
+
+        private Result(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+            latencies.forEach((stage, histogram) -> snapshots.put(stage, histogram.snapshot()));
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public double getOrdersPerSecond() {
+            return completed.get() / (elapsedNanos / 1e9);
+        }
+
+        public LatencyHistogram.Snapshot latency(Stage stage) {
+            return snapshots.get(stage);
+        }
+
+        public void print() {
+            System.out.printf("%d orders on %d threads, rate %s, %s: %d completed, %d failed in %.2fs = %.0f orders/s%n",
+                    orders, threads, rate > 0 ? String.valueOf(rate) : "unlimited",
+                    store.equals("none") ? "persistence excluded" : store + " store with journal",
+                    getCompleted(), getFailed(), elapsedNanos / 1e9, getOrdersPerSecond());
+            System.out.printf("%-11s %10s %10s %10s %10s %10s%n", "stage (us)", "count", "p50", "p99", "p999", "max");
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram.Snapshot s = snapshots.get(stage);
+                System.out.printf("%-11s %10d %10.1f %10.1f %10.1f %10.1f%n", stage, s.getCount(),
+                        s.valueAtPercentile(50) / 1e3, s.valueAtPercentile(99) / 1e3,
+                        s.valueAtPercentile(99.9) / 1e3, s.getMax() / 1e3);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Expected name=value, got " + arg);
+            switch (kv[0]) {
+                case "orders" -> generator.orders = Integer.parseInt(kv[1]);
+                case "threads" -> generator.threads = Integer.parseInt(kv[1]);
+                case "rate" -> generator.rate = Double.parseDouble(kv[1]);
+                case "customers" -> generator.customers = Integer.parseInt(kv[1]);
+                case "drivers" -> generator.drivers = Integer.parseInt(kv[1]);
+                case "vehicles" -> generator.vehicles = Integer.parseInt(kv[1]);
+                case "prepMinutes" -> generator.prepMinutes = Integer.parseInt(kv[1]);
+                case "kitchenMillisPerMinute" -> generator.kitchenMillisPerMinute = Long.parseLong(kv[1]);
+                case "store" -> generator.store = kv[1];
+                default -> throw new IllegalArgumentException("Unknown setting " + kv[0]);
+            }
+        }
+        generator.run().print();
+    }
+}
@@ -0,0 +1,31 @@
+package com.tastebuds.service;
+
+import org.junit.jupiter.api.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Keeps the load generator runnable: a small run must complete every lifecycle
+ */
+class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Load generator should drive every order through every stage")
+    void testSmallRun() throws Exception {
+        LoadGenerator generator = new LoadGenerator();
+        generator.orders = 300;
+        generator.threads = 4;
+        generator.drivers = 2;
+        generator.vehicles = 3;
+
+        LoadGenerator.Result result = generator.run();
+
+        assertThat(result.getCompleted()).isEqualTo(300);
+        assertThat(result.getFailed()).isZero();
+        for (LoadGenerator.Stage stage : LoadGenerator.Stage.values()) {
+            assertThat(result.latency(stage).getCount()).as(stage.name()).isEqualTo(300);
+        }
+        assertThat(result.latency(LoadGenerator.Stage.END_TO_END).valueAtPercentile(50))
+                .isGreaterThanOrEqualTo(result.latency(LoadGenerator.Stage.PLACE).valueAtPercentile(50));
+        assertThat(result.getOrdersPerSecond()).isPositive();
+    }
+}
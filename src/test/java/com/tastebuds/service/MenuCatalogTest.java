@@ -0,0 +1,78 @@
+package com.tastebuds.service;
+
+import com.tastebuds.model.*;
+
+import org.junit.jupiter.api.*;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the versioned menu catalog
+ */
+class MenuCatalogTest {
+
+    private MenuCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new MenuCatalog();
+    }
+
+    private MenuItemList menu(int version, MenuItem... items) {
+        return new MenuItemList(version, List.of(items));
+    }
+
+    @Test
+    @DisplayName("Catalog should start with the built-in menu")
+    void testDefaults() {
+        MenuCatalog.Menu current = catalog.current();
+
+        assertThat(current.getVersion()).isZero();
+        assertThat(current.activeCount()).isEqualTo(10);
+        assertThat(current.name(current.idOf("Green Salad"))).isEqualTo("Green Salad");
+        assertThat(current.price(current.idOf("Mixed Grill Platter"))).isEqualTo(1200.0);
+        assertThat(current.asMap().keySet()).first().isEqualTo("Chicken Biryani");
+    }
+
+    @Test
+    @DisplayName("Newer menu versions should replace prices and retire dropped items")
+    void testUpdateRetiresDroppedItems() {
+        MenuCatalog.Menu before = catalog.current();
+
+        boolean applied = catalog.update(menu(2,
+                new MenuItem(0, "Chicken Biryani", 280.0),
+                new MenuItem(10, "Beef Tehari", 320.0)));
+
+        MenuCatalog.Menu after = catalog.current();
+        assertThat(applied).isTrue();
+        assertThat(after.getVersion()).isEqualTo(2);
+        assertThat(after.price(0)).isEqualTo(280.0);
+        assertThat(after.activeIds()).containsExactly(0, 10);
+        assertThat(after.size()).isEqualTo(11);
+        // dropped items keep their name for old orders
+        assertThat(after.isActive(7)).isFalse();
+        assertThat(after.idOf("Green Salad")).isEqualTo(7);
+        // readers holding the old version are unaffected
+        assertThat(before.price(0)).isEqualTo(250.0);
+    }
+
+    @Test
+    @DisplayName("Older or equal menu versions should be ignored")
+    void testStaleVersionIgnored() {
+        catalog.update(menu(3, new MenuItem(0, "Chicken Biryani", 300.0)));
+
+        assertThat(catalog.update(menu(3, new MenuItem(0, "Chicken Biryani", 1.0)))).isFalse();
+        assertThat(catalog.update(menu(2, new MenuItem(0, "Chicken Biryani", 1.0)))).isFalse();
+        assertThat(catalog.current().price(0)).isEqualTo(300.0);
+    }
+
+    @Test
+    @DisplayName("Menus with duplicate ids should be rejected")
+    void testDuplicateIdsRejected() {
+        assertThatThrownBy(() -> catalog.update(menu(1,
+                new MenuItem(4, "Chicken Burger", 220.0),
+                new MenuItem(4, "Fish Burger", 240.0))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catalog.version()).isZero();
+    }
+}
@@ -2,8 +2,15 @@ package com.tastebuds.service;
 
 import com.tastebuds.model.*;
 import com.tastebuds.model.Order;
+import com.tastebuds.persistence.DataFile;
+import com.tastebuds.persistence.JAXBHandler;
+import com.tastebuds.persistence.LoadReport;
+import com.tastebuds.persistence.OrderArchive;
+import com.tastebuds.persistence.SaveReport;
 
 import org.junit.jupiter.api.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import static org.assertj.core.api.Assertions.*;
 
 /**
@@ -13,20 +20,53 @@ class TasteBudsSystemTest {
 
     private TasteBudsSystem system;
 
+    // one estimated kitchen minute lasts 50ms in tests
+    private static final long TEST_MINUTE_MILLIS = 50;
+
     @BeforeEach
     void setUp() {
-        system = new TasteBudsSystem();
+        system = new TasteBudsSystem(new KitchenScheduler(TEST_MINUTE_MILLIS));
         // Don't load data for tests - start fresh
     }
 
     @AfterEach
     void tearDown() {
         // Clean up test data
+        system.shutdown();
         system = null;
     }
 
     // ==================== PLACE ORDER TESTS ====================
 
+    @Test
+    @DisplayName("System should count orders, discounts and fleet use in its metrics")
+    void testMetrics() {
+        RegisteredCustomer regular = new RegisteredCustomer("C001", "Samir", 5);
+        GuestCustomer guest = new GuestCustomer("G001", "Guest");
+        system.addCustomer(regular);
+        system.addCustomer(guest);
+        system.addDriver(new Driver("D001", "Rafi", "LIC-001"));
+        system.addDriver(new Driver("D002", "Nila", "LIC-002"));
+        system.addVehicle(new Vehicle("V001", "Bike"));
+
+        system.placeOrder(regular, "Pizza", 1000.0);
+        system.placeOrder(guest, "Burger", 500.0);
+        Order third = system.placeOrder(guest, "Burger", 500.0);
+        third.markAsReady();
+        assertThat(system.autoAssignDelivery(third.getOrderNo())).isTrue();
+
+        String text = system.getMetrics().scrape();
+        assertThat(text).contains("tastebuds_orders_placed_total{customer_type=\"REGISTERED\"} 1\n");
+        assertThat(text).contains("tastebuds_orders_placed_total{customer_type=\"GUEST\"} 2\n");
+        assertThat(text).contains("tastebuds_discounts_granted_total 1\n");
+        assertThat(text).contains("tastebuds_discount_poisha_total 10000\n");
+        assertThat(text).contains("tastebuds_driver_utilization 0.5\n");
+        assertThat(text).contains("tastebuds_vehicle_utilization 1\n");
+        assertThat(text).contains("tastebuds_orders{status=\"OUT_FOR_DELIVERY\"} 1\n");
+        assertThat(text).contains("tastebuds_serving_order_lag 3\n");
+        assertThat(text).contains("tastebuds_order_stage_seconds_count{stage=\"READY\",category=\"NORMAL\"} 1\n");
+    }
+
     @Test
     @DisplayName("System should place order for registered customer with discount")
     void testPlaceOrderRegisteredCustomer() {
@@ -40,7 +80,7 @@ class TasteBudsSystemTest {
         assertThat(order.getCustomerId()).isEqualTo("C001");
         assertThat(order.getBillAmount()).isEqualTo(1000.0);
         assertThat(order.getFinalBill()).isEqualTo(900.0); // 10% discount
-        assertThat(order.getStatus()).isEqualTo("PLACED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
         assertThat(order.getQueuePosition()).isEqualTo(1);
 
         // Customer orders should increment
@@ -58,6 +98,63 @@ class TasteBudsSystemTest {
         assertThat(order.getFinalBill()).isEqualTo(2000.0); // No discount
     }
 
+    @Test
+    @DisplayName("System should total sales exactly in minor units")
+    void testTotalSalesExact() {
+        GuestCustomer guest = new GuestCustomer("G001", "Anonymous");
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir", 3);
+        system.addCustomer(customer);
+
+        for (int i = 0; i < 100; i++) {
+            system.placeOrder(guest, "Tea", 0.1);
+        }
+        Order odd = system.placeOrder(customer, "Platter", 333.33);
+
+        // 5% of 333.33 is 16.6665, rounded half up to 16.67
+        assertThat(odd.getFinalBillMinor()).isEqualTo(31666);
+        assertThat(system.totalSalesMinor()).isEqualTo(100 * 10 + 31666);
+    }
+
+    @Test
+    @DisplayName("System should price menu orders and keep their line items")
+    void testPlaceOrderFromMenu() {
+        GuestCustomer customer = new GuestCustomer("G001", "Anonymous");
+        int biryani = system.getMenuCatalog().current().idOf("Chicken Biryani");
+        int salad = system.getMenuCatalog().current().idOf("Green Salad");
+
+        Order order = system.placeOrder(customer, new int[]{biryani, salad}, new int[]{2, 1});
+        system.placeOrder(customer, new int[]{salad}, new int[]{3});
+        system.placeOrder(customer, "Off-menu platter", 900.0);
+
+        assertThat(order.getBillAmount()).isEqualTo(580.0);
+        assertThat(order.getItems()).isEqualTo("2x Chicken Biryani, 1x Green Salad, ");
+        long[] demand = system.dishDemand();
+        assertThat(demand[biryani]).isEqualTo(2);
+        assertThat(demand[salad]).isEqualTo(4);
+        assertThat(system.getMenuCatalog().current().idOf("Pizza")).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("System should turn legacy items text into line items on load")
+    void testLegacyItemsMigration() {
+        JAXBHandler handler = new JAXBHandler();
+        handler.clearAllData();
+        handler.saveOrders(java.util.List.of(
+                new Order("001", "C001", "2x Fried Rice, 1x Soft Drink (500ml), ", 450.0, 450.0, 1),
+                new Order("002", "C001", "Pizza, Burger", 1000.0, 1000.0, 2)));
+
+        system.loadData();
+
+        Order legacy = system.findOrder("001");
+        assertThat(legacy.getLineItemCount()).isEqualTo(2);
+        assertThat(legacy.getMenuItem(1)).isEqualTo(system.getMenuCatalog().current().idOf("Soft Drink (500ml)"));
+        assertThat(legacy.getQuantity(0)).isEqualTo(2);
+        assertThat(system.findOrder("002").hasLineItems()).isFalse();
+        assertThat(system.dishDemand()[system.getMenuCatalog().current().idOf("Fried Rice")]).isEqualTo(2);
+
+        handler.clearAllData();
+    }
+
     @Test
     @DisplayName("System should increment order counter correctly")
     void testOrderCounterIncrement() {
@@ -86,6 +183,30 @@ class TasteBudsSystemTest {
         assertThat(order2.getQueuePosition()).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("System should move later orders up when an order is delivered")
+    void testQueuePositionAfterDelivery() {
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir");
+        system.addCustomer(customer);
+        Driver driver = new Driver("D001", "Rahim", "DL-123456");
+        system.addDriver(driver);
+
+        Order order1 = system.placeOrder(customer, "Item1", 500.0);
+        Order order2 = system.placeOrder(customer, "Item2", 600.0);
+        Order order3 = system.placeOrder(customer, "Item3", 700.0);
+
+        order1.markAsReady();
+        system.assignDelivery("001", "D001", "Bike-12");
+        system.driverCompleteDelivery("001", "DL-123456");
+
+        assertThat(order1.getQueuePosition()).isEqualTo(0);
+        assertThat(order2.getQueuePosition()).isEqualTo(1);
+        assertThat(order3.getQueuePosition()).isEqualTo(2);
+
+        Order order4 = system.placeOrder(customer, "Item4", 800.0);
+        assertThat(order4.getQueuePosition()).isEqualTo(3);
+    }
+
     // ==================== KITCHEN PREPARATION TESTS ====================
 
     @Test
@@ -97,14 +218,37 @@ class TasteBudsSystemTest {
 
         system.prepareOrder("001", OrderCategory.PRIORITY, "Chef A, Chef B", 30);
 
-        assertThat(order.getStatus()).isEqualTo("PREPARING");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
         assertThat(order.getCategory()).isEqualTo(OrderCategory.PRIORITY);
         assertThat(order.getAssignedChefs()).isEqualTo("Chef A, Chef B");
         assertThat(order.getEstimatedTime()).isEqualTo(30);
 
         // Wait for async ready status
         Thread.sleep(2500);
-        assertThat(order.getStatus()).isEqualTo("READY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
+    }
+
+    @Test
+    @DisplayName("Kitchen should be handed high-value orders first")
+    void testNextOrderForKitchen() {
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir");
+        system.addCustomer(customer);
+        system.placeOrder(customer, "Burger", 500.0);
+        system.placeOrder(customer, "Platter", 2400.0);
+        system.placeOrder(customer, "Salad", 80.0);
+
+        // picked by number, so it must not come round again
+        system.prepareOrder("003", OrderCategory.NORMAL, "Chef A", 10);
+
+        assertThat(system.nextOrderForKitchen().getOrderNo()).isEqualTo("002");
+        // not prepared yet, so it is still the one offered
+        assertThat(system.nextOrderForKitchen().getOrderNo()).isEqualTo("002");
+        system.prepareOrder("002", OrderCategory.PRIORITY, "Chef B", 10);
+        assertThat(system.nextOrderForKitchen().getOrderNo()).isEqualTo("001");
+        system.prepareOrder("001", OrderCategory.NORMAL, "Chef A", 10);
+        assertThat(system.nextOrderForKitchen()).isNull();
+        assertThat(system.getKitchenWaitStats().get(OrderCategory.PRIORITY).getCount()).isEqualTo(1);
+        assertThat(system.getKitchenWaitStats().get(OrderCategory.NORMAL).getCount()).isEqualTo(2);
     }
 
     // ==================== DELIVERY ASSIGNMENT TESTS ====================
@@ -122,12 +266,41 @@ class TasteBudsSystemTest {
 
         system.assignDelivery("001", "D001", "Bike-12");
 
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(order.getDriverId()).isEqualTo("D001");
         assertThat(order.getVehicle()).isEqualTo("Bike-12");
         assertThat(driver.isAvailable()).isFalse();
     }
 
+    @Test
+    @DisplayName("Auto-assign should hand out the longest-free driver and reuse released ones")
+    void testAutoAssignDeliveryUsesFreeDrivers() {
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir");
+        system.addCustomer(customer);
+        system.addDriver(new Driver("D001", "Rahim", "DL-111111"));
+        system.addDriver(new Driver("D002", "Karim", "DL-222222"));
+        system.addVehicle(new Vehicle("V001", "Bike"));
+
+        Order first = system.placeOrder(customer, "Burger", 500.0);
+        Order second = system.placeOrder(customer, "Pizza", 800.0);
+        first.markAsReady();
+        second.markAsReady();
+
+        assertThat(system.autoAssignDelivery("001")).isTrue();
+        assertThat(first.getDriverId()).isEqualTo("D001");
+
+        // no vehicle left, so the second driver must stay free
+        assertThat(system.autoAssignDelivery("002")).isFalse();
+        assertThat(system.findDriver("D002").isAvailable()).isTrue();
+
+        system.submitFeedback("001", 4, "Good");
+        assertThat(system.findVehicle("V001").isAvailable()).isTrue();
+
+        assertThat(system.autoAssignDelivery("002")).isTrue();
+        assertThat(second.getDriverId()).isEqualTo("D002");
+        assertThat(second.getVehicle()).isEqualTo("V001");
+    }
+
     // ==================== DRIVER CHECKOUT TESTS ====================
 
     @Test
@@ -182,7 +355,7 @@ class TasteBudsSystemTest {
 
         system.submitFeedback("001", 5, "Excellent!");
 
-        assertThat(order.getStatus()).isEqualTo("DELIVERED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
         assertThat(driver.isAvailable()).isTrue();
         assertThat(system.getFeedbacks()).hasSize(1);
         assertThat(system.getFeedbacks().get(0).getRating()).isEqualTo(5);
@@ -235,6 +408,25 @@ class TasteBudsSystemTest {
         assertThat(found.getId()).isEqualTo("D001");
     }
 
+    @Test
+    @DisplayName("System should find chef by name ignoring case")
+    void testFindChefIgnoresCase() {
+        system.addChef(new Chef("Gordon"));
+
+        assertThat(system.findChef("gordon")).isNotNull();
+        assertThat(system.findChef("GORDON").getName()).isEqualTo("Gordon");
+        assertThat(system.findChef("Jamie")).isNull();
+    }
+
+    @Test
+    @DisplayName("System should find vehicle by ID")
+    void testFindVehicle() {
+        system.addVehicle(new Vehicle("V001", "Bike"));
+
+        assertThat(system.findVehicle("V001")).isNotNull();
+        assertThat(system.findVehicle("V999")).isNull();
+    }
+
     // ==================== SERVING ORDER TESTS ====================
 
     @Test
@@ -268,21 +460,21 @@ class TasteBudsSystemTest {
 
         // Place order
         Order order = system.placeOrder(customer, "Pizza, Burger, Coke", 1200.0);
-        assertThat(order.getStatus()).isEqualTo("PLACED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
         assertThat(order.getFinalBill()).isEqualTo(1080.0); // 10% discount
         assertThat(customer.getOrdersThisMonth()).isEqualTo(6);
 
         // Kitchen preparation
         system.prepareOrder("001", OrderCategory.PRIORITY, "Chef A, Chef B", 25);
-        assertThat(order.getStatus()).isEqualTo("PREPARING");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
 
         // Wait for ready
         Thread.sleep(2500);
-        assertThat(order.getStatus()).isEqualTo("READY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
 
         // Assign delivery
         system.assignDelivery("001", "D001", "Bike-12");
-        assertThat(order.getStatus()).isEqualTo("OUT_FOR_DELIVERY");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
         assertThat(driver.isAvailable()).isFalse();
 
         // Driver checkout
@@ -291,7 +483,7 @@ class TasteBudsSystemTest {
 
         // Submit feedback
         system.submitFeedback("001", 5, "Perfect service!");
-        assertThat(order.getStatus()).isEqualTo("DELIVERED");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
         assertThat(driver.isAvailable()).isTrue();
         assertThat(system.getFeedbacks()).hasSize(1);
     }
@@ -321,5 +513,178 @@ class TasteBudsSystemTest {
         assertThat(newSystem.getCustomers()).isNotEmpty();
         assertThat(newSystem.getDrivers()).isNotEmpty();
         assertThat(newSystem.getOrders()).isNotEmpty();
+        assertThat(newSystem.findCustomer("C001")).isNotNull();
+        assertThat(newSystem.findDriver("D001")).isNotNull();
+        assertThat(newSystem.findOrder(order.getOrderNo())).isNotNull();
+    }
+
+    @Test
+    @DisplayName("System should load every data file and report the timings")
+    void testParallelLoadReport() {
+        new JAXBHandler().clearAllData();
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir", 5);
+        system.addCustomer(customer);
+        system.addChef(new Chef("Chef A"));
+        system.addVehicle(new Vehicle("V001", "Bike"));
+        system.placeOrder(customer, "Pizza", 800.0);
+        system.placeOrder(customer, "Steak", 1200.0);
+        system.saveData();
+
+        TasteBudsSystem reloaded = new TasteBudsSystem();
+        LoadReport report = reloaded.loadData();
+
+        assertThat(report.getEntries()).hasSize(DataFile.values().length);
+        assertThat(report.get(DataFile.ORDERS).getRecords()).isEqualTo(2);
+        assertThat(report.get(DataFile.CHEFS).getRecords()).isEqualTo(1);
+        assertThat(report.getTotalMillis()).isGreaterThanOrEqualTo(report.getLinkMillis());
+        assertThat(reloaded.findOrder("002").getFinalBill()).isEqualTo(1080.0);
+        assertThat(reloaded.placeOrder(customer, "Salad", 100.0).getOrderNo()).isEqualTo("003");
+        reloaded.shutdown();
+
+        new JAXBHandler().clearAllData();
+    }
+
+    @Test
+    @DisplayName("System should only rewrite data files that changed")
+    void testSaveSkipsUnchangedFiles() {
+        new JAXBHandler().clearAllData();
+        system.loadData();
+
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir", 5);
+        system.addCustomer(customer);
+        system.addDriver(new Driver("D001", "Rahim", "DL-123456"));
+        Order order = system.placeOrder(customer, "Pizza", 800.0);
+
+        SaveReport first = system.saveData();
+        assertThat(first.get(DataFile.CUSTOMERS).isWritten()).isTrue();
+        assertThat(first.get(DataFile.ORDERS).getBytes()).isPositive();
+        assertThat(first.get(DataFile.CHEFS).isWritten()).isFalse();
+
+        assertThat(system.saveData().getFilesWritten()).isZero();
+
+        // long enough that the kitchen timer does not fire during the test
+        system.prepareOrder(order.getOrderNo(), OrderCategory.NORMAL, "Chef A", 1000);
+        SaveReport second = system.saveData();
+        assertThat(second.getFilesWritten()).isEqualTo(1);
+        assertThat(second.get(DataFile.ORDERS).isWritten()).isTrue();
+        assertThat(second.isSuccess()).isTrue();
+
+        TasteBudsSystem reloaded = new TasteBudsSystem();
+        reloaded.loadData();
+        assertThat(reloaded.findOrder(order.getOrderNo()).getStatus()).isEqualTo(OrderStatus.PREPARING);
+        assertThat(reloaded.saveData().getFilesWritten()).isZero();
+        reloaded.shutdown();
+
+        new JAXBHandler().clearAllData();
+    }
+
+    @Test
+    @DisplayName("System should recover unsaved order events from the journal")
+    void testJournalReplayWithoutSave() {
+        new JAXBHandler().clearAllData();
+        system.loadData();
+
+        RegisteredCustomer customer = new RegisteredCustomer("C001", "Samir", 5);
+        system.addCustomer(customer);
+        Driver driver = new Driver("D001", "Rahim", "DL-123456");
+        system.addDriver(driver);
+        system.saveData();
+
+        Order order = system.placeOrder(customer, "Pizza", 800.0);
+        order.markAsReady();
+        system.assignDelivery(order.getOrderNo(), "D001", "Bike-12");
+        system.submitFeedback(order.getOrderNo(), 4, "Good");
+
+        // no saveData() - a fresh system must rebuild everything from snapshot + journal
+        TasteBudsSystem recovered = new TasteBudsSystem();
+        recovered.loadData();
+
+        Order replayed = recovered.findOrder(order.getOrderNo());
+        assertThat(replayed).isNotNull();
+        assertThat(replayed.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(replayed.getDriverId()).isEqualTo("D001");
+        assertThat(replayed.getFinalBill()).isEqualTo(720.0);
+        assertThat(recovered.getFeedbacks()).hasSize(1);
+        assertThat(recovered.findDriver("D001").isAvailable()).isTrue();
+        assertThat(((RegisteredCustomer) recovered.findCustomer("C001")).getOrdersThisMonth()).isEqualTo(6);
+
+        new JAXBHandler().clearAllData();
+    }
+
+    @Test
+    @DisplayName("System should archive settled orders on save and keep them findable")
+    void testSettledOrdersArchived() {
+        new JAXBHandler().clearAllData();
+        system.loadData();
+
+        GuestCustomer guest = new GuestCustomer("G001", "Walk-in");
+        system.addCustomer(guest);
+        system.addDriver(new Driver("D001", "Rahim", "DL-123456"));
+        system.addDriver(new Driver("D002", "Karim", "DL-654321"));
+        Order settled = system.placeOrder(guest, "Pizza", 800.0);
+        settled.markAsReady();
+        system.assignDelivery(settled.getOrderNo(), "D001", "Bike-12");
+        system.submitFeedback(settled.getOrderNo(), 5, "Great");
+        // delivered just now and no feedback yet: stays on the heap
+        Order awaiting = system.placeOrder(guest, "Salad", 80.0);
+        awaiting.markAsReady();
+        system.assignDelivery(awaiting.getOrderNo(), "D002", "Bike-7");
+        system.driverCompleteDelivery(awaiting.getOrderNo(), "DL-654321");
+        Order live = system.placeOrder(guest, "Steak", 650.0);
+        long sales = system.totalSalesMinor();
+
+        system.saveData();
+
+        OrderArchive archive = new JAXBHandler().orderArchive();
+        assertThat(archive.partitions()).containsExactly(archive.partitionOf(settled.getDeliveredAt()));
+        assertThat(system.getOrders()).containsExactlyInAnyOrder(awaiting, live);
+        assertThat(system.countOrders(OrderStatus.DELIVERED)).isEqualTo(2);
+        assertThat(system.getCurrentServingOrder()).isEqualTo(3);
+        assertThat(system.totalSalesMinor()).isEqualTo(sales);
+        assertThat(system.findHistoricalOrder(settled.getOrderNo()).getDriverId()).isEqualTo("D001");
+        // archived orders are read-only: a second rating is refused, not added to a detached copy
+        assertThat(system.submitFeedback(settled.getOrderNo(), 1, "Again")).isFalse();
+        assertThat(system.getFeedbacks()).extracting(Feedback::getComment).containsExactly("Great");
+
+        TasteBudsSystem reloaded = new TasteBudsSystem();
+        reloaded.loadData();
+        assertThat(reloaded.getOrders()).extracting(Order::getOrderNo)
+                .containsExactlyInAnyOrder(awaiting.getOrderNo(), live.getOrderNo());
+        Order copy = reloaded.findOrder(settled.getOrderNo());
+        assertThat(copy.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(copy.getFinalBill()).isEqualTo(800.0);
+        assertThat(copy.getDeliveredAt()).isEqualTo(settled.getDeliveredAt());
+        assertThat(reloaded.getCurrentServingOrder()).isEqualTo(3);
+        assertThat(reloaded.placeOrder(guest, "Salad", 80.0).getOrderNo()).isEqualTo("004");
+        reloaded.shutdown();
+
+        new JAXBHandler().clearAllData();
+    }
+
+    @Test
+    @DisplayName("System should rebuild a lost history index from the archive")
+    void testHistoryRebuiltFromArchive() throws Exception {
+        new JAXBHandler().clearAllData();
+        system.loadData();
+
+        GuestCustomer guest = new GuestCustomer("G001", "Walk-in");
+        system.addCustomer(guest);
+        system.addDriver(new Driver("D001", "Rahim", "DL-123456"));
+        Order order = system.placeOrder(guest, "Pizza", 800.0);
+        order.markAsReady();
+        system.assignDelivery(order.getOrderNo(), "D001", "Bike-12");
+        system.submitFeedback(order.getOrderNo(), 4, "Good");
+        system.saveData();
+        system.shutdown();
+
+        Files.delete(Path.of("data/orders-history.rec"));
+        Files.delete(Path.of("data/orders-history.str"));
+
+        system = new TasteBudsSystem();
+        system.loadData();
+        assertThat(system.findHistoricalOrder(order.getOrderNo()).getVehicle()).isEqualTo("Bike-12");
+        assertThat(system.countOrders(OrderStatus.DELIVERED)).isEqualTo(1);
+
+        new JAXBHandler().clearAllData();
     }
-}
\ No newline at end of file
+}